@@ -1,6 +1,8 @@
 package br.com.bigplant.escala.api;
 
 import br.com.bigplant.escala.audit.AuditLog;
+import br.com.bigplant.escala.dto.Cursor;
+import br.com.bigplant.escala.dto.Pagina;
 import br.com.bigplant.escala.service.AuditService;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
@@ -23,8 +25,15 @@ public class AuditController {
         this.auditService = auditService;
     }
 
+    // Paginada, mais recentes primeiro: o cursor da próxima página vem no cabeçalho X-Proximo-Cursor
     @GetMapping
-    public ResponseEntity<List<AuditLog>> listar(HttpServletRequest request, @RequestParam(required = false) String usuarioIdFiltro) {
+    public ResponseEntity<List<AuditLog>> listar(
+            HttpServletRequest request,
+            @RequestParam(required = false) String usuarioIdFiltro,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", required = false) Integer limite) {
+        Cursor posicao = Cursor.decodificar(cursor);
+        int tamanho = Pagina.limite(limite);
         String usuarioPerfil = (String) request.getAttribute("usuarioPerfil");
         String usuarioId = (String) request.getAttribute("usuarioId");
         
@@ -34,12 +43,15 @@ public class AuditController {
         // Se for ADMIN ou AUDIT, pode ver tudo ou filtrar por usuário específico
         if (isAdmin || isAuditor) {
             if (usuarioIdFiltro != null && !usuarioIdFiltro.isBlank()) {
-                return ResponseEntity.ok(auditService.findByActor(usuarioIdFiltro));
+                return RespostaPaginada.ok(auditService.listarPagina(usuarioIdFiltro, posicao, tamanho));
             }
-            return ResponseEntity.ok(auditService.findAll());
+            return RespostaPaginada.ok(auditService.listarPagina(null, posicao, tamanho));
         }
 
-        // Usuário comum só vê suas próprias ações
-        return ResponseEntity.ok(auditService.findByActor(usuarioId));
+        // Usuário comum só vê suas próprias ações (sem id, nenhuma: actorId nulo listaria as de todos)
+        if (usuarioId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return RespostaPaginada.ok(auditService.listarPagina(usuarioId, posicao, tamanho));
     }
 }
@@ -1,5 +1,7 @@
 package br.com.bigplant.escala.api;
 
+import br.com.bigplant.escala.dto.Cursor;
+import br.com.bigplant.escala.dto.Pagina;
 import br.com.bigplant.escala.model.Disponibilidade;
 import br.com.bigplant.escala.repository.DisponibilidadeRepository;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/disponibilidades")
@@ -54,9 +57,23 @@ public class DisponibilidadeController {
         return ResponseEntity.ok(salvo);
     }
 
+    // Paginada por (data, id): o cursor da próxima página vem no cabeçalho X-Proximo-Cursor
     @GetMapping
-    public ResponseEntity<List<Disponibilidade>> listarTodas() {
-        return ResponseEntity.ok(disponibilidadeRepository.findAll());
+    public ResponseEntity<List<Disponibilidade>> listarTodas(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", required = false) Integer limite) {
+        Cursor posicao = Cursor.decodificar(cursor);
+        int tamanho = Pagina.limite(limite);
+        List<Disponibilidade> disponibilidades;
+        if (posicao.inicio()) {
+            disponibilidades = disponibilidadeRepository.findPrimeiraPagina(Pagina.busca(tamanho));
+        } else if (posicao.chave() == null) {
+            disponibilidades = disponibilidadeRepository.findPaginaAposSemData(posicao.id(), Pagina.busca(tamanho));
+        } else {
+            disponibilidades = disponibilidadeRepository.findPaginaApos(
+                    posicao.chaveData(), posicao.id(), Pagina.busca(tamanho));
+        }
+        return RespostaPaginada.ok(Pagina.de(disponibilidades, tamanho, d -> Cursor.de(d.getData(), d.getId())));
     }
 
     @GetMapping("/{id}")
@@ -67,17 +84,32 @@ public class DisponibilidadeController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Consulta por intervalo no banco, paginada por (data, id) como as demais listagens
     @GetMapping("/hospital/{idHospital}")
     public ResponseEntity<List<Disponibilidade>> listarPorHospitalEPeriodo(
             @PathVariable Long idHospital,
             @RequestParam("inicio") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
-            @RequestParam("fim") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
-        List<Disponibilidade> todas = disponibilidadeRepository.findAll();
-        return ResponseEntity.ok(todas.stream()
-                .filter(d -> d.getIdHospital().equals(idHospital)
-                        && (d.getData().isEqual(inicio) || d.getData().isAfter(inicio))
-                        && (d.getData().isEqual(fim) || d.getData().isBefore(fim)))
-                .toList());
+            @RequestParam("fim") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(value = "idProfissional", required = false) Long idProfissional,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", required = false) Integer limite) {
+        if (fim.isBefore(inicio)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido");
+        }
+        int tamanho = Pagina.limite(limite);
+        Cursor posicao = Cursor.decodificar(cursor);
+        // Sem cursor, começa antes da primeira do período (os ids são positivos)
+        LocalDate aposData = posicao.id() == null ? inicio : posicao.chaveData();
+        long aposId = posicao.id() == null ? 0 : posicao.id();
+        if (aposData == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+        List<Disponibilidade> disponibilidades = idProfissional == null
+                ? disponibilidadeRepository.findPaginaPorHospitalEPeriodo(
+                        idHospital, inicio, fim, aposData, aposId, Pagina.busca(tamanho))
+                : disponibilidadeRepository.findPaginaPorHospitalProfissionalEPeriodo(
+                        idHospital, idProfissional, inicio, fim, aposData, aposId, Pagina.busca(tamanho));
+        return RespostaPaginada.ok(Pagina.de(disponibilidades, tamanho, d -> Cursor.de(d.getData(), d.getId())));
     }
 
     @PutMapping("/{id}")
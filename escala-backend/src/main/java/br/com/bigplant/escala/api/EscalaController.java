@@ -1,12 +1,26 @@
 package br.com.bigplant.escala.api;
 
 import br.com.bigplant.escala.dto.DadosGeracaoEscalaDTO;
+import br.com.bigplant.escala.dto.DadosReparoEscalaDTO;
+import br.com.bigplant.escala.dto.ResultadoReparoDTO;
+import br.com.bigplant.escala.dto.DadosSimulacaoEscalaDTO;
+import br.com.bigplant.escala.dto.ResultadoSimulacaoDTO;
+import br.com.bigplant.escala.geracao.JobGeracao;
+import br.com.bigplant.escala.geracao.RastroAlocacao;
 import br.com.bigplant.escala.model.Escala;
+import br.com.bigplant.escala.service.GeracaoEscalaJobService;
 import br.com.bigplant.escala.service.GeracaoEscalaService;
+import br.com.bigplant.escala.service.RastroGeracaoService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import br.com.bigplant.escala.audit.AuditLog;
 import br.com.bigplant.escala.service.AuditService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,17 +29,27 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/escala")
 public class EscalaController {
 
     private final GeracaoEscalaService geracaoEscalaService;
+    private final GeracaoEscalaJobService geracaoEscalaJobService;
+    private final RastroGeracaoService rastroGeracaoService;
     private final AuditService auditService;
     private final HttpServletRequest request;
 
-    public EscalaController(GeracaoEscalaService geracaoEscalaService, AuditService auditService, HttpServletRequest request) {
+    public EscalaController(
+            GeracaoEscalaService geracaoEscalaService,
+            GeracaoEscalaJobService geracaoEscalaJobService,
+            RastroGeracaoService rastroGeracaoService,
+            AuditService auditService,
+            HttpServletRequest request) {
         this.geracaoEscalaService = geracaoEscalaService;
+        this.geracaoEscalaJobService = geracaoEscalaJobService;
+        this.rastroGeracaoService = rastroGeracaoService;
         this.auditService = auditService;
         this.request = request;
     }
@@ -49,14 +73,78 @@ public class EscalaController {
         return ResponseEntity.ok(geracaoEscalaService.listarEscalas(idHospital));
     }
 
+    // Uma geração por hospital por vez, síncrona ou em job: 409 se já houver uma em andamento
     @PostMapping("/gerar/{idHospital}")
     public ResponseEntity<Escala> gerarEscalaProximosQuinzeDias(
             @PathVariable Long idHospital,
             @RequestBody DadosGeracaoEscalaDTO dados) {
-        Escala escala = geracaoEscalaService.gerarEscalaProximosQuinzeDias(idHospital, dados);
+        Escala escala = geracaoEscalaJobService.gerarSincrono(idHospital, dados);
         return ResponseEntity.ok(escala);
     }
 
+    // Geração assíncrona: devolve o job imediatamente; o andamento é consultado em /jobs/{idJob}
+    @PostMapping("/gerar/{idHospital}/jobs")
+    public ResponseEntity<JobGeracao> submeterGeracao(
+            @PathVariable Long idHospital,
+            @RequestBody DadosGeracaoEscalaDTO dados) {
+        JobGeracao job = geracaoEscalaJobService.submeter(idHospital, dados);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    // Simulação sem gravar nada: uma escala proposta e métricas por variante de regras
+    @PostMapping("/simular/{idHospital}")
+    public ResponseEntity<List<ResultadoSimulacaoDTO>> simularEscala(
+            @PathVariable Long idHospital,
+            @RequestBody DadosSimulacaoEscalaDTO dados) {
+        return ResponseEntity.ok(geracaoEscalaService.simularEscala(idHospital, dados));
+    }
+
+    // Realoca só os turnos afetados por mudanças de disponibilidade, de equipe ou por conflito
+    @PostMapping("/{id}/reparar")
+    public ResponseEntity<ResultadoReparoDTO> repararEscala(
+            @PathVariable Long id,
+            @RequestBody(required = false) DadosReparoEscalaDTO dados) {
+        ResultadoReparoDTO resultado =
+                geracaoEscalaService.repararEscala(id, dados != null ? dados : new DadosReparoEscalaDTO());
+
+        // Auditoria
+        try {
+            String usuarioId = (String) request.getAttribute("usuarioId");
+            String usuarioEmail = (String) request.getAttribute("usuarioEmail");
+            auditService.log(usuarioId, usuarioEmail, AuditLog.ActionType.UPDATE,
+                    "Escala", id.toString(), null, resultado, request.getRemoteAddr());
+        } catch (Exception e) {
+            // Log error but don't fail the request
+            e.printStackTrace();
+        }
+
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping("/jobs/{idJob}")
+    public ResponseEntity<JobGeracao> buscarJob(@PathVariable String idJob) {
+        return geracaoEscalaJobService.buscar(idJob)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Rastro da alocação (CSV), disponível quando a geração foi pedida com rastrear = true
+    @GetMapping("/{id}/rastro")
+    public ResponseEntity<StreamingResponseBody> baixarRastro(@PathVariable Long id) {
+        return rastroGeracaoService.buscar(id)
+                .map(rastro -> rastroCsv(id, rastro))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{idJob}/rastro")
+    public ResponseEntity<StreamingResponseBody> baixarRastroJob(@PathVariable String idJob) {
+        return geracaoEscalaJobService.buscar(idJob)
+                .filter(job -> job.getIdEscala() != null)
+                .flatMap(job -> rastroGeracaoService.buscar(job.getIdEscala())
+                        .map(rastro -> rastroCsv(job.getIdEscala(), rastro)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> excluirEscala(@PathVariable Long id) {
         return geracaoEscalaService.buscarEscalaPorId(id)
@@ -78,5 +166,17 @@ public class EscalaController {
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
-}
 
+    private static ResponseEntity<StreamingResponseBody> rastroCsv(Long idEscala, RastroAlocacao rastro) {
+        StreamingResponseBody corpo = saida -> {
+            Writer writer = new OutputStreamWriter(saida, StandardCharsets.UTF_8);
+            rastro.escreverCsv(writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rastro-escala-" + idEscala + ".csv\"")
+                .header("X-Rastro-Truncado", String.valueOf(rastro.truncado()))
+                .body(corpo);
+    }
+}
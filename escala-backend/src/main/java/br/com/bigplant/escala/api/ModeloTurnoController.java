@@ -0,0 +1,99 @@
+package br.com.bigplant.escala.api;
+
+import br.com.bigplant.escala.model.ModeloTurno;
+import br.com.bigplant.escala.repository.ModeloTurnoRepository;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/modelos-turno")
+public class ModeloTurnoController {
+
+    private final ModeloTurnoRepository repository;
+
+    public ModeloTurnoController(ModeloTurnoRepository repository) {
+        this.repository = repository;
+    }
+
+    @GetMapping("/hospital/{idHospital}")
+    public ResponseEntity<List<ModeloTurno>> listarPorHospital(@PathVariable Long idHospital) {
+        return ResponseEntity.ok(repository.findByIdHospitalAndAtivoTrue(idHospital));
+    }
+
+    @GetMapping("/local/{idLocalAtendimento}")
+    public ResponseEntity<List<ModeloTurno>> listarPorLocal(@PathVariable Long idLocalAtendimento) {
+        return ResponseEntity.ok(repository.findByIdLocalAtendimentoAndAtivoTrue(idLocalAtendimento));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ModeloTurno> buscarPorId(@PathVariable Long id) {
+        return repository.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<ModeloTurno> criar(@RequestBody ModeloTurno modelo) {
+        validar(modelo);
+        if (modelo.getAtivo() == null) {
+            modelo.setAtivo(true);
+        }
+        if (modelo.getQuantidade() == null) {
+            modelo.setQuantidade(1);
+        }
+        return ResponseEntity.ok(repository.save(modelo));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<ModeloTurno> atualizar(@PathVariable Long id, @RequestBody ModeloTurno atualizacao) {
+        validar(atualizacao);
+        return repository.findById(id)
+                .map(existente -> {
+                    existente.setIdLocalAtendimento(atualizacao.getIdLocalAtendimento());
+                    existente.setIdEspecialidade(atualizacao.getIdEspecialidade());
+                    existente.setDiaSemana(atualizacao.getDiaSemana());
+                    existente.setHoraInicio(atualizacao.getHoraInicio());
+                    existente.setHoraFim(atualizacao.getHoraFim());
+                    existente.setTipo(atualizacao.getTipo());
+                    existente.setQuantidade(atualizacao.getQuantidade() == null ? 1 : atualizacao.getQuantidade());
+                    if (atualizacao.getAtivo() != null) {
+                        existente.setAtivo(atualizacao.getAtivo());
+                    }
+                    return ResponseEntity.ok(repository.save(existente));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> remover(@PathVariable Long id) {
+        return repository.findById(id)
+                .map(existente -> {
+                    existente.setAtivo(false);
+                    repository.save(existente);
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private void validar(ModeloTurno modelo) {
+        if (modelo.getHoraInicio() == null || modelo.getHoraFim() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Horário de início e fim são obrigatórios");
+        }
+        if (modelo.getDiaSemana() != null && (modelo.getDiaSemana() < 1 || modelo.getDiaSemana() > 7)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Dia da semana deve estar entre 1 e 7");
+        }
+        if (modelo.getQuantidade() != null && modelo.getQuantidade() < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantidade deve ser ao menos 1");
+        }
+    }
+}
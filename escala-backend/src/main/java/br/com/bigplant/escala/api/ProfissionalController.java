@@ -1,11 +1,18 @@
 package br.com.bigplant.escala.api;
 
+import br.com.bigplant.escala.dto.Cursor;
+import br.com.bigplant.escala.dto.Pagina;
+import br.com.bigplant.escala.dto.ProfissionalResumoDTO;
 import br.com.bigplant.escala.model.Profissional;
 import br.com.bigplant.escala.model.InstituicaoOrganizacional;
+import br.com.bigplant.escala.repository.CredenciaisProfissional;
+import br.com.bigplant.escala.repository.FotoPerfilRepository;
 import br.com.bigplant.escala.repository.ProfissionalRepository;
+import br.com.bigplant.escala.security.AssinaturaFoto;
 import br.com.bigplant.escala.security.JwtService;
 import br.com.bigplant.escala.audit.AuditLog;
 import br.com.bigplant.escala.service.AuditService;
+import br.com.bigplant.escala.service.FotoPerfilService;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
@@ -13,15 +20,21 @@ import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -31,8 +44,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/profissionais")
@@ -43,6 +60,8 @@ public class ProfissionalController {
     private final ProfissionalRepository profissionalRepository;
     private final JwtService jwtService;
     private final AuditService auditService;
+    private final FotoPerfilService fotoPerfilService;
+    private final AssinaturaFoto assinaturaFoto;
 
     @Value("${google.clientId:}")
     private String googleClientId;
@@ -54,10 +73,16 @@ public class ProfissionalController {
     private Long googleAutoOnboardingDefaultHospitalId;
 
     public ProfissionalController(
-            ProfissionalRepository profissionalRepository, JwtService jwtService, AuditService auditService) {
+            ProfissionalRepository profissionalRepository,
+            JwtService jwtService,
+            AuditService auditService,
+            FotoPerfilService fotoPerfilService,
+            AssinaturaFoto assinaturaFoto) {
         this.profissionalRepository = profissionalRepository;
         this.jwtService = jwtService;
         this.auditService = auditService;
+        this.fotoPerfilService = fotoPerfilService;
+        this.assinaturaFoto = assinaturaFoto;
     }
 
     public static class LoginRequest {
@@ -82,42 +107,125 @@ public class ProfissionalController {
         public String idToken;
     }
 
+    // Listagens usam o resumo (sem senha e com a foto como URL); a entidade completa fica para a edição
     @GetMapping("/hospital/{idHospital}")
-    public ResponseEntity<List<Profissional>> listarPorHospital(@PathVariable Long idHospital) {
-        List<Profissional> profissionais = profissionalRepository.findByIdHospitalAndAtivoTrue(idHospital);
-        
-        // Ocultar dados sensíveis se o usuário não permitir divulgação
-        profissionais.forEach(p -> {
-            if (Boolean.FALSE.equals(p.getDivulgarDados())) {
-                p.setTelefoneWhatsapp(null);
-                p.setEmail(null);
-                // Mantemos nome e foto para identificação na escala, mas ocultamos contato
-            }
-        });
-        
+    public ResponseEntity<List<ProfissionalResumoDTO>> listarPorHospital(@PathVariable Long idHospital) {
+        List<ProfissionalResumoDTO> profissionais = profissionalRepository.findResumosAtivosPorHospital(idHospital);
+        profissionais.forEach(this::prepararResumo);
         return ResponseEntity.ok(profissionais);
     }
 
+    // Paginada por (nome, id): o cursor da próxima página vem no cabeçalho X-Proximo-Cursor
     @GetMapping
-    public ResponseEntity<List<Profissional>> listarTodos() {
-        List<Profissional> profissionais = profissionalRepository.findAll();
-        
-        // Ocultar dados sensíveis se o usuário não permitir divulgação
-        profissionais.forEach(p -> {
-            if (Boolean.FALSE.equals(p.getDivulgarDados())) {
-                p.setTelefoneWhatsapp(null);
-                p.setEmail(null);
-            }
-        });
-        
-        return ResponseEntity.ok(profissionais);
+    public ResponseEntity<List<ProfissionalResumoDTO>> listarTodos(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", required = false) Integer limite) {
+        Cursor posicao = Cursor.decodificar(cursor);
+        int tamanho = Pagina.limite(limite);
+        List<ProfissionalResumoDTO> profissionais;
+        if (posicao.inicio()) {
+            profissionais = profissionalRepository.findPrimeiraPagina(Pagina.busca(tamanho));
+        } else if (posicao.chave() == null) {
+            profissionais = profissionalRepository.findPaginaAposSemNome(posicao.id(), Pagina.busca(tamanho));
+        } else {
+            profissionais = profissionalRepository.findPaginaApos(posicao.chave(), posicao.id(), Pagina.busca(tamanho));
+        }
+        Pagina<ProfissionalResumoDTO> pagina =
+                Pagina.de(profissionais, tamanho, p -> Cursor.de(p.getNome(), p.getId()));
+        pagina.itens().forEach(this::prepararResumo);
+        return RespostaPaginada.ok(pagina);
+    }
+
+    private void prepararResumo(ProfissionalResumoDTO profissional) {
+        profissional.ocultarContatoSeNaoDivulgado();
+        if (profissional.getVersaoFoto() != null) {
+            profissional.setFotoPerfil(urlFoto(profissional.getId(), profissional.getVersaoFoto(), true));
+        }
+    }
+
+    // Respostas com a entidade levam a URL da foto inteira em fotoPerfil (campo não persistido)
+    private Profissional comUrlFoto(Profissional profissional) {
+        profissional.setFotoPerfil(profissional.getVersaoFoto() != null
+                ? urlFoto(profissional.getId(), profissional.getVersaoFoto(), false)
+                : null);
+        return profissional;
+    }
+
+    // Endereço absoluto da foto, usado direto no src das imagens do frontend. A versão faz parte da URL:
+    // foto nova = URL nova, e a leitura só responde à versão atual. A URL é assinada e expira (AssinaturaFoto),
+    // pois <img> não manda o token
+    private String urlFoto(Long id, String versao, boolean miniatura) {
+        String caminho = "/api/profissionais/" + id + (miniatura ? "/foto/miniatura" : "/foto");
+        long expira = assinaturaFoto.expiracao();
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(caminho)
+                .queryParam("v", versao)
+                .queryParam("exp", expira)
+                .queryParam("ass", assinaturaFoto.assinar(caminho, versao, expira))
+                .build()
+                .toUriString();
+    }
+
+    // Sem o token, o filtro de JWT só deixa passar a URL assinada e dentro do prazo
+    @GetMapping("/{id}/foto")
+    public void buscarFoto(
+            @PathVariable Long id,
+            @RequestParam("v") String versao,
+            @RequestParam(value = "exp", required = false) Long expira,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etagCliente,
+            HttpServletResponse resposta) throws IOException {
+        servirFoto(id, versao, false, expira, etagCliente, resposta);
+    }
+
+    @GetMapping("/{id}/foto/miniatura")
+    public void buscarMiniatura(
+            @PathVariable Long id,
+            @RequestParam("v") String versao,
+            @RequestParam(value = "exp", required = false) Long expira,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etagCliente,
+            HttpServletResponse resposta) throws IOException {
+        servirFoto(id, versao, true, expira, etagCliente, resposta);
+    }
+
+    // Cabeçalhos e corpo saem da mesma linha de foto_perfil, lida numa consulta só; a conexão volta ao pool
+    // antes de a resposta ser escrita
+    private void servirFoto(Long id, String versao, boolean miniatura, Long expira, String etagCliente,
+            HttpServletResponse resposta) throws IOException {
+        FotoPerfilRepository.Foto foto = fotoPerfilService.ler(id, versao, miniatura)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Foto não encontrada"));
+        // Só no navegador de quem recebeu a URL, e no máximo até ela expirar
+        long segundos = expira != null ? Math.max(0, expira - Instant.now().getEpochSecond()) : 0;
+        String cache = CacheControl.maxAge(segundos, TimeUnit.SECONDS).cachePrivate().getHeaderValue();
+        FotoPerfilRepository.Cabecalho cabecalho = foto.cabecalho();
+        if (cabecalho.urlExterna() != null) {
+            resposta.setStatus(HttpStatus.FOUND.value());
+            resposta.setHeader(HttpHeaders.LOCATION, cabecalho.urlExterna());
+            resposta.setHeader(HttpHeaders.CACHE_CONTROL, cache);
+            return;
+        }
+        if (foto.conteudo() == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Foto não encontrada");
+        }
+        // Sem miniatura (formato que o Java não lê, ou foto migrada) a consulta já trouxe a imagem original
+        boolean usarMiniatura = miniatura && cabecalho.tamanhoMiniatura() != null;
+        String tipo = usarMiniatura ? cabecalho.tipoMiniatura() : cabecalho.tipo();
+        String etag = "\"" + versao + (usarMiniatura ? "-miniatura" : "") + "\"";
+        resposta.setHeader(HttpHeaders.ETAG, etag);
+        resposta.setHeader(HttpHeaders.CACHE_CONTROL, cache);
+        if (etagCliente != null && (etagCliente.contains(etag) || etagCliente.trim().equals("*"))) {
+            resposta.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        resposta.setContentType(tipo == null || tipo.isBlank() ? MediaType.APPLICATION_OCTET_STREAM_VALUE : tipo);
+        resposta.setContentLength(foto.conteudo().length);
+        resposta.getOutputStream().write(foto.conteudo());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Profissional> buscarPorId(@PathVariable Long id) {
         return profissionalRepository
                 .findById(id)
-                .map(ResponseEntity::ok)
+                .map(p -> ResponseEntity.ok(comUrlFoto(p)))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -153,7 +261,11 @@ public class ProfissionalController {
             profissional.setInstituicao(null);
         }
 
+        String foto = profissional.getFotoPerfil();
         Profissional salvo = profissionalRepository.save(profissional);
+        // A foto vai para foto_perfil depois que o profissional tem id
+        fotoPerfilService.aplicar(salvo, foto);
+        comUrlFoto(salvo);
         
         // Auditoria
         String usuarioId = (String) request.getAttribute("usuarioId");
@@ -229,16 +341,14 @@ public class ProfissionalController {
                         existente.setDivulgarDados(profissional.getDivulgarDados());
                     }
                     
-                    if (profissional.getFotoPerfil() != null) {
-                        existente.setFotoPerfil(profissional.getFotoPerfil());
-                    }
-                    
                     if (profissional.getSenha() != null && !profissional.getSenha().isBlank()) {
                         String hash = BCrypt.hashpw(profissional.getSenha(), BCrypt.gensalt(12));
                         existente.setSenha(hash);
                     }
                     
                     Profissional salvo = profissionalRepository.save(existente);
+                    fotoPerfilService.aplicar(salvo, profissional.getFotoPerfil());
+                    comUrlFoto(salvo);
                     
                     // Auditoria
                     auditService.log(usuarioIdStr, usuarioEmail, AuditLog.ActionType.UPDATE, 
@@ -259,24 +369,29 @@ public class ProfissionalController {
             return ResponseEntity.badRequest().build();
         }
         String email = request.email.trim();
-        Optional<Profissional> profissionalOpt = profissionalRepository.findByEmailAndAtivoTrue(email);
-        if (profissionalOpt.isEmpty()) {
+        // Só as colunas do login: a foto vai como URL e não é lida aqui
+        Optional<CredenciaisProfissional> credenciaisOpt = profissionalRepository.findCredenciaisAtivasPorEmail(email);
+        if (credenciaisOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        Profissional profissional = profissionalOpt.get();
-        String senhaArmazenada = profissional.getSenha();
+        CredenciaisProfissional credenciais = credenciaisOpt.get();
+        String senhaArmazenada = credenciais.getSenha();
         if (senhaArmazenada == null || !BCrypt.checkpw(request.senha, senhaArmazenada)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         LoginResponse response = new LoginResponse();
-        response.id = profissional.getId();
-        response.nome = profissional.getNome();
-        response.email = profissional.getEmail();
-        response.idHospital = profissional.getIdHospital();
-        response.fotoPerfil = profissional.getFotoPerfil();
-        String perfil = profissional.getPerfil();
+        response.id = credenciais.getId();
+        response.nome = credenciais.getNome();
+        response.email = credenciais.getEmail();
+        response.idHospital = credenciais.getIdHospital();
+        response.fotoPerfil = credenciais.getVersaoFoto() != null
+                ? urlFoto(credenciais.getId(), credenciais.getVersaoFoto(), true)
+                : null;
+        String perfil = credenciais.getPerfil();
         response.perfil = perfil != null && !perfil.isBlank() ? perfil : "USUARIO";
-        response.token = jwtService.gerarToken(profissional);
+        response.token = jwtService.gerarToken(
+                credenciais.getId(), credenciais.getNome(), credenciais.getEmail(), perfil,
+                credenciais.getIdHospital());
         return ResponseEntity.ok(response);
     }
 
@@ -331,9 +446,8 @@ public class ProfissionalController {
                 
                 // Atualiza foto se veio do Google
                 String foto = (String) payload.get("picture");
-                if (foto != null && (profissional.getFotoPerfil() == null || profissional.getFotoPerfil().isBlank())) {
-                    profissional.setFotoPerfil(foto);
-                    profissionalRepository.save(profissional);
+                if (foto != null && profissional.getVersaoFoto() == null) {
+                    fotoPerfilService.salvarUrlExterna(profissional, foto);
                 }
             } else {
                 logger.info("Profissional não encontrado, iniciando auto-onboarding");
@@ -395,11 +509,11 @@ public class ProfissionalController {
                 novo.setIdHospital(hospitalId);
                 novo.setAtivo(true);
                 novo.setPerfil("USUARIO");
+                profissional = profissionalRepository.save(novo);
                 String foto = (String) payload.get("picture");
                 if (foto != null) {
-                    novo.setFotoPerfil(foto);
+                    fotoPerfilService.salvarUrlExterna(profissional, foto);
                 }
-                profissional = profissionalRepository.save(novo);
                 logger.info("Novo profissional criado: {}", profissional.getId());
             }
             LoginResponse response = new LoginResponse();
@@ -407,7 +521,9 @@ public class ProfissionalController {
             response.nome = profissional.getNome();
             response.email = profissional.getEmail();
             response.idHospital = profissional.getIdHospital();
-            response.fotoPerfil = profissional.getFotoPerfil();
+            response.fotoPerfil = profissional.getVersaoFoto() != null
+                    ? urlFoto(profissional.getId(), profissional.getVersaoFoto(), true)
+                    : null;
             String perfil = profissional.getPerfil();
             response.perfil = perfil != null && !perfil.isBlank() ? perfil : "USUARIO";
             response.token = jwtService.gerarToken(profissional);
@@ -451,8 +567,7 @@ public class ProfissionalController {
         }
         
         Profissional profissional = profissionalOpt.get();
-        profissional.setFotoPerfil(novaFoto);
-        profissionalRepository.save(profissional);
+        fotoPerfilService.aplicar(profissional, novaFoto);
         
         return ResponseEntity.ok().build();
     }
@@ -2,6 +2,7 @@ package br.com.bigplant.escala.api;
 
 import br.com.bigplant.escala.model.RegraConfiguracao;
 import br.com.bigplant.escala.repository.RegraConfiguracaoRepository;
+import br.com.bigplant.escala.service.CacheRegrasService;
 import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,9 +19,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class RegraConfiguracaoController {
 
     private final RegraConfiguracaoRepository repository;
+    private final CacheRegrasService cacheRegrasService;
 
-    public RegraConfiguracaoController(RegraConfiguracaoRepository repository) {
+    public RegraConfiguracaoController(RegraConfiguracaoRepository repository, CacheRegrasService cacheRegrasService) {
         this.repository = repository;
+        this.cacheRegrasService = cacheRegrasService;
     }
 
     @GetMapping("/hospital/{idHospital}")
@@ -54,7 +57,9 @@ public class RegraConfiguracaoController {
                     if (atualizacao.getAtivo() != null) {
                         existente.setAtivo(atualizacao.getAtivo());
                     }
-                    return ResponseEntity.ok(repository.save(existente));
+                    RegraConfiguracao salva = repository.save(existente);
+                    cacheRegrasService.removerConfiguracao(id);
+                    return ResponseEntity.ok(salva);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -66,6 +71,7 @@ public class RegraConfiguracaoController {
             RegraConfiguracao existente = opt.get();
             existente.setAtivo(false);
             repository.save(existente);
+            cacheRegrasService.removerConfiguracao(id);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -1,7 +1,10 @@
 package br.com.bigplant.escala.api;
 
+import br.com.bigplant.escala.dto.EstatisticasCacheRegrasDTO;
+import br.com.bigplant.escala.geracao.regras.RegrasCompiladas;
 import br.com.bigplant.escala.model.RegraEscalaParametro;
 import br.com.bigplant.escala.repository.RegraEscalaParametroRepository;
+import br.com.bigplant.escala.service.CacheRegrasService;
 import java.time.LocalDate;
 import java.util.List;
 import org.springframework.http.ResponseEntity;
@@ -17,9 +20,12 @@ import org.springframework.web.bind.annotation.RestController;
 public class RegrasController {
 
     private final RegraEscalaParametroRepository regraEscalaParametroRepository;
+    private final CacheRegrasService cacheRegrasService;
 
-    public RegrasController(RegraEscalaParametroRepository regraEscalaParametroRepository) {
+    public RegrasController(
+            RegraEscalaParametroRepository regraEscalaParametroRepository, CacheRegrasService cacheRegrasService) {
         this.regraEscalaParametroRepository = regraEscalaParametroRepository;
+        this.cacheRegrasService = cacheRegrasService;
     }
 
     public static class RegrasConcretasDto {
@@ -31,14 +37,7 @@ public class RegrasController {
 
     @GetMapping("/configuracao/{idConfig}/parametros")
     public ResponseEntity<RegrasConcretasDto> obterParametrosConfiguracao(@PathVariable Long idConfig) {
-        List<RegraEscalaParametro> regras = regraEscalaParametroRepository.findByRegraConfiguracaoId(idConfig);
-
-        RegrasConcretasDto dto = new RegrasConcretasDto();
-        dto.maxNoitesMes = obterValorInteiroRegras(regras, "MAX_NOITES_MES");
-        dto.minDescansoHoras = obterValorInteiroRegras(regras, "MIN_DESCANSO_HORAS");
-        dto.maxPlantoesConsecutivos = obterValorInteiroRegras(regras, "MAX_PLANTOES_CONSECUTIVOS");
-
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok(paraDto(cacheRegrasService.porConfiguracao(idConfig)));
     }
 
     @PutMapping("/configuracao/{idConfig}/parametros")
@@ -46,6 +45,7 @@ public class RegrasController {
             @PathVariable Long idConfig, @RequestBody RegrasConcretasDto dto) {
         
         List<RegraEscalaParametro> existentes = regraEscalaParametroRepository.findByRegraConfiguracaoId(idConfig);
+        CacheRegrasService.Vinculos vinculosAnteriores = CacheRegrasService.vinculos(existentes);
         
         // Precisamos buscar a configuração para saber o ID do hospital, 
         // mas como não temos o repository aqui injetado e não queremos complicar demais,
@@ -60,6 +60,8 @@ public class RegrasController {
         salvarOuAtualizarRegraConfig(existentes, idConfig, "MAX_NOITES_MES", "Número máximo de plantões noturnos por mês", dto.maxNoitesMes);
         salvarOuAtualizarRegraConfig(existentes, idConfig, "MIN_DESCANSO_HORAS", "Descanso mínimo entre plantões em horas", dto.minDescansoHoras);
         salvarOuAtualizarRegraConfig(existentes, idConfig, "MAX_PLANTOES_CONSECUTIVOS", "Máximo de plantões consecutivos", dto.maxPlantoesConsecutivos);
+        cacheRegrasService.removerConfiguracao(idConfig);
+        cacheRegrasService.removerAfetados(vinculosAnteriores, existentes);
 
         return obterParametrosConfiguracao(idConfig);
     }
@@ -107,41 +109,41 @@ public class RegrasController {
 
     @GetMapping("/concretas/{idHospital}")
     public ResponseEntity<RegrasConcretasDto> obterRegrasConcretas(@PathVariable Long idHospital) {
-        LocalDate hoje = LocalDate.now();
-        List<RegraEscalaParametro> regras = regraEscalaParametroRepository
-                .findByIdHospitalAndAtivoAndDataInicioVigenciaLessThanEqualAndDataFimVigenciaIsNullOrDataFimVigenciaGreaterThanEqual(
-                        idHospital, true, hoje, hoje);
-
-        RegrasConcretasDto dto = new RegrasConcretasDto();
-        dto.maxNoitesMes = obterValorInteiroRegras(regras, "MAX_NOITES_MES");
-        dto.minDescansoHoras = obterValorInteiroRegras(regras, "MIN_DESCANSO_HORAS");
-        dto.maxPlantoesConsecutivos = obterValorInteiroRegras(regras, "MAX_PLANTOES_CONSECUTIVOS");
-
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok(paraDto(cacheRegrasService.vigentes(idHospital, LocalDate.now())));
     }
 
     @PutMapping("/concretas/{idHospital}")
     public ResponseEntity<RegrasConcretasDto> atualizarRegrasConcretas(
             @PathVariable Long idHospital, @RequestBody RegrasConcretasDto dto) {
         LocalDate hoje = LocalDate.now();
-        List<RegraEscalaParametro> existentes = regraEscalaParametroRepository
-                .findByIdHospitalAndAtivoAndDataInicioVigenciaLessThanEqualAndDataFimVigenciaIsNullOrDataFimVigenciaGreaterThanEqual(
-                        idHospital, true, hoje, hoje);
+        List<RegraEscalaParametro> existentes = regraEscalaParametroRepository.findVigentes(idHospital, hoje);
+        CacheRegrasService.Vinculos vinculosAnteriores = CacheRegrasService.vinculos(existentes);
 
         salvarOuAtualizarRegra(existentes, idHospital, "MAX_NOITES_MES", "Número máximo de plantões noturnos por mês", dto.maxNoitesMes, hoje);
         salvarOuAtualizarRegra(existentes, idHospital, "MIN_DESCANSO_HORAS", "Descanso mínimo entre plantões em horas", dto.minDescansoHoras, hoje);
         salvarOuAtualizarRegra(existentes, idHospital, "MAX_PLANTOES_CONSECUTIVOS", "Máximo de plantões consecutivos", dto.maxPlantoesConsecutivos, hoje);
+        cacheRegrasService.removerHospital(idHospital);
+        cacheRegrasService.removerAfetados(vinculosAnteriores, existentes);
 
         return obterRegrasConcretas(idHospital);
     }
 
-    private Integer obterValorInteiroRegras(List<RegraEscalaParametro> regras, String chave) {
-        return regras.stream()
-                .filter(r -> chave.equalsIgnoreCase(r.getChave()))
-                .map(RegraEscalaParametro::getValorInteiro)
-                .filter(v -> v != null && v > 0)
-                .findFirst()
-                .orElse(null);
+    @GetMapping("/cache/estatisticas")
+    public ResponseEntity<EstatisticasCacheRegrasDTO> obterEstatisticasCache() {
+        return ResponseEntity.ok(cacheRegrasService.estatisticas());
+    }
+
+    private RegrasConcretasDto paraDto(RegrasCompiladas regras) {
+        RegrasConcretasDto dto = new RegrasConcretasDto();
+        dto.maxNoitesMes = obterValorInteiroRegras(regras, "MAX_NOITES_MES");
+        dto.minDescansoHoras = obterValorInteiroRegras(regras, "MIN_DESCANSO_HORAS");
+        dto.maxPlantoesConsecutivos = obterValorInteiroRegras(regras, "MAX_PLANTOES_CONSECUTIVOS");
+        return dto;
+    }
+
+    private Integer obterValorInteiroRegras(RegrasCompiladas regras, String chave) {
+        int valor = regras.inteiro(chave, 0);
+        return valor > 0 ? valor : null;
     }
 
     private void salvarOuAtualizarRegra(
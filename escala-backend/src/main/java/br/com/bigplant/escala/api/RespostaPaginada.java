@@ -0,0 +1,23 @@
+package br.com.bigplant.escala.api;
+
+import br.com.bigplant.escala.dto.Pagina;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+
+// Resposta das listagens paginadas: o corpo continua sendo a lista que os clientes já leem, e o cursor da
+// próxima página vai no cabeçalho X-Proximo-Cursor (ausente na última), a repassar no parâmetro "cursor".
+public final class RespostaPaginada {
+
+    public static final String CABECALHO_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
+    private RespostaPaginada() {
+    }
+
+    public static <T> ResponseEntity<List<T>> ok(Pagina<T> pagina) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (pagina.proximoCursor() != null) {
+            resposta.header(CABECALHO_PROXIMO_CURSOR, pagina.proximoCursor());
+        }
+        return resposta.body(pagina.itens());
+    }
+}
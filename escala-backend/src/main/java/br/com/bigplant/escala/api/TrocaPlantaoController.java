@@ -1,5 +1,7 @@
 package br.com.bigplant.escala.api;
 
+import br.com.bigplant.escala.dto.Cursor;
+import br.com.bigplant.escala.dto.Pagina;
 import br.com.bigplant.escala.model.Profissional;
 import br.com.bigplant.escala.model.TrocaPlantao;
 import br.com.bigplant.escala.repository.ProfissionalRepository;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -31,9 +34,13 @@ public class TrocaPlantaoController {
         this.request = request;
     }
 
+    // Paginada, mais recentes primeiro: o cursor da próxima página vem no cabeçalho X-Proximo-Cursor
     @GetMapping
-    public ResponseEntity<List<TrocaPlantao>> listarTodas() {
-        return ResponseEntity.ok(trocaPlantaoService.listarTodas());
+    public ResponseEntity<List<TrocaPlantao>> listarTodas(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", required = false) Integer limite) {
+        return RespostaPaginada.ok(
+                trocaPlantaoService.listarPagina(Cursor.decodificar(cursor), Pagina.limite(limite)));
     }
 
     @PostMapping
@@ -1,13 +1,17 @@
 package br.com.bigplant.escala.api;
 
+import br.com.bigplant.escala.dto.Cursor;
+import br.com.bigplant.escala.dto.Pagina;
 import br.com.bigplant.escala.model.Turno;
 import br.com.bigplant.escala.repository.TurnoRepository;
 import br.com.bigplant.escala.audit.AuditLog;
 import br.com.bigplant.escala.service.AuditService;
+import br.com.bigplant.escala.service.OcupacaoProfissionaisService;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDate;
 import java.util.List;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/turnos")
@@ -26,16 +31,35 @@ public class TurnoController {
     private final TurnoRepository turnoRepository;
     private final AuditService auditService;
     private final HttpServletRequest request;
+    private final OcupacaoProfissionaisService ocupacaoProfissionaisService;
 
-    public TurnoController(TurnoRepository turnoRepository, AuditService auditService, HttpServletRequest request) {
+    public TurnoController(
+            TurnoRepository turnoRepository,
+            AuditService auditService,
+            HttpServletRequest request,
+            OcupacaoProfissionaisService ocupacaoProfissionaisService) {
         this.turnoRepository = turnoRepository;
         this.auditService = auditService;
         this.request = request;
+        this.ocupacaoProfissionaisService = ocupacaoProfissionaisService;
     }
 
+    // Paginada por (data, id): o cursor da próxima página vem no cabeçalho X-Proximo-Cursor
     @GetMapping
-    public ResponseEntity<List<Turno>> listarTodos() {
-        return ResponseEntity.ok(turnoRepository.findAll());
+    public ResponseEntity<List<Turno>> listarTodos(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", required = false) Integer limite) {
+        Cursor posicao = Cursor.decodificar(cursor);
+        int tamanho = Pagina.limite(limite);
+        List<Turno> turnos;
+        if (posicao.inicio()) {
+            turnos = turnoRepository.findPrimeiraPagina(Pagina.busca(tamanho));
+        } else if (posicao.chave() == null) {
+            turnos = turnoRepository.findPaginaAposSemData(posicao.id(), Pagina.busca(tamanho));
+        } else {
+            turnos = turnoRepository.findPaginaApos(posicao.chaveData(), posicao.id(), Pagina.busca(tamanho));
+        }
+        return RespostaPaginada.ok(Pagina.de(turnos, tamanho, t -> Cursor.de(t.getData(), t.getId())));
     }
 
     @GetMapping("/{id}")
@@ -56,6 +80,7 @@ public class TurnoController {
 
     @PostMapping
     public ResponseEntity<Turno> criar(@RequestBody Turno turno) {
+        verificarConflito(turno);
         Turno salvo = turnoRepository.save(turno);
         return ResponseEntity.ok(salvo);
     }
@@ -73,6 +98,8 @@ public class TurnoController {
                     existente.setIdHospital(turno.getIdHospital());
                     existente.setIdProfissional(turno.getIdProfissional());
                     existente.setIdLocalAtendimento(turno.getIdLocalAtendimento());
+                    existente.setIdEspecialidade(turno.getIdEspecialidade());
+                    verificarConflito(existente);
                     Turno salvo = turnoRepository.save(existente);
                     return ResponseEntity.ok(salvo);
                 })
@@ -100,4 +127,11 @@ public class TurnoController {
             })
             .orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    // O profissional não pode estar em dois turnos ao mesmo tempo, em nenhum dos hospitais
+    private void verificarConflito(Turno turno) {
+        if (ocupacaoProfissionaisService.conflita(turno)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Profissional já possui turno nesse horário");
+        }
+    }
 }
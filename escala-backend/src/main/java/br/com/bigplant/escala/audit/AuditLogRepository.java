@@ -2,7 +2,10 @@ package br.com.bigplant.escala.audit;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -10,4 +13,30 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByActorIdOrderByTimestampDesc(String actorId);
     List<AuditLog> findByResourceIdOrderByTimestampDesc(String resourceId);
     List<AuditLog> findAllByOrderByTimestampDesc();
+
+    // Páginas dos registros mais recentes primeiro: (timestamp, id) decrescentes, pelo índice
+    // idx_audit_log_timestamp. A primeira página e as seguintes são consultas separadas, para que a posição
+    // seja um limite do intervalo lido no índice.
+    @Query("SELECT a FROM AuditLog a ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPrimeiraPagina(Pageable pagina);
+
+    @Query("SELECT a FROM AuditLog a "
+            + "WHERE a.timestamp <= :aposTimestamp AND (a.timestamp < :aposTimestamp OR a.id < :aposId) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPaginaApos(
+            @Param("aposTimestamp") LocalDateTime aposTimestamp, @Param("aposId") Long aposId, Pageable pagina);
+
+    // Mesmas páginas só com as ações de um usuário; usam o índice idx_audit_log_actor (actor_id, timestamp)
+    @Query("SELECT a FROM AuditLog a WHERE a.actorId = :actorId ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPrimeiraPaginaPorActor(@Param("actorId") String actorId, Pageable pagina);
+
+    @Query("SELECT a FROM AuditLog a "
+            + "WHERE a.actorId = :actorId AND a.timestamp <= :aposTimestamp "
+            + "AND (a.timestamp < :aposTimestamp OR a.id < :aposId) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPaginaAposPorActor(
+            @Param("actorId") String actorId,
+            @Param("aposTimestamp") LocalDateTime aposTimestamp,
+            @Param("aposId") Long aposId,
+            Pageable pagina);
 }
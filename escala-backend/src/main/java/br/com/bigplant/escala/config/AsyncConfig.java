@@ -1,6 +1,8 @@
 package br.com.bigplant.escala.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -20,4 +22,23 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.initialize();
         return executor;
     }
+
+    // Pool dedicado às gerações de escala: poucas threads e fila curta, para não disputar
+    // conexões com as requisições HTTP; excedentes são recusados em vez de enfileirados sem limite
+    @Bean(name = "geracaoEscalaExecutor")
+    public ThreadPoolTaskExecutor geracaoEscalaExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("GeracaoEscala-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Processamento paralelo dentro de uma geração (partições independentes), um worker por núcleo
+    @Bean(name = "geracaoForkJoinPool", destroyMethod = "shutdown")
+    public ForkJoinPool geracaoForkJoinPool() {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
 }
@@ -1,5 +1,6 @@
 package br.com.bigplant.escala.config;
 
+import br.com.bigplant.escala.api.RespostaPaginada;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -12,7 +13,9 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
                 .allowedOriginPatterns("http://localhost:5173", "https://*.onrender.com")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
-                .allowedHeaders("*");
+                .allowedHeaders("*")
+                // Listagens paginadas devolvem o cursor da próxima página neste cabeçalho
+                .exposedHeaders(RespostaPaginada.CABECALHO_PROXIMO_CURSOR);
     }
 }
 
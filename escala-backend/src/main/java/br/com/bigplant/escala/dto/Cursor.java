@@ -0,0 +1,69 @@
+package br.com.bigplant.escala.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Posição numa listagem paginada por chave: valor da chave de ordenação e id do último item entregue
+// (o id desempata chaves iguais, então a ordem é estável). Vai ao cliente como texto opaco, que ele só repassa.
+// INICIO (id nulo) é a posição antes do primeiro item; chave nula é um item cuja chave de ordenação é nula.
+public record Cursor(String chave, Long id) {
+
+    public static final Cursor INICIO = new Cursor(null, null);
+
+    private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+
+    public static Cursor de(Object chave, Long id) {
+        return new Cursor(chave == null ? null : chave.toString(), id);
+    }
+
+    // Texto vazio ou ausente = primeira página
+    public static Cursor decodificar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return INICIO;
+        }
+        try {
+            String posicao = new String(DECODIFICADOR.decode(texto), StandardCharsets.UTF_8);
+            int separador = posicao.indexOf('|');
+            if (separador < 0) {
+                return new Cursor(null, Long.parseLong(posicao));
+            }
+            return new Cursor(posicao.substring(separador + 1), Long.parseLong(posicao.substring(0, separador)));
+        } catch (IllegalArgumentException e) {
+            throw invalido();
+        }
+    }
+
+    public boolean inicio() {
+        return id == null;
+    }
+
+    public String codificar() {
+        String posicao = chave == null ? String.valueOf(id) : id + "|" + chave;
+        return CODIFICADOR.encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate chaveData() {
+        try {
+            return chave == null ? null : LocalDate.parse(chave);
+        } catch (RuntimeException e) {
+            throw invalido();
+        }
+    }
+
+    public LocalDateTime chaveDataHora() {
+        try {
+            return chave == null ? null : LocalDateTime.parse(chave);
+        } catch (RuntimeException e) {
+            throw invalido();
+        }
+    }
+
+    private static ResponseStatusException invalido() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+    }
+}
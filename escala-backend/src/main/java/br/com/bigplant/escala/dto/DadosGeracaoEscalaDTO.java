@@ -1,5 +1,6 @@
 package br.com.bigplant.escala.dto;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public class DadosGeracaoEscalaDTO {
@@ -7,6 +8,14 @@ public class DadosGeracaoEscalaDTO {
     private Long idRegraConfiguracao;
     private List<Long> idsEspecialidades;
     private List<Long> idsProfissionais;
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private Integer diasPorBloco;
+    private Integer tempoOtimizacaoMs;
+    private String modoAlocacao;
+    private Integer tempoBuscaMs;
+    private Boolean rastrear;
+    private Integer capacidadeRastro;
 
     public Long getIdRegraConfiguracao() {
         return idRegraConfiguracao;
@@ -31,4 +40,69 @@ public class DadosGeracaoEscalaDTO {
     public void setIdsProfissionais(List<Long> idsProfissionais) {
         this.idsProfissionais = idsProfissionais;
     }
+
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDate dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public LocalDate getDataFim() {
+        return dataFim;
+    }
+
+    public void setDataFim(LocalDate dataFim) {
+        this.dataFim = dataFim;
+    }
+
+    public Integer getDiasPorBloco() {
+        return diasPorBloco;
+    }
+
+    public void setDiasPorBloco(Integer diasPorBloco) {
+        this.diasPorBloco = diasPorBloco;
+    }
+
+
+    public Integer getTempoOtimizacaoMs() {
+        return tempoOtimizacaoMs;
+    }
+
+    public void setTempoOtimizacaoMs(Integer tempoOtimizacaoMs) {
+        this.tempoOtimizacaoMs = tempoOtimizacaoMs;
+    }
+
+    public String getModoAlocacao() {
+        return modoAlocacao;
+    }
+
+    public void setModoAlocacao(String modoAlocacao) {
+        this.modoAlocacao = modoAlocacao;
+    }
+
+    public Integer getTempoBuscaMs() {
+        return tempoBuscaMs;
+    }
+
+    public void setTempoBuscaMs(Integer tempoBuscaMs) {
+        this.tempoBuscaMs = tempoBuscaMs;
+    }
+
+    public Boolean getRastrear() {
+        return rastrear;
+    }
+
+    public void setRastrear(Boolean rastrear) {
+        this.rastrear = rastrear;
+    }
+
+    public Integer getCapacidadeRastro() {
+        return capacidadeRastro;
+    }
+
+    public void setCapacidadeRastro(Integer capacidadeRastro) {
+        this.capacidadeRastro = capacidadeRastro;
+    }
 }
@@ -0,0 +1,53 @@
+package br.com.bigplant.escala.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class DadosReparoEscalaDTO {
+
+    private Long idRegraConfiguracao;
+    private LocalDate dataInicio;
+    private List<Long> idsTurnos;
+    private List<Long> idsProfissionaisExcluidos;
+    private Boolean expandirVizinhanca;
+
+    public Long getIdRegraConfiguracao() {
+        return idRegraConfiguracao;
+    }
+
+    public void setIdRegraConfiguracao(Long idRegraConfiguracao) {
+        this.idRegraConfiguracao = idRegraConfiguracao;
+    }
+
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDate dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public List<Long> getIdsTurnos() {
+        return idsTurnos;
+    }
+
+    public void setIdsTurnos(List<Long> idsTurnos) {
+        this.idsTurnos = idsTurnos;
+    }
+
+    public List<Long> getIdsProfissionaisExcluidos() {
+        return idsProfissionaisExcluidos;
+    }
+
+    public void setIdsProfissionaisExcluidos(List<Long> idsProfissionaisExcluidos) {
+        this.idsProfissionaisExcluidos = idsProfissionaisExcluidos;
+    }
+
+    public Boolean getExpandirVizinhanca() {
+        return expandirVizinhanca;
+    }
+
+    public void setExpandirVizinhanca(Boolean expandirVizinhanca) {
+        this.expandirVizinhanca = expandirVizinhanca;
+    }
+}
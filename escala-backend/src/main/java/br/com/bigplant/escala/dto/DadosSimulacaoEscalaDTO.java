@@ -0,0 +1,16 @@
+package br.com.bigplant.escala.dto;
+
+import java.util.List;
+
+public class DadosSimulacaoEscalaDTO extends DadosGeracaoEscalaDTO {
+
+    private List<VarianteRegrasDTO> variantes;
+
+    public List<VarianteRegrasDTO> getVariantes() {
+        return variantes;
+    }
+
+    public void setVariantes(List<VarianteRegrasDTO> variantes) {
+        this.variantes = variantes;
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.bigplant.escala.dto;
+
+public class EstatisticasCacheRegrasDTO {
+
+    private final long acertos;
+    private final long faltas;
+    private final long remocoes;
+    private final int entradas;
+    private final int capacidade;
+
+    public EstatisticasCacheRegrasDTO(long acertos, long faltas, long remocoes, int entradas, int capacidade) {
+        this.acertos = acertos;
+        this.faltas = faltas;
+        this.remocoes = remocoes;
+        this.entradas = entradas;
+        this.capacidade = capacidade;
+    }
+
+    public long getAcertos() {
+        return acertos;
+    }
+
+    public long getFaltas() {
+        return faltas;
+    }
+
+    public long getRemocoes() {
+        return remocoes;
+    }
+
+    public int getEntradas() {
+        return entradas;
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    public double getTaxaAcerto() {
+        long total = acertos + faltas;
+        return total == 0 ? 0 : (double) acertos / total;
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.bigplant.escala.dto;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+// Uma página de uma listagem paginada por chave e o cursor da seguinte (nulo na última página).
+// As consultas buscam um item além do limite: se ele vier, há próxima página e o cursor aponta para o
+// último item entregue, sem precisar de COUNT.
+public record Pagina<T>(List<T> itens, String proximoCursor) {
+
+    public static final int LIMITE_PADRAO = 500;
+    public static final int LIMITE_MAXIMO = 2000;
+
+    public static int limite(Integer pedido) {
+        return pedido == null || pedido <= 0 ? LIMITE_PADRAO : Math.min(pedido, LIMITE_MAXIMO);
+    }
+
+    // Pageable da consulta: a primeira "página" do banco com um item a mais que o limite
+    public static Pageable busca(int limite) {
+        return PageRequest.ofSize(limite + 1);
+    }
+
+    public static <T> Pagina<T> de(List<T> buscados, int limite, Function<T, Cursor> posicao) {
+        if (buscados.size() <= limite) {
+            return new Pagina<>(buscados, null);
+        }
+        List<T> itens = buscados.subList(0, limite);
+        return new Pagina<>(itens, posicao.apply(itens.get(limite - 1)).codificar());
+    }
+
+    public <R> Pagina<R> map(Function<T, R> conversao) {
+        return new Pagina<>(itens.stream().map(conversao).toList(), proximoCursor);
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.bigplant.escala.dto;
+
+import br.com.bigplant.escala.model.Especialidade;
+import br.com.bigplant.escala.model.InstituicaoOrganizacional;
+import java.time.LocalDate;
+
+// Profissional nas listagens: mesmos campos do JSON da entidade, sem senha.
+// Montado direto pela consulta (só as colunas leves); a foto vai como URL da miniatura, preenchida pelo controller.
+public class ProfissionalResumoDTO {
+
+    private final Long id;
+    private final String nome;
+    private final String crm;
+    private final Long idHospital;
+    private final Integer cargaHorariaMensalMaxima;
+    private final Integer cargaHorariaMensalMinima;
+    private final Boolean ativo;
+    private String email;
+    private String telefoneWhatsapp;
+    private final String perfil;
+    private final Boolean divulgarDados;
+    private final LocalDate dataNascimento;
+    private final InstituicaoOrganizacional instituicao;
+    private final Especialidade especialidade;
+    private final String versaoFoto;
+    private String fotoPerfil;
+
+    public ProfissionalResumoDTO(
+            Long id,
+            String nome,
+            String crm,
+            Long idHospital,
+            Integer cargaHorariaMensalMaxima,
+            Integer cargaHorariaMensalMinima,
+            Boolean ativo,
+            String email,
+            String telefoneWhatsapp,
+            String perfil,
+            Boolean divulgarDados,
+            LocalDate dataNascimento,
+            InstituicaoOrganizacional instituicao,
+            Especialidade especialidade,
+            String versaoFoto) {
+        this.id = id;
+        this.nome = nome;
+        this.crm = crm;
+        this.idHospital = idHospital;
+        this.cargaHorariaMensalMaxima = cargaHorariaMensalMaxima;
+        this.cargaHorariaMensalMinima = cargaHorariaMensalMinima;
+        this.ativo = ativo;
+        this.email = email;
+        this.telefoneWhatsapp = telefoneWhatsapp;
+        this.perfil = perfil;
+        this.divulgarDados = divulgarDados;
+        this.dataNascimento = dataNascimento;
+        this.instituicao = instituicao;
+        this.especialidade = especialidade;
+        this.versaoFoto = versaoFoto;
+    }
+
+    // Ocultar dados sensíveis se o usuário não permitir divulgação (nome e foto continuam, para a escala)
+    public void ocultarContatoSeNaoDivulgado() {
+        if (Boolean.FALSE.equals(divulgarDados)) {
+            telefoneWhatsapp = null;
+            email = null;
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getCrm() {
+        return crm;
+    }
+
+    public Long getIdHospital() {
+        return idHospital;
+    }
+
+    public Integer getCargaHorariaMensalMaxima() {
+        return cargaHorariaMensalMaxima;
+    }
+
+    public Integer getCargaHorariaMensalMinima() {
+        return cargaHorariaMensalMinima;
+    }
+
+    public Boolean getAtivo() {
+        return ativo;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getTelefoneWhatsapp() {
+        return telefoneWhatsapp;
+    }
+
+    public String getPerfil() {
+        return perfil;
+    }
+
+    public Boolean getDivulgarDados() {
+        return divulgarDados;
+    }
+
+    public LocalDate getDataNascimento() {
+        return dataNascimento;
+    }
+
+    public InstituicaoOrganizacional getInstituicao() {
+        return instituicao;
+    }
+
+    public Especialidade getEspecialidade() {
+        return especialidade;
+    }
+
+    public String getVersaoFoto() {
+        return versaoFoto;
+    }
+
+    public String getFotoPerfil() {
+        return fotoPerfil;
+    }
+
+    public void setFotoPerfil(String fotoPerfil) {
+        this.fotoPerfil = fotoPerfil;
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.bigplant.escala.dto;
+
+import br.com.bigplant.escala.model.Turno;
+import java.util.List;
+
+public class ResultadoReparoDTO {
+
+    private final Long idEscala;
+    private final int turnosAfetados;
+    private final int turnosRealocados;
+    private final int turnosSemProfissional;
+    private final long tempoMs;
+    private final List<Turno> turnosAlterados;
+
+    public ResultadoReparoDTO(
+            Long idEscala,
+            int turnosAfetados,
+            int turnosRealocados,
+            int turnosSemProfissional,
+            long tempoMs,
+            List<Turno> turnosAlterados) {
+        this.idEscala = idEscala;
+        this.turnosAfetados = turnosAfetados;
+        this.turnosRealocados = turnosRealocados;
+        this.turnosSemProfissional = turnosSemProfissional;
+        this.tempoMs = tempoMs;
+        this.turnosAlterados = turnosAlterados;
+    }
+
+    public Long getIdEscala() {
+        return idEscala;
+    }
+
+    public int getTurnosAfetados() {
+        return turnosAfetados;
+    }
+
+    public int getTurnosRealocados() {
+        return turnosRealocados;
+    }
+
+    public int getTurnosSemProfissional() {
+        return turnosSemProfissional;
+    }
+
+    public long getTempoMs() {
+        return tempoMs;
+    }
+
+    public List<Turno> getTurnosAlterados() {
+        return turnosAlterados;
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.bigplant.escala.dto;
+
+import br.com.bigplant.escala.geracao.MetricasEscala;
+import br.com.bigplant.escala.model.Turno;
+import java.util.List;
+import java.util.Map;
+
+public class ResultadoSimulacaoDTO {
+
+    private final String nome;
+    private final Map<String, Object> regras;
+    private final MetricasEscala metricas;
+    private final List<Turno> turnos;
+
+    public ResultadoSimulacaoDTO(String nome, Map<String, Object> regras, MetricasEscala metricas, List<Turno> turnos) {
+        this.nome = nome;
+        this.regras = regras;
+        this.metricas = metricas;
+        this.turnos = turnos;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public Map<String, Object> getRegras() {
+        return regras;
+    }
+
+    public MetricasEscala getMetricas() {
+        return metricas;
+    }
+
+    public List<Turno> getTurnos() {
+        return turnos;
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.bigplant.escala.dto;
+
+import java.util.Map;
+
+// Variante de regras avaliada na simulação: parte da configuração informada (ou da vigente)
+// e sobrescreve os parâmetros por chave, por exemplo {"MAX_NOITES_MES": 6}
+public class VarianteRegrasDTO {
+
+    private String nome;
+    private Long idRegraConfiguracao;
+    private Map<String, Integer> parametros;
+    private Integer tempoOtimizacaoMs;
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public Long getIdRegraConfiguracao() {
+        return idRegraConfiguracao;
+    }
+
+    public void setIdRegraConfiguracao(Long idRegraConfiguracao) {
+        this.idRegraConfiguracao = idRegraConfiguracao;
+    }
+
+    public Map<String, Integer> getParametros() {
+        return parametros;
+    }
+
+    public void setParametros(Map<String, Integer> parametros) {
+        this.parametros = parametros;
+    }
+
+    public Integer getTempoOtimizacaoMs() {
+        return tempoOtimizacaoMs;
+    }
+
+    public void setTempoOtimizacaoMs(Integer tempoOtimizacaoMs) {
+        this.tempoOtimizacaoMs = tempoOtimizacaoMs;
+    }
+}
@@ -0,0 +1,138 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.geracao.regras.RegraAlocacao;
+import br.com.bigplant.escala.geracao.regras.RegrasVinculadas;
+import java.util.function.IntPredicate;
+
+// Alocação gulosa sobre a representação compacta: para cada turno, filtra disponibilidade e conflito
+// (regras hard) e depois passa pelo pipeline de regras soft já vinculado ao índice de profissionais;
+// se as regras soft eliminarem todos, recai nos candidatos sem conflito. Escolhe sempre o de menor carga.
+// Turnos com várias vagas são filtrados uma única vez e recebem os k menos carregados de uma vez; as
+// vagas que as regras soft não preencherem recaem nos demais sem conflito.
+// Marcas por carimbo evitam limpar arrays entre turnos; nada é alocado dentro do laço.
+// Com rastro (opcional), conta por turno quantos candidatos cada regra soft eliminou; sem ele, o laço é o mesmo.
+public class AlocadorEscala {
+
+    private final RegrasVinculadas regras;
+    private final RastroAlocacao.Gravador rastro;
+
+    public AlocadorEscala(RegrasVinculadas regras) {
+        this(regras, null);
+    }
+
+    public AlocadorEscala(RegrasVinculadas regras, RastroAlocacao.Gravador rastro) {
+        this.regras = regras;
+        this.rastro = rastro;
+    }
+
+    public void alocar(TurnosCompactos turnos, EstadoAlocacao estado) {
+        int quantidadeProfissionais = estado.quantidadeProfissionais();
+        int[] marcaSemConflito = new int[quantidadeProfissionais];
+        int[] marcaRegras = new int[quantidadeProfissionais];
+        int[] marcaEscolhido = new int[quantidadeProfissionais];
+        int[] escolhidos = new int[quantidadeProfissionais];
+        int[] carimbo = new int[1];
+        IntPredicate respeitaRegras = idx -> marcaRegras[idx] == carimbo[0];
+        IntPredicate semConflitoRestante =
+                idx -> marcaSemConflito[idx] == carimbo[0] && marcaEscolhido[idx] != carimbo[0];
+        RegraAlocacao[] ativas = new RegraAlocacao[regras.quantidade()];
+        int[] indicesAtivas = new int[regras.quantidade()];
+
+        for (int s = 0; s < turnos.tamanho(); s = turnos.fimVagas(s)) {
+            carimbo[0] = s + 1;
+            long inicio = turnos.inicio(s);
+            long fim = turnos.fim(s);
+            int quantidadeAtivas = 0;
+            for (int i = 0; i < regras.quantidade(); i++) {
+                if (regras.regra(i).aplica(turnos, s)) {
+                    indicesAtivas[quantidadeAtivas] = i;
+                    ativas[quantidadeAtivas++] = regras.regra(i);
+                }
+            }
+            if (rastro != null) {
+                rastro.iniciarTurno(indicesAtivas, quantidadeAtivas);
+            }
+
+            int totalDisponiveis = 0;
+            int totalSemConflito = 0;
+            int totalRegras = 0;
+            for (int p = 0; p < quantidadeProfissionais; p++) {
+                if (!turnos.disponivel(s, p)) {
+                    continue;
+                }
+                totalDisponiveis++;
+                // Filtro Hard: Sem Conflito
+                if (estado.ocupacao().conflita(p, inicio, fim)) {
+                    continue;
+                }
+                marcaSemConflito[p] = carimbo[0];
+                totalSemConflito++;
+
+                // Filtros Soft: Regras
+                if (rastro == null) {
+                    if (respeitaRegras(ativas, quantidadeAtivas, estado, turnos, s, p)) {
+                        marcaRegras[p] = carimbo[0];
+                        totalRegras++;
+                    }
+                } else {
+                    int falha = primeiraFalha(ativas, quantidadeAtivas, estado, turnos, s, p);
+                    if (falha < 0) {
+                        marcaRegras[p] = carimbo[0];
+                        totalRegras++;
+                    } else {
+                        rastro.rejeitar(indicesAtivas[falha]);
+                    }
+                }
+            }
+
+            if (totalSemConflito == 0) {
+                if (rastro != null) {
+                    rastro.registrar(turnos, s, totalDisponiveis, 0, 0, escolhidos, 0, 0);
+                }
+                continue;
+            }
+
+            int vagas = Math.min(turnos.fimVagas(s) - s, totalSemConflito);
+            int quantidadeEscolhidos = totalRegras > 0
+                    ? estado.carga().menosCarregados(respeitaRegras, Math.min(vagas, totalRegras), escolhidos, 0)
+                    : 0;
+            int quantidadePorRegras = quantidadeEscolhidos;
+            if (quantidadeEscolhidos < vagas) {
+                for (int i = 0; i < quantidadeEscolhidos; i++) {
+                    marcaEscolhido[escolhidos[i]] = carimbo[0];
+                }
+                quantidadeEscolhidos += estado.carga().menosCarregados(
+                        semConflitoRestante, vagas - quantidadeEscolhidos, escolhidos, quantidadeEscolhidos);
+            }
+            for (int i = 0; i < quantidadeEscolhidos; i++) {
+                turnos.alocar(s + i, escolhidos[i]);
+                estado.registrar(escolhidos[i], turnos, s + i);
+            }
+            if (rastro != null) {
+                rastro.registrar(turnos, s, totalDisponiveis, totalSemConflito, totalRegras,
+                        escolhidos, quantidadePorRegras, quantidadeEscolhidos);
+            }
+        }
+    }
+
+    private static boolean respeitaRegras(
+            RegraAlocacao[] ativas, int quantidadeAtivas, EstadoAlocacao estado, TurnosCompactos turnos, int s, int p) {
+        for (int i = 0; i < quantidadeAtivas; i++) {
+            if (!ativas[i].permite(estado, turnos, s, p)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Índice (em ativas) da primeira regra que rejeita o profissional, ou -1 se todas permitem
+    private static int primeiraFalha(
+            RegraAlocacao[] ativas, int quantidadeAtivas, EstadoAlocacao estado, TurnosCompactos turnos, int s, int p) {
+        for (int i = 0; i < quantidadeAtivas; i++) {
+            if (!ativas[i].permite(estado, turnos, s, p)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
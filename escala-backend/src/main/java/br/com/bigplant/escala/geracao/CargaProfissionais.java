@@ -0,0 +1,170 @@
+package br.com.bigplant.escala.geracao;
+
+import java.util.function.IntPredicate;
+
+// Contadores de carga por profissional (plantões, minutos e noites) atualizados a cada alocação,
+// com uma fila de prioridade indexada (min-heap) ordenada pela quantidade de plantões.
+// Empates são resolvidos pelo índice denso, preservando a ordem original da lista de profissionais.
+public class CargaProfissionais {
+
+    private final int[] plantoes;
+    private final long[] minutos;
+    private final int[] noites;
+
+    // heap[pos] = índice do profissional; posicao[idx] = posição no heap
+    private final int[] heap;
+    private final int[] posicao;
+    private final int[] retirados;
+    private int tamanho;
+
+    public CargaProfissionais(int quantidadeProfissionais) {
+        this.plantoes = new int[quantidadeProfissionais];
+        this.minutos = new long[quantidadeProfissionais];
+        this.noites = new int[quantidadeProfissionais];
+        this.heap = new int[quantidadeProfissionais];
+        this.posicao = new int[quantidadeProfissionais];
+        this.retirados = new int[quantidadeProfissionais];
+        for (int i = 0; i < quantidadeProfissionais; i++) {
+            heap[i] = i;
+            posicao[i] = i;
+        }
+        this.tamanho = quantidadeProfissionais;
+    }
+
+    CargaProfissionais(CargaProfissionais origem) {
+        this.plantoes = origem.plantoes.clone();
+        this.minutos = origem.minutos.clone();
+        this.noites = origem.noites.clone();
+        this.heap = origem.heap.clone();
+        this.posicao = origem.posicao.clone();
+        this.retirados = new int[origem.retirados.length];
+        this.tamanho = origem.tamanho;
+    }
+
+    void restaurar(CargaProfissionais copia) {
+        System.arraycopy(copia.plantoes, 0, plantoes, 0, plantoes.length);
+        System.arraycopy(copia.minutos, 0, minutos, 0, minutos.length);
+        System.arraycopy(copia.noites, 0, noites, 0, noites.length);
+        System.arraycopy(copia.heap, 0, heap, 0, heap.length);
+        System.arraycopy(copia.posicao, 0, posicao, 0, posicao.length);
+        tamanho = copia.tamanho;
+    }
+
+    public void registrar(int idx, long minutosTurno, boolean noite) {
+        plantoes[idx]++;
+        minutos[idx] += minutosTurno;
+        if (noite) {
+            noites[idx]++;
+        }
+        descer(posicao[idx]);
+    }
+
+    public int plantoes(int idx) {
+        return plantoes[idx];
+    }
+
+    public long minutos(int idx) {
+        return minutos[idx];
+    }
+
+    public int noites(int idx) {
+        return noites[idx];
+    }
+
+    // Retorna o profissional elegível de menor carga, ou -1 se nenhum for elegível.
+    // Retira do heap apenas os mais leves até achar um elegível e os devolve em seguida: O(k log n).
+    public int menosCarregado(IntPredicate elegivel) {
+        int quantidadeRetirados = 0;
+        int escolhido = -1;
+        while (tamanho > 0) {
+            int topo = retirarTopo();
+            retirados[quantidadeRetirados++] = topo;
+            if (elegivel.test(topo)) {
+                escolhido = topo;
+                break;
+            }
+        }
+        for (int i = 0; i < quantidadeRetirados; i++) {
+            inserir(retirados[i]);
+        }
+        return escolhido;
+    }
+
+    // Os quantidade profissionais elegíveis de menor carga, em ordem crescente de carga, gravados em
+    // escolhidos a partir de offset. Uma única passada pelo heap: O((k + quantidade) log n).
+    public int menosCarregados(IntPredicate elegivel, int quantidade, int[] escolhidos, int offset) {
+        int quantidadeRetirados = 0;
+        int encontrados = 0;
+        while (tamanho > 0 && encontrados < quantidade) {
+            int topo = retirarTopo();
+            retirados[quantidadeRetirados++] = topo;
+            if (elegivel.test(topo)) {
+                escolhidos[offset + encontrados++] = topo;
+            }
+        }
+        for (int i = 0; i < quantidadeRetirados; i++) {
+            inserir(retirados[i]);
+        }
+        return encontrados;
+    }
+
+    private int retirarTopo() {
+        int topo = heap[0];
+        tamanho--;
+        if (tamanho > 0) {
+            heap[0] = heap[tamanho];
+            posicao[heap[0]] = 0;
+            descer(0);
+        }
+        return topo;
+    }
+
+    private void inserir(int idx) {
+        heap[tamanho] = idx;
+        posicao[idx] = tamanho;
+        tamanho++;
+        subir(tamanho - 1);
+    }
+
+    private void subir(int pos) {
+        while (pos > 0) {
+            int pai = (pos - 1) >>> 1;
+            if (!menor(heap[pos], heap[pai])) {
+                break;
+            }
+            trocar(pos, pai);
+            pos = pai;
+        }
+    }
+
+    private void descer(int pos) {
+        while (true) {
+            int esquerda = 2 * pos + 1;
+            if (esquerda >= tamanho) {
+                return;
+            }
+            int menorFilho = esquerda;
+            int direita = esquerda + 1;
+            if (direita < tamanho && menor(heap[direita], heap[esquerda])) {
+                menorFilho = direita;
+            }
+            if (!menor(heap[menorFilho], heap[pos])) {
+                return;
+            }
+            trocar(pos, menorFilho);
+            pos = menorFilho;
+        }
+    }
+
+    private boolean menor(int a, int b) {
+        return plantoes[a] < plantoes[b] || (plantoes[a] == plantoes[b] && a < b);
+    }
+
+    private void trocar(int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+        posicao[heap[i]] = i;
+        posicao[heap[j]] = j;
+    }
+}
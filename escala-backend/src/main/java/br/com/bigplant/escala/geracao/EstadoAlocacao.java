@@ -0,0 +1,138 @@
+package br.com.bigplant.escala.geracao;
+
+import java.util.Arrays;
+
+// Estado das regras por profissional (índice denso) durante a alocação, em arrays primitivos.
+public class EstadoAlocacao {
+
+    public static final long SEM_REGISTRO = Long.MIN_VALUE;
+
+    private final CargaProfissionais carga;
+    private final IndiceIntervalos ocupacao;
+    private final long[] ultimaSaida;
+    private final long[] ultimoDia;
+    private final int[] consecutivos;
+    private final int[] mesNoites;
+    private final int[] noitesNoMes;
+    private final int[] mesMinutos;
+    private final long[] minutosNoMes;
+
+    public EstadoAlocacao(int quantidadeProfissionais) {
+        this.carga = new CargaProfissionais(quantidadeProfissionais);
+        this.ocupacao = new IndiceIntervalos(quantidadeProfissionais);
+        this.ultimaSaida = new long[quantidadeProfissionais];
+        this.ultimoDia = new long[quantidadeProfissionais];
+        this.consecutivos = new int[quantidadeProfissionais];
+        this.mesNoites = new int[quantidadeProfissionais];
+        this.noitesNoMes = new int[quantidadeProfissionais];
+        this.mesMinutos = new int[quantidadeProfissionais];
+        this.minutosNoMes = new long[quantidadeProfissionais];
+        Arrays.fill(ultimaSaida, SEM_REGISTRO);
+        Arrays.fill(ultimoDia, SEM_REGISTRO);
+    }
+
+    private EstadoAlocacao(EstadoAlocacao origem) {
+        this.carga = new CargaProfissionais(origem.carga);
+        this.ocupacao = new IndiceIntervalos(origem.ocupacao);
+        this.ultimaSaida = origem.ultimaSaida.clone();
+        this.ultimoDia = origem.ultimoDia.clone();
+        this.consecutivos = origem.consecutivos.clone();
+        this.mesNoites = origem.mesNoites.clone();
+        this.noitesNoMes = origem.noitesNoMes.clone();
+        this.mesMinutos = origem.mesMinutos.clone();
+        this.minutosNoMes = origem.minutosNoMes.clone();
+    }
+
+    // Cópia independente, usada como contexto fixo pela otimização de um bloco
+    public EstadoAlocacao copiar() {
+        return new EstadoAlocacao(this);
+    }
+
+    // Volta este estado ao conteúdo de uma cópia feita antes, sem trocar a instância
+    public void restaurar(EstadoAlocacao copia) {
+        carga.restaurar(copia.carga);
+        ocupacao.restaurar(copia.ocupacao);
+        System.arraycopy(copia.ultimaSaida, 0, ultimaSaida, 0, ultimaSaida.length);
+        System.arraycopy(copia.ultimoDia, 0, ultimoDia, 0, ultimoDia.length);
+        System.arraycopy(copia.consecutivos, 0, consecutivos, 0, consecutivos.length);
+        System.arraycopy(copia.mesNoites, 0, mesNoites, 0, mesNoites.length);
+        System.arraycopy(copia.noitesNoMes, 0, noitesNoMes, 0, noitesNoMes.length);
+        System.arraycopy(copia.mesMinutos, 0, mesMinutos, 0, mesMinutos.length);
+        System.arraycopy(copia.minutosNoMes, 0, minutosNoMes, 0, minutosNoMes.length);
+    }
+
+    public int quantidadeProfissionais() {
+        return consecutivos.length;
+    }
+
+    public CargaProfissionais carga() {
+        return carga;
+    }
+
+    public IndiceIntervalos ocupacao() {
+        return ocupacao;
+    }
+
+    public long ultimaSaida(int idx) {
+        return ultimaSaida[idx];
+    }
+
+    public long ultimoDia(int idx) {
+        return ultimoDia[idx];
+    }
+
+    public int consecutivos(int idx) {
+        return consecutivos[idx];
+    }
+
+    // Noites do profissional no mês informado (ano * 12 + mês - 1); o contador reinicia a cada mês
+    public int noitesNoMes(int idx, int mes) {
+        return mesNoites[idx] == mes ? noitesNoMes[idx] : 0;
+    }
+
+    // Minutos trabalhados pelo profissional no mês informado, com o mesmo reinício mensal das noites
+    public long minutosNoMes(int idx, int mes) {
+        return mesMinutos[idx] == mes ? minutosNoMes[idx] : 0;
+    }
+
+    public void registrar(int idx, TurnosCompactos turnos, int s) {
+        registrar(idx, turnos.inicio(s), turnos.fim(s), turnos.dia(s), turnos.noite(s), turnos.mes(s));
+    }
+
+    // Mesmo registro a partir dos valores do turno (minutos desde a época, dia da época, mês ano * 12 + mês - 1)
+    public void registrar(int idx, long inicio, long fim, long dia, boolean noite, int mes) {
+        carga.registrar(idx, fim - inicio, noite);
+        ocupacao.adicionar(idx, inicio, fim);
+        minutosNoMes[idx] = minutosNoMes(idx, mes) + (fim - inicio);
+        mesMinutos[idx] = mes;
+        if (noite) {
+            noitesNoMes[idx] = noitesNoMes(idx, mes) + 1;
+            mesNoites[idx] = mes;
+        }
+        ultimaSaida[idx] = Math.max(ultimaSaida[idx], fim);
+        if (ultimoDia[idx] == SEM_REGISTRO) {
+            consecutivos[idx] = 1;
+        } else {
+            long diasEntre = dia - ultimoDia[idx];
+            if (diasEntre == 1) {
+                consecutivos[idx]++;
+            } else if (diasEntre > 1) {
+                consecutivos[idx] = 1;
+            }
+        }
+        ultimoDia[idx] = Math.max(ultimoDia[idx], dia);
+    }
+
+    // Parte do estado deixado por uma escala anterior, em vez de contadores zerados. Os acumulados são os
+    // do mês informado; sequência e descanso só pesam se o próximo turno vier logo depois de ultimoDia.
+    public void semear(
+            int idx, long ultimaSaida, long ultimoDia, int consecutivos, int mes, int noites, long minutos) {
+        this.ultimaSaida[idx] = ultimaSaida;
+        this.ultimoDia[idx] = ultimoDia;
+        this.consecutivos[idx] = ultimoDia == SEM_REGISTRO ? 0 : consecutivos;
+        mesNoites[idx] = mes;
+        noitesNoMes[idx] = noites;
+        mesMinutos[idx] = mes;
+        minutosNoMes[idx] = minutos;
+    }
+}
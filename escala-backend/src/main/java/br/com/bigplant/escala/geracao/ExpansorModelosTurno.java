@@ -0,0 +1,143 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.model.ModeloTurno;
+import br.com.bigplant.escala.model.Turno;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Expande modelos de turno em turnos concretos sob demanda. Os modelos são agrupados uma vez por dia da
+// semana e ordenados pelo início, então o fluxo sai em ordem cronológica e só cria os turnos de cada
+// dia quando ele é consumido: a geração materializa um bloco por vez, nunca o horizonte inteiro.
+public class ExpansorModelosTurno {
+
+    private static final String LOCAL_PADRAO = "Hospital Principal";
+    private static final LocalTime INICIO_DIA = LocalTime.of(7, 0);
+    private static final LocalTime INICIO_NOITE = LocalTime.of(19, 0);
+
+    private final Long idHospital;
+    // Índice 0 = segunda-feira ... 6 = domingo
+    private final List<List<Modelo>> porDiaSemana = new ArrayList<>(7);
+    private final List<Long> chaves;
+    private final int quantidadeModelos;
+
+    public ExpansorModelosTurno(Long idHospital, List<ModeloTurno> modelos, Map<Long, String> nomesLocais) {
+        this.idHospital = idHospital;
+        for (int d = 0; d < 7; d++) {
+            porDiaSemana.add(new ArrayList<>());
+        }
+        Set<Long> especialidades = new LinkedHashSet<>();
+        int ordem = 0;
+        for (ModeloTurno modelo : modelos) {
+            if (modelo.getHoraInicio() == null || modelo.getHoraFim() == null) {
+                continue;
+            }
+            int quantidade = modelo.getQuantidade() == null ? 1 : modelo.getQuantidade();
+            if (quantidade <= 0) {
+                continue;
+            }
+            Modelo compilado = new Modelo(
+                    ordem++,
+                    modelo.getHoraInicio(),
+                    modelo.getHoraFim(),
+                    modelo.getTipo() != null ? modelo.getTipo() : tipoPadrao(modelo.getHoraInicio()),
+                    modelo.getIdLocalAtendimento() == null ? null : nomesLocais.get(modelo.getIdLocalAtendimento()),
+                    modelo.getIdLocalAtendimento(),
+                    modelo.getIdEspecialidade(),
+                    quantidade);
+            Integer diaSemana = modelo.getDiaSemana();
+            for (int d = 0; d < 7; d++) {
+                if (diaSemana == null || diaSemana == d + 1) {
+                    porDiaSemana.get(d).add(compilado);
+                }
+            }
+            especialidades.add(modelo.getIdEspecialidade());
+        }
+        // Ordenação estável: mesmo início mantém a ordem em que os modelos foram informados
+        porDiaSemana.forEach(dia -> dia.sort(Comparator.comparing(Modelo::horaInicio)));
+        this.chaves = Collections.unmodifiableList(new ArrayList<>(especialidades));
+        this.quantidadeModelos = ordem;
+    }
+
+    // Sem modelos cadastrados: DIA (7h-19h) e NOITE (19h-7h) no local padrão, abertos a todos os profissionais
+    public static ExpansorModelosTurno padrao(Long idHospital) {
+        List<ModeloTurno> modelos = new ArrayList<>();
+        for (LocalTime inicio : List.of(INICIO_DIA, INICIO_NOITE)) {
+            ModeloTurno modelo = new ModeloTurno();
+            modelo.setHoraInicio(inicio);
+            modelo.setHoraFim(inicio.equals(INICIO_DIA) ? INICIO_NOITE : INICIO_DIA);
+            modelo.setTipo(inicio.equals(INICIO_DIA) ? "DIA" : "NOITE");
+            modelo.setQuantidade(1);
+            modelos.add(modelo);
+        }
+        ExpansorModelosTurno expansor = new ExpansorModelosTurno(idHospital, modelos, Map.of());
+        expansor.porDiaSemana.forEach(dia -> dia.replaceAll(m -> m.comLocal(LOCAL_PADRAO)));
+        return expansor;
+    }
+
+    public boolean vazio() {
+        return porDiaSemana.stream().allMatch(List::isEmpty);
+    }
+
+    // Chaves de especialidade dos turnos gerados, na ordem em que aparecem nos modelos
+    public List<Long> chaves() {
+        return chaves;
+    }
+
+    public Stream<Turno> expandir(LocalDate inicio, LocalDate fim) {
+        return Stream.iterate(inicio, data -> !data.isAfter(fim), data -> data.plusDays(1))
+                .flatMap(data -> porDiaSemana.get(data.getDayOfWeek().getValue() - 1).stream()
+                        .flatMap(modelo -> IntStream.range(0, modelo.quantidade())
+                                .mapToObj(vaga -> modelo.criar(idHospital, data, chaveVaga(data, modelo)))));
+    }
+
+    // Mesma chave para as vagas do turno de um modelo num dia; modelos distintos nunca se misturam,
+    // mesmo com horário, local e especialidade iguais
+    private long chaveVaga(LocalDate data, Modelo modelo) {
+        return data.toEpochDay() * quantidadeModelos + modelo.ordem();
+    }
+
+    // Turnos que começam a partir das 18h ou antes das 6h contam como noite
+    static String tipoPadrao(LocalTime horaInicio) {
+        return horaInicio.getHour() >= 18 || horaInicio.getHour() < 6 ? "NOITE" : "DIA";
+    }
+
+    // ordem: posição do modelo entre os compilados, para a chave de vaga
+    private record Modelo(
+            int ordem,
+            LocalTime horaInicio,
+            LocalTime horaFim,
+            String tipo,
+            String local,
+            Long idLocalAtendimento,
+            Long idEspecialidade,
+            int quantidade) {
+
+        Modelo comLocal(String novoLocal) {
+            return new Modelo(
+                    ordem, horaInicio, horaFim, tipo, novoLocal, idLocalAtendimento, idEspecialidade, quantidade);
+        }
+
+        Turno criar(Long idHospital, LocalDate data, long chaveVaga) {
+            Turno turno = new Turno();
+            turno.setChaveVaga(chaveVaga);
+            turno.setData(data);
+            turno.setHoraInicio(horaInicio);
+            turno.setHoraFim(horaFim);
+            turno.setTipo(tipo);
+            turno.setLocal(local);
+            turno.setIdHospital(idHospital);
+            turno.setIdLocalAtendimento(idLocalAtendimento);
+            turno.setIdEspecialidade(idEspecialidade);
+            return turno;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package br.com.bigplant.escala.geracao;
+
+import java.util.Arrays;
+
+// Índice de intervalos ocupados por profissional (em minutos desde a época), ordenados pelo início.
+// Mantém também o maior fim acumulado até cada posição, o que permite responder sobreposição
+// com uma única busca binária mesmo quando há intervalos encaixados uns nos outros.
+public class IndiceIntervalos {
+
+    private static final int CAPACIDADE_INICIAL = 8;
+
+    private final long[][] inicios;
+    private final long[][] fins;
+    private final long[][] maiorFimAte;
+    private final int[] tamanhos;
+
+    public IndiceIntervalos(int quantidadeProfissionais) {
+        this.inicios = new long[quantidadeProfissionais][];
+        this.fins = new long[quantidadeProfissionais][];
+        this.maiorFimAte = new long[quantidadeProfissionais][];
+        this.tamanhos = new int[quantidadeProfissionais];
+    }
+
+    IndiceIntervalos(IndiceIntervalos origem) {
+        int quantidadeProfissionais = origem.tamanhos.length;
+        this.inicios = new long[quantidadeProfissionais][];
+        this.fins = new long[quantidadeProfissionais][];
+        this.maiorFimAte = new long[quantidadeProfissionais][];
+        this.tamanhos = new int[quantidadeProfissionais];
+        restaurar(origem);
+    }
+
+    void restaurar(IndiceIntervalos copia) {
+        for (int idx = 0; idx < tamanhos.length; idx++) {
+            int tamanho = copia.tamanhos[idx];
+            if (copia.inicios[idx] == null) {
+                inicios[idx] = null;
+                fins[idx] = null;
+                maiorFimAte[idx] = null;
+            } else {
+                inicios[idx] = Arrays.copyOf(copia.inicios[idx], Math.max(tamanho, CAPACIDADE_INICIAL));
+                fins[idx] = Arrays.copyOf(copia.fins[idx], Math.max(tamanho, CAPACIDADE_INICIAL));
+                maiorFimAte[idx] = Arrays.copyOf(copia.maiorFimAte[idx], Math.max(tamanho, CAPACIDADE_INICIAL));
+            }
+            tamanhos[idx] = tamanho;
+        }
+    }
+
+    public void adicionar(int idx, long inicio, long fim) {
+        garantirCapacidade(idx);
+        int tamanho = tamanhos[idx];
+        long[] ini = inicios[idx];
+        long[] fi = fins[idx];
+        long[] maior = maiorFimAte[idx];
+
+        // Na geração os turnos chegam em ordem cronológica, então quase sempre é um append
+        int pos = quantidadeComInicioAte(ini, tamanho, inicio);
+        if (pos < tamanho) {
+            System.arraycopy(ini, pos, ini, pos + 1, tamanho - pos);
+            System.arraycopy(fi, pos, fi, pos + 1, tamanho - pos);
+        }
+        ini[pos] = inicio;
+        fi[pos] = fim;
+        tamanhos[idx] = tamanho + 1;
+
+        long acumulado = pos == 0 ? Long.MIN_VALUE : maior[pos - 1];
+        for (int i = pos; i <= tamanho; i++) {
+            acumulado = Math.max(acumulado, fi[i]);
+            maior[i] = acumulado;
+        }
+    }
+
+    // Existe intervalo [a, b) com a < fim e b > inicio?
+    public boolean conflita(int idx, long inicio, long fim) {
+        int tamanho = tamanhos[idx];
+        if (tamanho == 0) {
+            return false;
+        }
+        int quantidade = quantidadeComInicioAntesDe(inicios[idx], tamanho, fim);
+        return quantidade > 0 && maiorFimAte[idx][quantidade - 1] > inicio;
+    }
+
+    // Remove os intervalos que terminam até o instante informado; usado entre blocos de uma geração
+    // longa para que o índice guarde apenas a janela que ainda pode gerar conflito
+    public void descartarTerminadosAte(long instante) {
+        for (int idx = 0; idx < tamanhos.length; idx++) {
+            int tamanho = tamanhos[idx];
+            if (tamanho == 0) {
+                continue;
+            }
+            long[] ini = inicios[idx];
+            long[] fi = fins[idx];
+            int mantidos = 0;
+            for (int i = 0; i < tamanho; i++) {
+                if (fi[i] > instante) {
+                    ini[mantidos] = ini[i];
+                    fi[mantidos] = fi[i];
+                    mantidos++;
+                }
+            }
+            long acumulado = Long.MIN_VALUE;
+            for (int i = 0; i < mantidos; i++) {
+                acumulado = Math.max(acumulado, fi[i]);
+                maiorFimAte[idx][i] = acumulado;
+            }
+            tamanhos[idx] = mantidos;
+        }
+    }
+
+    public int quantidade(int idx) {
+        return tamanhos[idx];
+    }
+
+    private void garantirCapacidade(int idx) {
+        if (inicios[idx] == null) {
+            inicios[idx] = new long[CAPACIDADE_INICIAL];
+            fins[idx] = new long[CAPACIDADE_INICIAL];
+            maiorFimAte[idx] = new long[CAPACIDADE_INICIAL];
+        } else if (tamanhos[idx] == inicios[idx].length) {
+            int novaCapacidade = inicios[idx].length * 2;
+            inicios[idx] = Arrays.copyOf(inicios[idx], novaCapacidade);
+            fins[idx] = Arrays.copyOf(fins[idx], novaCapacidade);
+            maiorFimAte[idx] = Arrays.copyOf(maiorFimAte[idx], novaCapacidade);
+        }
+    }
+
+    // Quantidade de intervalos com início < valor
+    private static int quantidadeComInicioAntesDe(long[] ini, int tamanho, long valor) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (ini[meio] < valor) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    // Quantidade de intervalos com início <= valor
+    private static int quantidadeComInicioAte(long[] ini, int tamanho, long valor) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (ini[meio] <= valor) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.model.Profissional;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Associa cada profissional da geração a um índice denso (0..n-1), usado por todas as estruturas do motor.
+public class IndiceProfissionais {
+
+    private final List<Profissional> profissionais;
+    private final Map<Long, Integer> indicePorId = new HashMap<>();
+
+    public IndiceProfissionais(List<Profissional> profissionais) {
+        this.profissionais = profissionais;
+        for (int i = 0; i < profissionais.size(); i++) {
+            indicePorId.put(profissionais.get(i).getId(), i);
+        }
+    }
+
+    public int tamanho() {
+        return profissionais.size();
+    }
+
+    // Retorna -1 quando o profissional não participa da geração
+    public int indice(Long idProfissional) {
+        if (idProfissional == null) {
+            return -1;
+        }
+        Integer idx = indicePorId.get(idProfissional);
+        return idx == null ? -1 : idx;
+    }
+
+    public Long id(int idx) {
+        return profissionais.get(idx).getId();
+    }
+
+    public Profissional profissional(int idx) {
+        return profissionais.get(idx);
+    }
+
+    public List<Profissional> profissionais() {
+        return profissionais;
+    }
+}
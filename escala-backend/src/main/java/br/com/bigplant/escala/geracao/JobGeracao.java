@@ -0,0 +1,123 @@
+package br.com.bigplant.escala.geracao;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Job de geração assíncrona: status, fase atual, tempos por fase e, ao final, a escala gerada.
+public class JobGeracao implements ProgressoGeracao {
+
+    public enum Status {
+        PENDENTE,
+        EM_EXECUCAO,
+        CONCLUIDO,
+        FALHOU
+    }
+
+    private final String id;
+    private final Long idHospital;
+    private final LocalDateTime criadoEm = LocalDateTime.now();
+    private final Map<String, Long> nanosPorFase = new LinkedHashMap<>();
+    private volatile Status status = Status.PENDENTE;
+    private volatile String faseAtual;
+    private volatile int percentual;
+    private volatile LocalDateTime iniciadoEm;
+    private volatile LocalDateTime concluidoEm;
+    private volatile Long idEscala;
+    private volatile String erro;
+
+    public JobGeracao(String id, Long idHospital) {
+        this.id = id;
+        this.idHospital = idHospital;
+    }
+
+    public void iniciar() {
+        iniciadoEm = LocalDateTime.now();
+        status = Status.EM_EXECUCAO;
+    }
+
+    public void concluir(Long idEscala) {
+        this.idEscala = idEscala;
+        this.percentual = 100;
+        this.faseAtual = null;
+        this.concluidoEm = LocalDateTime.now();
+        this.status = Status.CONCLUIDO;
+    }
+
+    public void falhar(String erro) {
+        this.erro = erro;
+        this.faseAtual = null;
+        this.concluidoEm = LocalDateTime.now();
+        this.status = Status.FALHOU;
+    }
+
+    public boolean finalizado() {
+        return status == Status.CONCLUIDO || status == Status.FALHOU;
+    }
+
+    @Override
+    public void iniciarFase(String fase) {
+        faseAtual = fase;
+    }
+
+    @Override
+    public synchronized void registrarTempoFase(String fase, long nanos) {
+        nanosPorFase.merge(fase, nanos, Long::sum);
+    }
+
+    @Override
+    public void blocoConcluido(int concluidos, int total) {
+        // 100% só quando a escala estiver disponível
+        percentual = total == 0 ? 99 : Math.min(99, concluidos * 100 / total);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getIdHospital() {
+        return idHospital;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getFaseAtual() {
+        return faseAtual;
+    }
+
+    public int getPercentual() {
+        return percentual;
+    }
+
+    public synchronized Map<String, Long> getTemposFaseMs() {
+        Map<String, Long> tempos = new LinkedHashMap<>();
+        nanosPorFase.forEach((fase, nanos) -> tempos.put(fase, nanos / 1_000_000));
+        return tempos;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getIniciadoEm() {
+        return iniciadoEm;
+    }
+
+    public LocalDateTime getConcluidoEm() {
+        return concluidoEm;
+    }
+
+    public Long getIdEscala() {
+        return idEscala;
+    }
+
+    public String getUrlEscala() {
+        return idEscala == null ? null : "/api/escala/" + idEscala;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+}
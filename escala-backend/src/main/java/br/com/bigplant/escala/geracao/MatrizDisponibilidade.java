@@ -0,0 +1,103 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.model.Disponibilidade;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Matriz profissional x (data, tipo de turno) montada a partir de uma única consulta por intervalo.
+// Cada célula (dia, tipo) guarda um bitset com os índices densos dos profissionais disponíveis.
+// Células sem nenhum registro de disponibilidade não restringem ninguém (mesma regra da consulta por turno).
+public class MatrizDisponibilidade {
+
+    public static final int SEM_RESTRICAO = -1;
+
+    private final LocalDate inicio;
+    private final int dias;
+    private final int palavras;
+    private final Map<String, Integer> tipos = new HashMap<>();
+    private final long[] bits;
+    private final boolean[] possuiRegistro;
+
+    public MatrizDisponibilidade(
+            LocalDate inicio,
+            LocalDate fim,
+            IndiceProfissionais indiceProfissionais,
+            List<Disponibilidade> disponibilidades) {
+        this.inicio = inicio;
+        this.dias = (int) ChronoUnit.DAYS.between(inicio, fim) + 1;
+        this.palavras = Math.max(1, (indiceProfissionais.tamanho() + 63) >>> 6);
+
+        for (Disponibilidade d : disponibilidades) {
+            if (d.getTipoTurno() != null) {
+                tipos.putIfAbsent(normalizarTipo(d.getTipoTurno()), tipos.size());
+            }
+        }
+        this.bits = new long[dias * Math.max(1, tipos.size()) * palavras];
+        this.possuiRegistro = new boolean[dias * Math.max(1, tipos.size())];
+
+        for (Disponibilidade d : disponibilidades) {
+            if (d.getData() == null || d.getTipoTurno() == null) {
+                continue;
+            }
+            int dia = (int) ChronoUnit.DAYS.between(inicio, d.getData());
+            if (dia < 0 || dia >= dias) {
+                continue;
+            }
+            int celula = dia * tipos.size() + tipos.get(normalizarTipo(d.getTipoTurno()));
+            possuiRegistro[celula] = true;
+            int idx = indiceProfissionais.indice(d.getIdProfissional());
+            if (idx >= 0) {
+                bits[celula * palavras + (idx >>> 6)] |= 1L << idx;
+            }
+        }
+    }
+
+    // Resolve a célula de um turno uma única vez; o laço de alocação consulta depois por índice.
+    public int celula(LocalDate data, String tipoTurno) {
+        if (data == null || tipoTurno == null) {
+            return SEM_RESTRICAO;
+        }
+        Integer tipo = tipos.get(normalizarTipo(tipoTurno));
+        if (tipo == null) {
+            return SEM_RESTRICAO;
+        }
+        int dia = (int) ChronoUnit.DAYS.between(inicio, data);
+        if (dia < 0 || dia >= dias) {
+            return SEM_RESTRICAO;
+        }
+        int celula = dia * tipos.size() + tipo;
+        return possuiRegistro[celula] ? celula : SEM_RESTRICAO;
+    }
+
+    public boolean disponivel(int celula, int idxProfissional) {
+        if (celula == SEM_RESTRICAO) {
+            return true;
+        }
+        return (bits[celula * palavras + (idxProfissional >>> 6)] & (1L << idxProfissional)) != 0;
+    }
+
+    // Copia o bitset da célula palavra a palavra para destino[offset..]; célula sem restrição vira
+    // "todos disponíveis" para os quantidadeProfissionais primeiros índices
+    public void copiarDisponiveis(int celula, long[] destino, int offset, int quantidadeProfissionais) {
+        if (celula != SEM_RESTRICAO) {
+            System.arraycopy(bits, celula * palavras, destino, offset, palavras);
+            return;
+        }
+        for (int w = 0; w < palavras; w++) {
+            int restantes = quantidadeProfissionais - (w << 6);
+            destino[offset + w] = restantes >= 64 ? -1L : restantes <= 0 ? 0L : (1L << restantes) - 1;
+        }
+    }
+
+    public int palavras() {
+        return palavras;
+    }
+
+    private static String normalizarTipo(String tipoTurno) {
+        return tipoTurno.trim().toUpperCase(Locale.ROOT);
+    }
+}
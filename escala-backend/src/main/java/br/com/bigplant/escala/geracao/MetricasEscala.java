@@ -0,0 +1,220 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.geracao.regras.RegraMaxNoitesMes;
+import br.com.bigplant.escala.geracao.regras.RegraMaxPlantoesConsecutivos;
+import br.com.bigplant.escala.geracao.regras.RegraMinDescansoHoras;
+import br.com.bigplant.escala.geracao.regras.RegrasCompiladas;
+import br.com.bigplant.escala.geracao.regras.RegrasVinculadas;
+import br.com.bigplant.escala.model.Profissional;
+import br.com.bigplant.escala.model.Turno;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Indicadores de qualidade de uma escala proposta, usados para comparar variantes de regras.
+// Consideram só os turnos informados (não os já existentes no banco) e usam os mesmos pesos da
+// otimização, de modo que a pontuação das variantes é comparável (menor é melhor).
+public class MetricasEscala {
+
+    private int totalTurnos;
+    private int turnosSemProfissional;
+    private int violacoesDescanso;
+    private int violacoesNoitesMes;
+    private int violacoesPlantoesConsecutivos;
+    private double horasForaCargaMensal;
+    private double menorCargaHoras;
+    private double maiorCargaHoras;
+    private double desvioPadraoCargaHoras;
+    private int menorNoites;
+    private int maiorNoites;
+    private double pontuacao;
+
+    public static MetricasEscala calcular(
+            List<Turno> turnos,
+            List<Profissional> profissionais,
+            RegrasCompiladas regras,
+            LocalDate inicio,
+            LocalDate fim) {
+        MetricasEscala metricas = new MetricasEscala();
+        IndiceProfissionais indice = new IndiceProfissionais(profissionais);
+        int quantidade = indice.tamanho();
+        List<List<Turno>> porProfissional = new ArrayList<>(quantidade);
+        for (int p = 0; p < quantidade; p++) {
+            porProfissional.add(new ArrayList<>());
+        }
+
+        metricas.totalTurnos = turnos.size();
+        for (Turno turno : turnos) {
+            int idx = indice.indice(turno.getIdProfissional());
+            if (idx < 0) {
+                metricas.turnosSemProfissional++;
+            } else {
+                porProfissional.get(idx).add(turno);
+            }
+        }
+
+        // Sem regras, nenhum limite soft é avaliado
+        int[] limitesNoitesMes = new int[quantidade];
+        long[] limitesDescanso = new long[quantidade];
+        int[] limitesConsecutivos = new int[quantidade];
+        if (regras != null) {
+            RegrasVinculadas vinculadas = regras.vincular(indice);
+            limitesNoitesMes = vinculadas.inteiros(RegraMaxNoitesMes.CHAVE, 0);
+            limitesDescanso = vinculadas.minutos(RegraMinDescansoHoras.CHAVE);
+            limitesConsecutivos = vinculadas.inteiros(RegraMaxPlantoesConsecutivos.CHAVE, 0);
+        }
+        int primeiroMes = mes(inicio);
+        int meses = mes(fim) - primeiroMes + 1;
+
+        double somaHoras = 0;
+        double somaQuadrados = 0;
+        metricas.menorCargaHoras = quantidade == 0 ? 0 : Double.MAX_VALUE;
+        metricas.menorNoites = quantidade == 0 ? 0 : Integer.MAX_VALUE;
+        for (int p = 0; p < quantidade; p++) {
+            List<Turno> lista = porProfissional.get(p);
+            int maxNoitesMes = limitesNoitesMes[p];
+            long minDescansoMinutos = limitesDescanso[p];
+            int maxPlantoesConsecutivos = limitesConsecutivos[p];
+            lista.sort(Comparator.comparingLong(TempoCompacto::inicio));
+            long[] minutosPorMes = new long[meses];
+            int[] noitesPorMes = new int[meses];
+            long ultimaSaida = EstadoAlocacao.SEM_REGISTRO;
+            long ultimoDia = EstadoAlocacao.SEM_REGISTRO;
+            int sequencia = 0;
+            int noites = 0;
+            long minutos = 0;
+
+            for (Turno turno : lista) {
+                long inicioTurno = TempoCompacto.inicio(turno);
+                long fimTurno = TempoCompacto.fim(turno);
+                long dia = turno.getData().toEpochDay();
+                int k = mes(turno.getData()) - primeiroMes;
+
+                if (minDescansoMinutos > 0 && ultimaSaida != EstadoAlocacao.SEM_REGISTRO
+                        && inicioTurno < ultimaSaida + minDescansoMinutos) {
+                    metricas.violacoesDescanso++;
+                }
+                ultimaSaida = Math.max(ultimaSaida, fimTurno);
+
+                if (ultimoDia == EstadoAlocacao.SEM_REGISTRO || dia - ultimoDia > 1) {
+                    sequencia = 1;
+                } else if (dia - ultimoDia == 1) {
+                    sequencia++;
+                    if (maxPlantoesConsecutivos > 0 && sequencia > maxPlantoesConsecutivos) {
+                        metricas.violacoesPlantoesConsecutivos++;
+                    }
+                }
+                ultimoDia = Math.max(ultimoDia, dia);
+
+                minutos += fimTurno - inicioTurno;
+                if (k >= 0 && k < meses) {
+                    minutosPorMes[k] += fimTurno - inicioTurno;
+                }
+                if ("NOITE".equalsIgnoreCase(turno.getTipo())) {
+                    noites++;
+                    if (k >= 0 && k < meses) {
+                        noitesPorMes[k]++;
+                    }
+                }
+            }
+
+            Profissional profissional = indice.profissional(p);
+            for (int k = 0; k < meses; k++) {
+                if (maxNoitesMes > 0 && noitesPorMes[k] > maxNoitesMes) {
+                    metricas.violacoesNoitesMes += noitesPorMes[k] - maxNoitesMes;
+                }
+                double fator = fatorMes(primeiroMes + k, inicio, fim);
+                Integer minima = profissional.getCargaHorariaMensalMinima();
+                Integer maxima = profissional.getCargaHorariaMensalMaxima();
+                double horasMes = minutosPorMes[k] / 60.0;
+                if (minima != null && minima > 0 && horasMes < minima * fator) {
+                    metricas.horasForaCargaMensal += minima * fator - horasMes;
+                }
+                if (maxima != null && maxima > 0 && horasMes > maxima * fator) {
+                    metricas.horasForaCargaMensal += horasMes - maxima * fator;
+                }
+            }
+
+            double horas = minutos / 60.0;
+            somaHoras += horas;
+            somaQuadrados += horas * horas;
+            metricas.menorCargaHoras = Math.min(metricas.menorCargaHoras, horas);
+            metricas.maiorCargaHoras = Math.max(metricas.maiorCargaHoras, horas);
+            metricas.menorNoites = Math.min(metricas.menorNoites, noites);
+            metricas.maiorNoites = Math.max(metricas.maiorNoites, noites);
+        }
+
+        if (quantidade > 0) {
+            double media = somaHoras / quantidade;
+            metricas.desvioPadraoCargaHoras = Math.sqrt(Math.max(0, somaQuadrados / quantidade - media * media));
+        }
+        int violacoes = metricas.violacoesDescanso + metricas.violacoesNoitesMes + metricas.violacoesPlantoesConsecutivos;
+        metricas.pontuacao = OtimizadorEscala.PESO_NAO_ALOCADO * metricas.turnosSemProfissional
+                + OtimizadorEscala.PESO_VIOLACAO * violacoes
+                + OtimizadorEscala.PESO_HORA_FORA_CARGA * metricas.horasForaCargaMensal;
+        return metricas;
+    }
+
+    private static int mes(LocalDate data) {
+        return data.getYear() * 12 + data.getMonthValue() - 1;
+    }
+
+    // Fração do mês coberta pelo período, para proporcionalizar as cargas mensais
+    private static double fatorMes(int mes, LocalDate inicio, LocalDate fim) {
+        LocalDate primeiroDia = LocalDate.of(mes / 12, mes % 12 + 1, 1);
+        LocalDate ultimoDia = primeiroDia.withDayOfMonth(primeiroDia.lengthOfMonth());
+        LocalDate de = primeiroDia.isBefore(inicio) ? inicio : primeiroDia;
+        LocalDate ate = ultimoDia.isAfter(fim) ? fim : ultimoDia;
+        long dias = ate.toEpochDay() - de.toEpochDay() + 1;
+        return dias <= 0 ? 0 : (double) dias / primeiroDia.lengthOfMonth();
+    }
+
+    public int getTotalTurnos() {
+        return totalTurnos;
+    }
+
+    public int getTurnosSemProfissional() {
+        return turnosSemProfissional;
+    }
+
+    public int getViolacoesDescanso() {
+        return violacoesDescanso;
+    }
+
+    public int getViolacoesNoitesMes() {
+        return violacoesNoitesMes;
+    }
+
+    public int getViolacoesPlantoesConsecutivos() {
+        return violacoesPlantoesConsecutivos;
+    }
+
+    public double getHorasForaCargaMensal() {
+        return horasForaCargaMensal;
+    }
+
+    public double getMenorCargaHoras() {
+        return menorCargaHoras;
+    }
+
+    public double getMaiorCargaHoras() {
+        return maiorCargaHoras;
+    }
+
+    public double getDesvioPadraoCargaHoras() {
+        return desvioPadraoCargaHoras;
+    }
+
+    public int getMenorNoites() {
+        return menorNoites;
+    }
+
+    public int getMaiorNoites() {
+        return maiorNoites;
+    }
+
+    public double getPontuacao() {
+        return pontuacao;
+    }
+}
@@ -0,0 +1,417 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.geracao.regras.RegraMaxNoitesMes;
+import br.com.bigplant.escala.geracao.regras.RegraMaxPlantoesConsecutivos;
+import br.com.bigplant.escala.geracao.regras.RegraMinDescansoHoras;
+import br.com.bigplant.escala.geracao.regras.RegrasCompiladas;
+import br.com.bigplant.escala.geracao.regras.RegrasVinculadas;
+import br.com.bigplant.escala.model.Profissional;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Busca local (simulated annealing) sobre o resultado guloso de um bloco, limitada por um prazo de relógio.
+// Vizinhanças: mover um turno para outro profissional e trocar os profissionais de dois turnos.
+// A pontuação pondera turnos sem profissional, violações das regras soft (descanso, noites no mês,
+// plantões consecutivos), horas fora de cargaHorariaMensalMinima/Maxima e o equilíbrio de noites e
+// plantões. Regras hard (disponibilidade e conflito de horário) nunca são violadas por um movimento.
+// Cadeias independentes rodam em paralelo até o prazo e prevalece a melhor solução encontrada.
+public class OtimizadorEscala {
+
+    static final double PESO_NAO_ALOCADO = 1000;
+    static final double PESO_VIOLACAO = 100;
+    static final double PESO_HORA_FORA_CARGA = 1;
+    static final double PESO_NOITES = 2;
+    static final double PESO_PLANTOES = 1;
+
+    private static final double TEMPERATURA_INICIAL = 50;
+    private static final double TEMPERATURA_FINAL = 0.05;
+    private static final int ITERACOES_ENTRE_CONSULTAS_RELOGIO = 256;
+    private static final long SEMENTE = 0x9E3779B97F4A7C15L;
+
+    private final RegrasCompiladas regras;
+    private final LocalDate inicioHorizonte;
+
+    public OtimizadorEscala(RegrasCompiladas regras, LocalDate inicioHorizonte) {
+        this.regras = regras;
+        this.inicioHorizonte = inicioHorizonte;
+    }
+
+    // contexto: estado das regras antes do bloco (não é alterado). As alocações de turnos são
+    // substituídas pela melhor solução encontrada, que nunca é pior que a solução recebida.
+    public void otimizar(
+            TurnosCompactos turnos,
+            EstadoAlocacao contexto,
+            IndiceProfissionais profissionais,
+            long prazoNanos,
+            int cadeias,
+            ForkJoinPool pool) {
+        if (turnos.tamanho() == 0 || profissionais.tamanho() < 2 || System.nanoTime() >= prazoNanos) {
+            return;
+        }
+        Avaliacao avaliacao = new Avaliacao(turnos, contexto, profissionais);
+        long inicio = System.nanoTime();
+
+        List<ForkJoinTask<Cadeia>> paralelas = new ArrayList<>();
+        for (int i = 1; i < cadeias; i++) {
+            long semente = SEMENTE * (i + 1);
+            paralelas.add(pool.submit(() -> new Cadeia(avaliacao, semente).executar(inicio, prazoNanos)));
+        }
+        Cadeia melhor = new Cadeia(avaliacao, SEMENTE).executar(inicio, prazoNanos);
+        for (ForkJoinTask<Cadeia> tarefa : paralelas) {
+            Cadeia cadeia = tarefa.join();
+            if (cadeia.melhorPontuacao < melhor.melhorPontuacao) {
+                melhor = cadeia;
+            }
+        }
+
+        for (int s = 0; s < turnos.tamanho(); s++) {
+            turnos.alocar(s, melhor.melhorAlocado[s]);
+        }
+    }
+
+    // Dados somente leitura compartilhados pelas cadeias
+    private final class Avaliacao {
+
+        final TurnosCompactos turnos;
+        final EstadoAlocacao contexto;
+        final int quantidadeProfissionais;
+        final long[] minMinutosMes;
+        final long[] maxMinutosMes;
+        final int[] maxNoitesMes;
+        final long[] minDescansoMinutos;
+        final int[] maxPlantoesConsecutivos;
+        final int primeiroMes;
+        final double[] fatorMes;
+
+        Avaliacao(TurnosCompactos turnos, EstadoAlocacao contexto, IndiceProfissionais profissionais) {
+            this.turnos = turnos;
+            this.contexto = contexto;
+            this.quantidadeProfissionais = profissionais.tamanho();
+            this.minMinutosMes = new long[quantidadeProfissionais];
+            this.maxMinutosMes = new long[quantidadeProfissionais];
+            for (int p = 0; p < quantidadeProfissionais; p++) {
+                Profissional profissional = profissionais.profissional(p);
+                Integer minima = profissional.getCargaHorariaMensalMinima();
+                Integer maxima = profissional.getCargaHorariaMensalMaxima();
+                minMinutosMes[p] = minima != null && minima > 0 ? minima * 60L : 0;
+                maxMinutosMes[p] = maxima != null && maxima > 0 ? maxima * 60L : 0;
+            }
+            RegrasVinculadas vinculadas = regras.vincular(profissionais);
+            this.maxNoitesMes = vinculadas.inteiros(RegraMaxNoitesMes.CHAVE, 0);
+            this.minDescansoMinutos = vinculadas.minutos(RegraMinDescansoHoras.CHAVE);
+            this.maxPlantoesConsecutivos = vinculadas.inteiros(RegraMaxPlantoesConsecutivos.CHAVE, 0);
+
+            // As metas mensais são proporcionais aos dias do mês já cobertos pelo horizonte até o fim do bloco
+            int ultimo = turnos.tamanho() - 1;
+            this.primeiroMes = turnos.mes(0);
+            this.fatorMes = new double[turnos.mes(ultimo) - primeiroMes + 1];
+            LocalDate ultimoDia = LocalDate.ofEpochDay(turnos.dia(ultimo));
+            for (int k = 0; k < fatorMes.length; k++) {
+                int mes = primeiroMes + k;
+                LocalDate primeiroDiaMes = LocalDate.of(mes / 12, mes % 12 + 1, 1);
+                LocalDate ultimoDiaMes = primeiroDiaMes.withDayOfMonth(primeiroDiaMes.lengthOfMonth());
+                LocalDate de = primeiroDiaMes.isBefore(inicioHorizonte) ? inicioHorizonte : primeiroDiaMes;
+                LocalDate ate = ultimoDiaMes.isAfter(ultimoDia) ? ultimoDia : ultimoDiaMes;
+                long dias = ate.toEpochDay() - de.toEpochDay() + 1;
+                fatorMes[k] = dias <= 0 ? 0 : (double) dias / primeiroDiaMes.lengthOfMonth();
+            }
+        }
+
+        // Custo de um profissional com a lista de turnos (índices crescentes = ordem cronológica)
+        double custo(int p, int[] slots, int n, long[] minutosPorMes, int[] noitesPorMes) {
+            int violacoes = 0;
+            int noitesBloco = 0;
+            int maxNoitesMes = this.maxNoitesMes[p];
+            long minDescansoMinutos = this.minDescansoMinutos[p];
+            int maxPlantoesConsecutivos = this.maxPlantoesConsecutivos[p];
+            long saidaAnterior = contexto.ultimaSaida(p);
+            long diaAnterior = contexto.ultimoDia(p);
+            int sequencia = contexto.consecutivos(p);
+            for (int k = 0; k < fatorMes.length; k++) {
+                minutosPorMes[k] = contexto.minutosNoMes(p, primeiroMes + k);
+                noitesPorMes[k] = 0;
+            }
+
+            for (int i = 0; i < n; i++) {
+                int s = slots[i];
+                long inicio = turnos.inicio(s);
+                long fim = turnos.fim(s);
+                long dia = turnos.dia(s);
+                int k = turnos.mes(s) - primeiroMes;
+
+                if (minDescansoMinutos > 0 && saidaAnterior != EstadoAlocacao.SEM_REGISTRO
+                        && inicio < saidaAnterior + minDescansoMinutos) {
+                    violacoes++;
+                }
+                saidaAnterior = saidaAnterior == EstadoAlocacao.SEM_REGISTRO ? fim : Math.max(saidaAnterior, fim);
+
+                if (diaAnterior == EstadoAlocacao.SEM_REGISTRO) {
+                    sequencia = 1;
+                } else if (dia - diaAnterior == 1) {
+                    sequencia++;
+                    if (maxPlantoesConsecutivos > 0 && sequencia > maxPlantoesConsecutivos) {
+                        violacoes++;
+                    }
+                } else if (dia - diaAnterior > 1) {
+                    sequencia = 1;
+                }
+                diaAnterior = diaAnterior == EstadoAlocacao.SEM_REGISTRO ? dia : Math.max(diaAnterior, dia);
+
+                minutosPorMes[k] += fim - inicio;
+                if (turnos.noite(s)) {
+                    noitesPorMes[k]++;
+                    noitesBloco++;
+                }
+            }
+
+            double horasForaCarga = 0;
+            for (int k = 0; k < fatorMes.length; k++) {
+                if (maxNoitesMes > 0) {
+                    int anteriores = contexto.noitesNoMes(p, primeiroMes + k);
+                    violacoes += Math.max(0, anteriores + noitesPorMes[k] - maxNoitesMes)
+                            - Math.max(0, anteriores - maxNoitesMes);
+                }
+                double minimo = minMinutosMes[p] * fatorMes[k];
+                double maximo = maxMinutosMes[p] * fatorMes[k];
+                if (minimo > 0 && minutosPorMes[k] < minimo) {
+                    horasForaCarga += (minimo - minutosPorMes[k]) / 60.0;
+                }
+                if (maximo > 0 && minutosPorMes[k] > maximo) {
+                    horasForaCarga += (minutosPorMes[k] - maximo) / 60.0;
+                }
+            }
+
+            long noites = contexto.carga().noites(p) + noitesBloco;
+            long plantoes = contexto.carga().plantoes(p) + n;
+            return PESO_VIOLACAO * violacoes
+                    + PESO_HORA_FORA_CARGA * horasForaCarga
+                    + PESO_NOITES * noites * noites
+                    + PESO_PLANTOES * plantoes * plantoes;
+        }
+
+        // O turno s cabe na agenda do profissional (ignorando o turno que ele cederia numa troca)?
+        boolean cabe(int p, int s, int[] slots, int n, int ignorar) {
+            if (!turnos.disponivel(s, p)) {
+                return false;
+            }
+            long inicio = turnos.inicio(s);
+            long fim = turnos.fim(s);
+            if (contexto.ocupacao().conflita(p, inicio, fim)) {
+                return false;
+            }
+            int pos = posicao(slots, n, s);
+            int anterior = pos - 1;
+            if (anterior >= 0 && slots[anterior] == ignorar) {
+                anterior--;
+            }
+            if (anterior >= 0 && turnos.fim(slots[anterior]) > inicio) {
+                return false;
+            }
+            int seguinte = pos;
+            if (seguinte < n && slots[seguinte] == ignorar) {
+                seguinte++;
+            }
+            return seguinte >= n || turnos.inicio(slots[seguinte]) >= fim;
+        }
+    }
+
+    // Uma cadeia de simulated annealing com estado próprio; nada é compartilhado entre cadeias
+    private static final class Cadeia {
+
+        final Avaliacao avaliacao;
+        final SplittableRandom aleatorio;
+        final int[] alocado;
+        final int[][] slots;
+        final int[] quantidades;
+        final double[] custos;
+        final int[] bufferA;
+        final int[] bufferB;
+        final long[] minutosPorMes;
+        final int[] noitesPorMes;
+        double pontuacao;
+        int[] melhorAlocado;
+        double melhorPontuacao;
+
+        Cadeia(Avaliacao avaliacao, long semente) {
+            this.avaliacao = avaliacao;
+            this.aleatorio = new SplittableRandom(semente);
+            TurnosCompactos turnos = avaliacao.turnos;
+            int quantidadeProfissionais = avaliacao.quantidadeProfissionais;
+            int n = turnos.tamanho();
+            this.alocado = new int[n];
+            this.quantidades = new int[quantidadeProfissionais];
+            this.slots = new int[quantidadeProfissionais][];
+            this.custos = new double[quantidadeProfissionais];
+            this.bufferA = new int[n];
+            this.bufferB = new int[n];
+            this.minutosPorMes = new long[avaliacao.fatorMes.length];
+            this.noitesPorMes = new int[avaliacao.fatorMes.length];
+
+            for (int s = 0; s < n; s++) {
+                alocado[s] = turnos.alocado(s);
+                if (alocado[s] != TurnosCompactos.NAO_ALOCADO) {
+                    quantidades[alocado[s]]++;
+                }
+            }
+            for (int p = 0; p < quantidadeProfissionais; p++) {
+                slots[p] = new int[Math.max(4, quantidades[p] * 2)];
+                quantidades[p] = 0;
+            }
+            for (int s = 0; s < n; s++) {
+                int p = alocado[s];
+                if (p == TurnosCompactos.NAO_ALOCADO) {
+                    pontuacao += PESO_NAO_ALOCADO;
+                } else {
+                    slots[p][quantidades[p]++] = s;
+                }
+            }
+            for (int p = 0; p < quantidadeProfissionais; p++) {
+                custos[p] = avaliacao.custo(p, slots[p], quantidades[p], minutosPorMes, noitesPorMes);
+                pontuacao += custos[p];
+            }
+            this.melhorAlocado = alocado.clone();
+            this.melhorPontuacao = pontuacao;
+        }
+
+        Cadeia executar(long inicioNanos, long prazoNanos) {
+            int n = alocado.length;
+            int quantidadeProfissionais = avaliacao.quantidadeProfissionais;
+            double duracao = Math.max(1, prazoNanos - inicioNanos);
+            double temperatura = TEMPERATURA_INICIAL;
+            int iteracao = 0;
+
+            while (true) {
+                if (++iteracao % ITERACOES_ENTRE_CONSULTAS_RELOGIO == 0) {
+                    long agora = System.nanoTime();
+                    if (agora >= prazoNanos) {
+                        break;
+                    }
+                    double progresso = (agora - inicioNanos) / duracao;
+                    temperatura = TEMPERATURA_INICIAL * Math.pow(TEMPERATURA_FINAL / TEMPERATURA_INICIAL, progresso);
+                }
+
+                int s1 = aleatorio.nextInt(n);
+                if (aleatorio.nextBoolean()) {
+                    mover(s1, aleatorio.nextInt(quantidadeProfissionais), temperatura);
+                } else {
+                    trocar(s1, aleatorio.nextInt(n), temperatura);
+                }
+            }
+            return this;
+        }
+
+        private void mover(int s, int destino, double temperatura) {
+            int origem = alocado[s];
+            if (destino == origem
+                    || !avaliacao.cabe(destino, s, slots[destino], quantidades[destino], TurnosCompactos.NAO_ALOCADO)) {
+                return;
+            }
+            int nDestino = montar(destino, TurnosCompactos.NAO_ALOCADO, s, bufferB);
+            double custoDestino = avaliacao.custo(destino, bufferB, nDestino, minutosPorMes, noitesPorMes);
+            double delta = custoDestino - custos[destino];
+            int nOrigem = 0;
+            double custoOrigem = 0;
+            if (origem == TurnosCompactos.NAO_ALOCADO) {
+                delta -= PESO_NAO_ALOCADO;
+            } else {
+                nOrigem = montar(origem, s, TurnosCompactos.NAO_ALOCADO, bufferA);
+                custoOrigem = avaliacao.custo(origem, bufferA, nOrigem, minutosPorMes, noitesPorMes);
+                delta += custoOrigem - custos[origem];
+            }
+            if (!aceitar(delta, temperatura)) {
+                return;
+            }
+            if (origem != TurnosCompactos.NAO_ALOCADO) {
+                gravar(origem, bufferA, nOrigem, custoOrigem);
+            }
+            gravar(destino, bufferB, nDestino, custoDestino);
+            alocado[s] = destino;
+            registrarPontuacao(delta);
+        }
+
+        private void trocar(int s1, int s2, double temperatura) {
+            int p1 = alocado[s1];
+            int p2 = alocado[s2];
+            if (p1 == p2 || p1 == TurnosCompactos.NAO_ALOCADO || p2 == TurnosCompactos.NAO_ALOCADO
+                    || !avaliacao.cabe(p2, s1, slots[p2], quantidades[p2], s2)
+                    || !avaliacao.cabe(p1, s2, slots[p1], quantidades[p1], s1)) {
+                return;
+            }
+            int n1 = montar(p1, s1, s2, bufferA);
+            int n2 = montar(p2, s2, s1, bufferB);
+            double custo1 = avaliacao.custo(p1, bufferA, n1, minutosPorMes, noitesPorMes);
+            double custo2 = avaliacao.custo(p2, bufferB, n2, minutosPorMes, noitesPorMes);
+            double delta = custo1 - custos[p1] + custo2 - custos[p2];
+            if (!aceitar(delta, temperatura)) {
+                return;
+            }
+            gravar(p1, bufferA, n1, custo1);
+            gravar(p2, bufferB, n2, custo2);
+            alocado[s1] = p2;
+            alocado[s2] = p1;
+            registrarPontuacao(delta);
+        }
+
+        private boolean aceitar(double delta, double temperatura) {
+            return delta <= 0 || aleatorio.nextDouble() < Math.exp(-delta / temperatura);
+        }
+
+        private void registrarPontuacao(double delta) {
+            pontuacao += delta;
+            if (pontuacao < melhorPontuacao - 1e-9) {
+                melhorPontuacao = pontuacao;
+                System.arraycopy(alocado, 0, melhorAlocado, 0, alocado.length);
+            }
+        }
+
+        // Lista do profissional sem o turno remover e com o turno adicionar, mantendo a ordem
+        private int montar(int p, int remover, int adicionar, int[] destino) {
+            int[] lista = slots[p];
+            int n = quantidades[p];
+            int tamanho = 0;
+            boolean adicionado = adicionar == TurnosCompactos.NAO_ALOCADO;
+            for (int i = 0; i < n; i++) {
+                int s = lista[i];
+                if (!adicionado && adicionar < s) {
+                    destino[tamanho++] = adicionar;
+                    adicionado = true;
+                }
+                if (s != remover) {
+                    destino[tamanho++] = s;
+                }
+            }
+            if (!adicionado) {
+                destino[tamanho++] = adicionar;
+            }
+            return tamanho;
+        }
+
+        private void gravar(int p, int[] origem, int n, double custo) {
+            if (slots[p].length < n) {
+                slots[p] = new int[n * 2];
+            }
+            System.arraycopy(origem, 0, slots[p], 0, n);
+            quantidades[p] = n;
+            custos[p] = custo;
+        }
+    }
+
+    // Posição de inserção de s na lista ordenada
+    private static int posicao(int[] slots, int n, int s) {
+        int baixo = 0;
+        int alto = n;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (slots[meio] < s) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.bigplant.escala.geracao;
+
+import java.util.Collections;
+import java.util.Set;
+
+// Subproblema da geração: conjunto de chaves de turno (especialidades) e os profissionais que as atendem.
+// Cada partição tem seu próprio índice denso e estado de regras. As exclusivas não dividem profissionais
+// entre si e são alocadas em paralelo sem sincronização; a compartilhada (turnos sem especialidade) inclui
+// todos os profissionais, roda depois delas e troca alocações com elas, para que o estado de cada
+// profissional seja o mesmo em todas as partições de que ele participa.
+public class ParticaoEscala {
+
+    private final Set<Long> chaves;
+    private final IndiceProfissionais profissionais;
+    private final EstadoAlocacao estado;
+    private final boolean compartilhada;
+
+    public ParticaoEscala(Set<Long> chaves, IndiceProfissionais profissionais, boolean compartilhada) {
+        this.chaves = Collections.unmodifiableSet(chaves);
+        this.profissionais = profissionais;
+        this.estado = new EstadoAlocacao(profissionais.tamanho());
+        this.compartilhada = compartilhada;
+    }
+
+    public Set<Long> getChaves() {
+        return chaves;
+    }
+
+    public IndiceProfissionais profissionais() {
+        return profissionais;
+    }
+
+    public EstadoAlocacao estado() {
+        return estado;
+    }
+
+    public boolean compartilhada() {
+        return compartilhada;
+    }
+
+    // Registra no estado desta partição os turnos alocados em outra, para os profissionais que estão nas duas
+    public void registrarAlocacoes(IndiceProfissionais origem, TurnosCompactos turnos) {
+        for (int s = 0; s < turnos.tamanho(); s++) {
+            if (turnos.alocado(s) != TurnosCompactos.NAO_ALOCADO) {
+                int idx = profissionais.indice(origem.id(turnos.alocado(s)));
+                if (idx >= 0) {
+                    estado.registrar(idx, turnos, s);
+                }
+            }
+        }
+    }
+}
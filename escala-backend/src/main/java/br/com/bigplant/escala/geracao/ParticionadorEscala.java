@@ -0,0 +1,53 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.model.Profissional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Divide a geração em partições, uma por chave de turno (especialidade). Cada profissional tem uma única
+// especialidade, então as partições de especialidade não dividem profissionais e podem ser alocadas em
+// paralelo. Turnos sem especialidade (chave nula) podem ser atendidos por qualquer profissional: ficam numa
+// partição compartilhada, com todos, alocada depois das outras e sincronizada com elas (ver ParticaoEscala).
+public final class ParticionadorEscala {
+
+    private ParticionadorEscala() {
+    }
+
+    // Partições de especialidade primeiro, na ordem das chaves; a compartilhada, se houver, por último
+    public static List<ParticaoEscala> particionar(
+            List<Profissional> profissionais,
+            Collection<Long> chavesTurnos,
+            Function<Profissional, Long> chaveDoProfissional) {
+        Map<Long, List<Profissional>> membrosPorChave = new LinkedHashMap<>();
+        boolean temChaveNula = false;
+        for (Long chave : chavesTurnos) {
+            if (chave == null) {
+                temChaveNula = true;
+            } else {
+                membrosPorChave.putIfAbsent(chave, new ArrayList<>());
+            }
+        }
+        for (Profissional p : profissionais) {
+            List<Profissional> membros = membrosPorChave.get(chaveDoProfissional.apply(p));
+            if (membros != null) {
+                membros.add(p);
+            }
+        }
+
+        List<ParticaoEscala> particoes = new ArrayList<>();
+        for (Map.Entry<Long, List<Profissional>> entry : membrosPorChave.entrySet()) {
+            particoes.add(new ParticaoEscala(
+                    Collections.singleton(entry.getKey()), new IndiceProfissionais(entry.getValue()), false));
+        }
+        if (temChaveNula) {
+            particoes.add(new ParticaoEscala(
+                    Collections.singleton(null), new IndiceProfissionais(new ArrayList<>(profissionais)), true));
+        }
+        return particoes;
+    }
+}
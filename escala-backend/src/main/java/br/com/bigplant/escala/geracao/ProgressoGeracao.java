@@ -0,0 +1,22 @@
+package br.com.bigplant.escala.geracao;
+
+// Acompanhamento de uma geração: tempo gasto por fase e blocos concluídos do horizonte.
+public interface ProgressoGeracao {
+
+    String FASE_CARREGAMENTO = "CARREGAMENTO";
+    String FASE_ALOCACAO = "ALOCACAO";
+    String FASE_OTIMIZACAO = "OTIMIZACAO";
+    String FASE_PERSISTENCIA = "PERSISTENCIA";
+
+    ProgressoGeracao NENHUM = new ProgressoGeracao() {
+    };
+
+    default void iniciarFase(String fase) {
+    }
+
+    default void registrarTempoFase(String fase, long nanos) {
+    }
+
+    default void blocoConcluido(int concluidos, int total) {
+    }
+}
@@ -0,0 +1,252 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.geracao.regras.RegrasVinculadas;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Rastro opcional da alocação gulosa: para cada turno (uma entrada por vaga), quantos candidatos restaram
+// após cada filtro (disponibilidade, conflito e cada regra soft do pipeline) e quem foi escolhido.
+// Buffer circular em arrays primitivos: gravar não cria objetos, e quando a capacidade acaba as entradas
+// mais antigas são sobrescritas. Os arrays começam pequenos e dobram conforme a geração grava, então a
+// memória acompanha o número de vagas da geração e não a capacidade pedida; ao final, compactar() corta
+// a sobra. Partições em paralelo gravam no mesmo buffer.
+public class RastroAlocacao {
+
+    public static final byte CRITERIO_REGRAS = 0;
+    public static final byte CRITERIO_SEM_CONFLITO = 1;
+    public static final byte CRITERIO_VAGO = 2;
+
+    // Colunas de regra por entrada; regras além disso entram só no total após as regras
+    private static final int MAX_REGRAS = 8;
+    // Bytes de uma entrada nos arrays: 5 long, 5 + MAX_REGRAS int, 1 boolean e 1 byte
+    public static final int BYTES_POR_ENTRADA = 5 * Long.BYTES + (5 + MAX_REGRAS) * Integer.BYTES + 2;
+    private static final int TAMANHO_INICIAL = 1024;
+    private static final long SEM_VALOR = Long.MIN_VALUE;
+    private static final String[] NOMES_CRITERIO = {"REGRAS", "SEM_CONFLITO", "VAGO"};
+
+    private final int capacidade;
+    private long[] inicio;
+    private long[] fim;
+    private long[] idLocal;
+    private long[] idEspecialidade;
+    private boolean[] noite;
+    private int[] vaga;
+    private int[] candidatos;
+    private int[] disponiveis;
+    private int[] semConflito;
+    // tamanho * MAX_REGRAS; -1 quando a regra não se aplica ao turno
+    private int[] aposRegra;
+    private int[] aposRegras;
+    private long[] escolhido;
+    private byte[] criterio;
+    // Coluna de cada chave de regra, na ordem em que apareceram
+    private final List<String> chavesRegras = new ArrayList<>();
+    private long gravadas;
+
+    public RastroAlocacao(int capacidade) {
+        this.capacidade = Math.max(1, capacidade);
+        int tamanho = Math.min(this.capacidade, TAMANHO_INICIAL);
+        this.inicio = new long[tamanho];
+        this.fim = new long[tamanho];
+        this.idLocal = new long[tamanho];
+        this.idEspecialidade = new long[tamanho];
+        this.noite = new boolean[tamanho];
+        this.vaga = new int[tamanho];
+        this.candidatos = new int[tamanho];
+        this.disponiveis = new int[tamanho];
+        this.semConflito = new int[tamanho];
+        this.aposRegra = new int[tamanho * MAX_REGRAS];
+        this.aposRegras = new int[tamanho];
+        this.escolhido = new long[tamanho];
+        this.criterio = new byte[tamanho];
+    }
+
+    // Gravador de uma partição: guarda os contadores do turno corrente e traduz índices para ids
+    public synchronized Gravador gravador(IndiceProfissionais profissionais, RegrasVinculadas regras) {
+        int[] colunas = new int[regras.quantidade()];
+        for (int i = 0; i < colunas.length; i++) {
+            int coluna = chavesRegras.indexOf(regras.chave(i));
+            if (coluna < 0 && chavesRegras.size() < MAX_REGRAS) {
+                chavesRegras.add(regras.chave(i));
+                coluna = chavesRegras.size() - 1;
+            }
+            colunas[i] = coluna;
+        }
+        return new Gravador(profissionais, colunas);
+    }
+
+    public synchronized long quantidadeGravada() {
+        return gravadas;
+    }
+
+    public synchronized boolean truncado() {
+        return gravadas > capacidade;
+    }
+
+    // Memória ocupada pelos arrays
+    public synchronized long bytes() {
+        return (long) inicio.length * BYTES_POR_ENTRADA;
+    }
+
+    // Fim da geração: se o buffer não deu a volta, os arrays ficam do tamanho do que foi gravado
+    public synchronized void compactar() {
+        if (gravadas < inicio.length) {
+            redimensionar((int) Math.max(1, gravadas));
+        }
+    }
+
+    // CSV das entradas em ordem de gravação (as mais antigas primeiro, se o buffer deu a volta)
+    public synchronized void escreverCsv(Writer destino) {
+        try {
+            destino.write("inicio,fim,tipo,id_local_atendimento,id_especialidade,vaga,"
+                    + "candidatos,disponiveis,sem_conflito");
+            for (String chave : chavesRegras) {
+                destino.write(",apos_" + chave.toLowerCase());
+            }
+            destino.write(",apos_regras,id_profissional_escolhido,criterio\n");
+            long primeira = Math.max(0, gravadas - capacidade);
+            StringBuilder linha = new StringBuilder(160);
+            for (long g = primeira; g < gravadas; g++) {
+                int e = (int) (g % capacidade);
+                linha.setLength(0);
+                linha.append(dataHora(inicio[e])).append(',')
+                        .append(dataHora(fim[e])).append(',')
+                        .append(noite[e] ? "NOITE" : "DIA").append(',');
+                anexar(linha, idLocal[e]).append(',');
+                anexar(linha, idEspecialidade[e]).append(',');
+                linha.append(vaga[e]).append(',')
+                        .append(candidatos[e]).append(',')
+                        .append(disponiveis[e]).append(',')
+                        .append(semConflito[e]);
+                for (int c = 0; c < chavesRegras.size(); c++) {
+                    linha.append(',');
+                    int valor = aposRegra[e * MAX_REGRAS + c];
+                    if (valor >= 0) {
+                        linha.append(valor);
+                    }
+                }
+                linha.append(',').append(aposRegras[e]).append(',');
+                anexar(linha, escolhido[e]).append(',').append(NOMES_CRITERIO[criterio[e]]).append('\n');
+                destino.write(linha.toString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void gravar(
+            TurnosCompactos turnos, int s, int vagaTurno, int quantidadeCandidatos, int quantidadeDisponiveis,
+            int quantidadeSemConflito, int[] colunas, int[] restantes, int quantidadeAposRegras,
+            long idEscolhido, byte criterioEscolha) {
+        int e = (int) (gravadas % capacidade);
+        if (e >= inicio.length) {
+            redimensionar((int) Math.min(capacidade, 2L * inicio.length));
+        }
+        gravadas++;
+        inicio[e] = turnos.inicio(s);
+        fim[e] = turnos.fim(s);
+        noite[e] = turnos.noite(s);
+        Long local = turnos.turno(s).getIdLocalAtendimento();
+        idLocal[e] = local == null ? SEM_VALOR : local;
+        Long especialidade = turnos.turno(s).getIdEspecialidade();
+        idEspecialidade[e] = especialidade == null ? SEM_VALOR : especialidade;
+        vaga[e] = vagaTurno;
+        candidatos[e] = quantidadeCandidatos;
+        disponiveis[e] = quantidadeDisponiveis;
+        semConflito[e] = quantidadeSemConflito;
+        Arrays.fill(aposRegra, e * MAX_REGRAS, (e + 1) * MAX_REGRAS, -1);
+        for (int i = 0; i < colunas.length; i++) {
+            if (colunas[i] >= 0 && restantes[i] >= 0) {
+                aposRegra[e * MAX_REGRAS + colunas[i]] = restantes[i];
+            }
+        }
+        aposRegras[e] = quantidadeAposRegras;
+        escolhido[e] = idEscolhido;
+        criterio[e] = criterioEscolha;
+    }
+
+    private void redimensionar(int tamanho) {
+        inicio = Arrays.copyOf(inicio, tamanho);
+        fim = Arrays.copyOf(fim, tamanho);
+        idLocal = Arrays.copyOf(idLocal, tamanho);
+        idEspecialidade = Arrays.copyOf(idEspecialidade, tamanho);
+        noite = Arrays.copyOf(noite, tamanho);
+        vaga = Arrays.copyOf(vaga, tamanho);
+        candidatos = Arrays.copyOf(candidatos, tamanho);
+        disponiveis = Arrays.copyOf(disponiveis, tamanho);
+        semConflito = Arrays.copyOf(semConflito, tamanho);
+        aposRegra = Arrays.copyOf(aposRegra, tamanho * MAX_REGRAS);
+        aposRegras = Arrays.copyOf(aposRegras, tamanho);
+        escolhido = Arrays.copyOf(escolhido, tamanho);
+        criterio = Arrays.copyOf(criterio, tamanho);
+    }
+
+    private static StringBuilder anexar(StringBuilder linha, long valor) {
+        return valor == SEM_VALOR ? linha : linha.append(valor);
+    }
+
+    private static LocalDateTime dataHora(long minutos) {
+        return TempoCompacto.dataHora(minutos);
+    }
+
+    // Usado por uma única thread (a da partição); só a gravação final no buffer é sincronizada
+    public final class Gravador {
+
+        private final IndiceProfissionais profissionais;
+        private final int[] colunas;
+        private final int[] rejeitados;
+        private final int[] restantes;
+        private final boolean[] ativa;
+
+        private Gravador(IndiceProfissionais profissionais, int[] colunas) {
+            this.profissionais = profissionais;
+            this.colunas = colunas;
+            this.rejeitados = new int[colunas.length];
+            this.restantes = new int[colunas.length];
+            this.ativa = new boolean[colunas.length];
+        }
+
+        // Início de um turno: regra i do pipeline está ativa se aparece em indicesAtivas
+        public void iniciarTurno(int[] indicesAtivas, int quantidadeAtivas) {
+            Arrays.fill(rejeitados, 0);
+            Arrays.fill(ativa, false);
+            for (int i = 0; i < quantidadeAtivas; i++) {
+                ativa[indicesAtivas[i]] = true;
+            }
+        }
+
+        // Candidato sem conflito eliminado pela regra i do pipeline (a primeira que o rejeitou)
+        public void rejeitar(int indiceRegra) {
+            rejeitados[indiceRegra]++;
+        }
+
+        // Grava uma entrada por vaga do turno s: as escolhidas por regras, depois as sem conflito, depois as vagas
+        public void registrar(
+                TurnosCompactos turnos, int s, int disponiveisTurno, int semConflitoTurno, int aposRegrasTurno,
+                int[] escolhidos, int quantidadePorRegras, int quantidadeEscolhidos) {
+            int restante = semConflitoTurno;
+            for (int i = 0; i < colunas.length; i++) {
+                if (ativa[i]) {
+                    restante -= rejeitados[i];
+                    restantes[i] = restante;
+                } else {
+                    restantes[i] = -1;
+                }
+            }
+            int vagas = turnos.fimVagas(s) - s;
+            for (int v = 0; v < vagas; v++) {
+                long id = v < quantidadeEscolhidos ? profissionais.id(escolhidos[v]) : SEM_VALOR;
+                byte criterioVaga = v < quantidadePorRegras
+                        ? CRITERIO_REGRAS
+                        : v < quantidadeEscolhidos ? CRITERIO_SEM_CONFLITO : CRITERIO_VAGO;
+                gravar(turnos, s + v, v + 1, profissionais.tamanho(), disponiveisTurno, semConflitoTurno,
+                        colunas, restantes, aposRegrasTurno, id, criterioVaga);
+            }
+        }
+    }
+}
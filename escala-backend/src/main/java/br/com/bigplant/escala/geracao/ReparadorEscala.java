@@ -0,0 +1,143 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.geracao.regras.RegraMaxNoitesMes;
+import br.com.bigplant.escala.geracao.regras.RegraMaxPlantoesConsecutivos;
+import br.com.bigplant.escala.geracao.regras.RegraMinDescansoHoras;
+import br.com.bigplant.escala.geracao.regras.RegrasVinculadas;
+import br.com.bigplant.escala.model.Turno;
+import java.time.LocalDate;
+import java.util.function.IntPredicate;
+
+// Realocação pontual de turnos de uma escala já gravada, com as mesmas regras do AlocadorEscala.
+// Diferente da geração, os turnos mantidos ficam antes e depois dos realocados, então as regras
+// olham para os dois lados: descanso vira conflito com o intervalo estendido pelo descanso mínimo,
+// plantões consecutivos somam a sequência à esquerda e à direita do dia e as noites são contadas
+// por mês a partir de todos os turnos do contexto.
+public class ReparadorEscala {
+
+    private final int[] maxNoitesMes;
+    private final long[] minDescansoMinutos;
+    private final int[] maxPlantoesConsecutivos;
+    private final long primeiroDia;
+    private final int dias;
+    private final int primeiroMes;
+    private final int meses;
+    private final CargaProfissionais carga;
+    private final IndiceIntervalos ocupacao;
+    private final long[][] diasTrabalhados;
+    private final int[][] noitesPorMes;
+
+    // O contexto precisa cobrir os meses inteiros dos turnos a realocar e a sequência máxima de plantões
+    // antes e depois deles
+    public ReparadorEscala(RegrasVinculadas regras, LocalDate inicioContexto, LocalDate fimContexto) {
+        int quantidadeProfissionais = regras.quantidadeProfissionais();
+        this.maxNoitesMes = regras.inteiros(RegraMaxNoitesMes.CHAVE, 0);
+        this.minDescansoMinutos = regras.minutos(RegraMinDescansoHoras.CHAVE);
+        this.maxPlantoesConsecutivos = regras.inteiros(RegraMaxPlantoesConsecutivos.CHAVE, 0);
+        this.primeiroDia = inicioContexto.toEpochDay();
+        this.dias = (int) (fimContexto.toEpochDay() - primeiroDia) + 1;
+        this.primeiroMes = inicioContexto.getYear() * 12 + inicioContexto.getMonthValue() - 1;
+        this.meses = fimContexto.getYear() * 12 + fimContexto.getMonthValue() - primeiroMes;
+        this.carga = new CargaProfissionais(quantidadeProfissionais);
+        this.ocupacao = new IndiceIntervalos(quantidadeProfissionais);
+        this.diasTrabalhados = new long[quantidadeProfissionais][(dias + 63) >>> 6];
+        this.noitesPorMes = new int[quantidadeProfissionais][Math.max(1, meses)];
+    }
+
+    // Turno mantido na escala (ou de outra escala do hospital) que continua ocupando o profissional
+    public void registrar(int idx, Turno turno) {
+        LocalDate data = turno.getData();
+        registrar(idx, TempoCompacto.inicio(turno), TempoCompacto.fim(turno), data.toEpochDay(),
+                data.getYear() * 12 + data.getMonthValue() - 1, "NOITE".equalsIgnoreCase(turno.getTipo()));
+    }
+
+    // Aloca os turnos informados, em ordem cronológica, sobre o contexto já registrado
+    public void reparar(TurnosCompactos turnos) {
+        int quantidadeProfissionais = diasTrabalhados.length;
+        int[] marcaSemConflito = new int[quantidadeProfissionais];
+        int[] marcaRegras = new int[quantidadeProfissionais];
+        int[] carimbo = new int[1];
+        IntPredicate semConflito = idx -> marcaSemConflito[idx] == carimbo[0];
+        IntPredicate respeitaRegras = idx -> marcaRegras[idx] == carimbo[0];
+
+        for (int s = 0; s < turnos.tamanho(); s++) {
+            carimbo[0] = s + 1;
+            long inicio = turnos.inicio(s);
+            long fim = turnos.fim(s);
+            long dia = turnos.dia(s);
+            int mes = turnos.mes(s);
+            boolean noite = turnos.noite(s);
+
+            int totalSemConflito = 0;
+            int totalRegras = 0;
+            for (int p = 0; p < quantidadeProfissionais; p++) {
+                if (!turnos.disponivel(s, p) || ocupacao.conflita(p, inicio, fim)) {
+                    continue;
+                }
+                marcaSemConflito[p] = carimbo[0];
+                totalSemConflito++;
+
+                if (respeitaDescanso(p, inicio, fim)
+                        && respeitaMaxNoites(p, mes, noite)
+                        && respeitaMaxPlantoesConsecutivos(p, dia)) {
+                    marcaRegras[p] = carimbo[0];
+                    totalRegras++;
+                }
+            }
+
+            if (totalSemConflito == 0) {
+                turnos.alocar(s, TurnosCompactos.NAO_ALOCADO);
+                continue;
+            }
+            int escolhido = carga.menosCarregado(totalRegras > 0 ? respeitaRegras : semConflito);
+            turnos.alocar(s, escolhido);
+            registrar(escolhido, inicio, fim, dia, mes, noite);
+        }
+    }
+
+    private void registrar(int idx, long inicio, long fim, long dia, int mes, boolean noite) {
+        carga.registrar(idx, fim - inicio, noite);
+        ocupacao.adicionar(idx, inicio, fim);
+        int d = (int) (dia - primeiroDia);
+        if (d >= 0 && d < dias) {
+            diasTrabalhados[idx][d >>> 6] |= 1L << d;
+        }
+        int k = mes - primeiroMes;
+        if (noite && k >= 0 && k < meses) {
+            noitesPorMes[idx][k]++;
+        }
+    }
+
+    private boolean respeitaDescanso(int p, long inicio, long fim) {
+        long descanso = minDescansoMinutos[p];
+        return descanso <= 0 || !ocupacao.conflita(p, inicio - descanso, fim + descanso);
+    }
+
+    private boolean respeitaMaxNoites(int p, int mes, boolean noite) {
+        int k = mes - primeiroMes;
+        if (maxNoitesMes[p] <= 0 || !noite || k < 0 || k >= meses) {
+            return true;
+        }
+        return noitesPorMes[p][k] < maxNoitesMes[p];
+    }
+
+    private boolean respeitaMaxPlantoesConsecutivos(int p, long dia) {
+        int d = (int) (dia - primeiroDia);
+        int limite = maxPlantoesConsecutivos[p];
+        if (limite <= 0 || d < 0 || d >= dias || trabalhou(p, d)) {
+            return true;
+        }
+        int sequencia = 1;
+        for (int i = d - 1; i >= 0 && trabalhou(p, i) && sequencia <= limite; i--) {
+            sequencia++;
+        }
+        for (int i = d + 1; i < dias && trabalhou(p, i) && sequencia <= limite; i++) {
+            sequencia++;
+        }
+        return sequencia <= limite;
+    }
+
+    private boolean trabalhou(int p, int d) {
+        return (diasTrabalhados[p][d >>> 6] & (1L << d)) != 0;
+    }
+}
@@ -0,0 +1,424 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.geracao.regras.RegraMaxNoitesMes;
+import br.com.bigplant.escala.geracao.regras.RegraMaxPlantoesConsecutivos;
+import br.com.bigplant.escala.geracao.regras.RegraMinDescansoHoras;
+import br.com.bigplant.escala.geracao.regras.RegrasVinculadas;
+import java.util.Arrays;
+
+// Modo alternativo ao AlocadorEscala para quadros apertados: cada turno é uma variável cujo domínio é
+// um bitset (long[]) dos profissionais elegíveis. Disponibilidade e conflito com o contexto entram no
+// domínio inicial palavra a palavra; descanso mínimo, noites no mês e plantões consecutivos são
+// propagados como remoção de bits dos turnos seguintes a cada atribuição. A busca é em profundidade
+// na ordem cronológica (menos carregado primeiro, "deixar vago" por último), com poda pelo limite
+// superior de cobertura e limites de nós e de tempo; fica a melhor solução encontrada.
+// As regras da busca são as três embutidas; turnos que ela deixa vagos recebem, como no guloso,
+// o menos carregado sem conflito de horário.
+public class SolucionadorRestricoes {
+
+    public static final long LIMITE_NOS_PADRAO = 1_000_000;
+
+    private static final int NOS_ENTRE_CONSULTAS_RELOGIO = 1024;
+
+    private final int[] maxNoitesMes;
+    private final long[] minDescansoMinutos;
+    private final int[] maxPlantoesConsecutivos;
+    private final long limiteNos;
+    private final long tempoLimiteNanos;
+
+    public SolucionadorRestricoes(RegrasVinculadas regras, long limiteNos, long tempoLimiteNanos) {
+        this.maxNoitesMes = regras.inteiros(RegraMaxNoitesMes.CHAVE, 0);
+        this.minDescansoMinutos = regras.minutos(RegraMinDescansoHoras.CHAVE);
+        this.maxPlantoesConsecutivos = regras.inteiros(RegraMaxPlantoesConsecutivos.CHAVE, 0);
+        this.limiteNos = limiteNos;
+        this.tempoLimiteNanos = tempoLimiteNanos;
+    }
+
+    public void alocar(TurnosCompactos turnos, EstadoAlocacao estado) {
+        int n = turnos.tamanho();
+        if (n == 0 || estado.quantidadeProfissionais() == 0) {
+            return;
+        }
+        int[] melhor = new Busca(turnos, estado).executar(System.nanoTime() + tempoLimiteNanos);
+
+        // Reservas da solução da busca, para que o complemento não ocupe horários já atribuídos adiante
+        int quantidadeProfissionais = estado.quantidadeProfissionais();
+        IndiceIntervalos reservas = new IndiceIntervalos(quantidadeProfissionais);
+        for (int s = 0; s < n; s++) {
+            if (melhor[s] != TurnosCompactos.NAO_ALOCADO) {
+                reservas.adicionar(melhor[s], turnos.inicio(s), turnos.fim(s));
+            }
+        }
+        for (int s = 0; s < n; s++) {
+            int escolhido = melhor[s];
+            if (escolhido == TurnosCompactos.NAO_ALOCADO) {
+                int slot = s;
+                long inicio = turnos.inicio(s);
+                long fim = turnos.fim(s);
+                escolhido = estado.carga().menosCarregado(p -> turnos.disponivel(slot, p)
+                        && !estado.ocupacao().conflita(p, inicio, fim)
+                        && !reservas.conflita(p, inicio, fim));
+                if (escolhido < 0) {
+                    continue;
+                }
+            }
+            turnos.alocar(s, escolhido);
+            estado.registrar(escolhido, turnos, s);
+        }
+    }
+
+    // Modelo e estado da busca. Todo bit mutável (domínios e dias trabalhados) fica num único long[] e
+    // todo contador num único int[]; as alterações são empilhadas em trilhas e desfeitas no retrocesso.
+    private final class Busca {
+
+        final TurnosCompactos turnos;
+        final EstadoAlocacao estado;
+        final int n;
+        final int quantidadeProfissionais;
+        final int palavras;
+        final long primeiroDia;
+        final int primeiroMes;
+        final int quantidadeMeses;
+
+        // Turnos por dia e turnos noturnos por mês, em ordem cronológica (índices em slotsDia/noitesMes)
+        final int[] inicioDia;
+        final int[] slotsDia;
+        final int[] inicioMes;
+        final int[] noitesMes;
+
+        // bits[s * palavras ..] = domínio do turno s;
+        // bits[offsetTrabalhou + d * palavras ..] = quem trabalhou no dia d
+        final long[] bits;
+        final int offsetTrabalhou;
+        // contadores[p * quantidadeMeses + m] = noites no mês; contadores[offsetCarga + p] = plantões;
+        // contadores[indiceVazios] = turnos ainda não decididos com domínio vazio
+        final int[] contadores;
+        final int offsetCarga;
+        final int indiceVazios;
+
+        int[] trilhaBitsIndice = new int[256];
+        long[] trilhaBitsValor = new long[256];
+        int tamanhoTrilhaBits;
+        int[] trilhaContadorIndice = new int[256];
+        int[] trilhaContadorValor = new int[256];
+        int tamanhoTrilhaContador;
+
+        Busca(TurnosCompactos turnos, EstadoAlocacao estado) {
+            this.turnos = turnos;
+            this.estado = estado;
+            this.n = turnos.tamanho();
+            this.quantidadeProfissionais = estado.quantidadeProfissionais();
+            this.palavras = turnos.matrizDisponibilidade().palavras();
+
+            long menorDia = Long.MAX_VALUE;
+            long maiorDia = Long.MIN_VALUE;
+            int menorMes = Integer.MAX_VALUE;
+            int maiorMes = Integer.MIN_VALUE;
+            for (int s = 0; s < n; s++) {
+                menorDia = Math.min(menorDia, turnos.dia(s));
+                maiorDia = Math.max(maiorDia, turnos.dia(s));
+                menorMes = Math.min(menorMes, turnos.mes(s));
+                maiorMes = Math.max(maiorMes, turnos.mes(s));
+            }
+            this.primeiroDia = menorDia;
+            this.primeiroMes = menorMes;
+            this.quantidadeMeses = maiorMes - menorMes + 1;
+            int quantidadeDias = (int) (maiorDia - menorDia) + 1;
+
+            // Contagem por dia/mês e preenchimento estável, preservando a ordem cronológica
+            this.inicioDia = new int[quantidadeDias + 1];
+            this.inicioMes = new int[quantidadeMeses + 1];
+            for (int s = 0; s < n; s++) {
+                inicioDia[(int) (turnos.dia(s) - primeiroDia) + 1]++;
+                if (turnos.noite(s)) {
+                    inicioMes[turnos.mes(s) - primeiroMes + 1]++;
+                }
+            }
+            for (int d = 0; d < quantidadeDias; d++) {
+                inicioDia[d + 1] += inicioDia[d];
+            }
+            for (int m = 0; m < quantidadeMeses; m++) {
+                inicioMes[m + 1] += inicioMes[m];
+            }
+            this.slotsDia = new int[n];
+            this.noitesMes = new int[inicioMes[quantidadeMeses]];
+            int[] proximoDia = Arrays.copyOf(inicioDia, quantidadeDias);
+            int[] proximoMes = Arrays.copyOf(inicioMes, quantidadeMeses);
+            for (int s = 0; s < n; s++) {
+                slotsDia[proximoDia[(int) (turnos.dia(s) - primeiroDia)]++] = s;
+                if (turnos.noite(s)) {
+                    noitesMes[proximoMes[turnos.mes(s) - primeiroMes]++] = s;
+                }
+            }
+
+            this.offsetTrabalhou = n * palavras;
+            this.bits = new long[offsetTrabalhou + quantidadeDias * palavras];
+            this.offsetCarga = quantidadeProfissionais * quantidadeMeses;
+            this.indiceVazios = offsetCarga + quantidadeProfissionais;
+            this.contadores = new int[indiceVazios + 1];
+
+            for (int p = 0; p < quantidadeProfissionais; p++) {
+                contadores[offsetCarga + p] = estado.carga().plantoes(p);
+                for (int m = 0; m < quantidadeMeses; m++) {
+                    contadores[p * quantidadeMeses + m] = estado.noitesNoMes(p, primeiroMes + m);
+                }
+            }
+            for (int s = 0; s < n; s++) {
+                montarDominio(s);
+                if (dominioVazio(s)) {
+                    contadores[indiceVazios]++;
+                }
+            }
+        }
+
+        // Disponibilidade (palavra a palavra) menos quem conflita ou já viola uma regra pelo contexto
+        private void montarDominio(int s) {
+            int base = s * palavras;
+            turnos.copiarDisponiveis(s, bits, base, quantidadeProfissionais);
+            long inicio = turnos.inicio(s);
+            long fim = turnos.fim(s);
+            long dia = turnos.dia(s);
+            int m = turnos.mes(s) - primeiroMes;
+            for (int w = 0; w < palavras; w++) {
+                long palavra = bits[base + w];
+                while (palavra != 0) {
+                    long bit = palavra & -palavra;
+                    palavra ^= bit;
+                    int p = (w << 6) + Long.numberOfTrailingZeros(bit);
+                    if (p >= quantidadeProfissionais || !elegivelPeloContexto(p, inicio, fim, dia, m, turnos.noite(s))) {
+                        bits[base + w] &= ~bit;
+                    }
+                }
+            }
+        }
+
+        private boolean elegivelPeloContexto(int p, long inicio, long fim, long dia, int m, boolean noite) {
+            if (estado.ocupacao().conflita(p, inicio, fim)) {
+                return false;
+            }
+            long ultimaSaida = estado.ultimaSaida(p);
+            if (ultimaSaida != EstadoAlocacao.SEM_REGISTRO && inicio < ultimaSaida + minDescansoMinutos[p]) {
+                return false;
+            }
+            if (noite && maxNoitesMes[p] > 0 && contadores[p * quantidadeMeses + m] >= maxNoitesMes[p]) {
+                return false;
+            }
+            return maxPlantoesConsecutivos[p] <= 0
+                    || estado.ultimoDia(p) != dia - 1
+                    || estado.consecutivos(p) < maxPlantoesConsecutivos[p];
+        }
+
+        int[] executar(long prazoNanos) {
+            int[] escolha = new int[n];
+            int[] melhor = new int[n];
+            Arrays.fill(melhor, TurnosCompactos.NAO_ALOCADO);
+            int melhorCobertos = -1;
+
+            int[][] candidatos = new int[n][];
+            int[] quantidadeCandidatos = new int[n];
+            int[] proximo = new int[n];
+            int[] marcaBits = new int[n];
+            int[] marcaContadores = new int[n];
+            int[] cobertosAntes = new int[n];
+            long[] chaves = new long[quantidadeProfissionais];
+
+            int cobertos = 0;
+            long nos = 0;
+            int s = 0;
+            boolean entrando = true;
+            while (true) {
+                if (entrando) {
+                    nos++;
+                    if (nos > limiteNos
+                            || (nos % NOS_ENTRE_CONSULTAS_RELOGIO == 0 && System.nanoTime() >= prazoNanos)) {
+                        break;
+                    }
+                    if (s == n) {
+                        if (cobertos > melhorCobertos) {
+                            melhorCobertos = cobertos;
+                            System.arraycopy(escolha, 0, melhor, 0, n);
+                        }
+                        if (melhorCobertos == n) {
+                            break;
+                        }
+                        s = n - 1;
+                        entrando = false;
+                        continue;
+                    }
+                    // Limite superior: cobertos até aqui mais os turnos à frente com domínio não vazio
+                    if (cobertos + (n - s) - contadores[indiceVazios] <= melhorCobertos) {
+                        if (s == 0) {
+                            break;
+                        }
+                        s--;
+                        entrando = false;
+                        continue;
+                    }
+                    marcaBits[s] = tamanhoTrilhaBits;
+                    marcaContadores[s] = tamanhoTrilhaContador;
+                    cobertosAntes[s] = cobertos;
+                    quantidadeCandidatos[s] = ordenarCandidatos(s, chaves);
+                    if (candidatos[s] == null || candidatos[s].length < quantidadeCandidatos[s]) {
+                        candidatos[s] = new int[Math.max(quantidadeCandidatos[s], 4)];
+                    }
+                    for (int i = 0; i < quantidadeCandidatos[s]; i++) {
+                        candidatos[s][i] = (int) chaves[i];
+                    }
+                    proximo[s] = 0;
+                }
+
+                desfazer(marcaBits[s], marcaContadores[s]);
+                cobertos = cobertosAntes[s];
+                boolean vazio = quantidadeCandidatos[s] == 0;
+                if (proximo[s] < quantidadeCandidatos[s]) {
+                    int p = candidatos[s][proximo[s]++];
+                    escolha[s] = p;
+                    atribuir(s, p);
+                    cobertos++;
+                } else if (proximo[s] == quantidadeCandidatos[s]) {
+                    proximo[s]++;
+                    escolha[s] = TurnosCompactos.NAO_ALOCADO;
+                } else {
+                    if (s == 0) {
+                        break;
+                    }
+                    s--;
+                    entrando = false;
+                    continue;
+                }
+                if (vazio) {
+                    alterarContador(indiceVazios, contadores[indiceVazios] - 1);
+                }
+                s++;
+                entrando = true;
+            }
+            return melhor;
+        }
+
+        // Candidatos do turno ordenados por carga (e índice no empate), empacotados como carga << 32 | p
+        private int ordenarCandidatos(int s, long[] chaves) {
+            int quantidade = 0;
+            int base = s * palavras;
+            for (int w = 0; w < palavras; w++) {
+                long palavra = bits[base + w];
+                while (palavra != 0) {
+                    int p = (w << 6) + Long.numberOfTrailingZeros(palavra);
+                    palavra &= palavra - 1;
+                    chaves[quantidade++] = ((long) contadores[offsetCarga + p] << 32) | p;
+                }
+            }
+            Arrays.sort(chaves, 0, quantidade);
+            return quantidade;
+        }
+
+        private void atribuir(int s, int p) {
+            alterarContador(offsetCarga + p, contadores[offsetCarga + p] + 1);
+
+            // Conflito e descanso: sai dos turnos seguintes que começam antes do fim + descanso mínimo
+            long limite = turnos.fim(s) + minDescansoMinutos[p];
+            for (int t = s + 1; t < n && turnos.inicio(t) < limite; t++) {
+                remover(t, p);
+            }
+
+            if (turnos.noite(s)) {
+                int indice = p * quantidadeMeses + turnos.mes(s) - primeiroMes;
+                alterarContador(indice, contadores[indice] + 1);
+                if (maxNoitesMes[p] > 0 && contadores[indice] >= maxNoitesMes[p]) {
+                    int m = turnos.mes(s) - primeiroMes;
+                    for (int i = inicioMes[m]; i < inicioMes[m + 1]; i++) {
+                        if (noitesMes[i] > s) {
+                            remover(noitesMes[i], p);
+                        }
+                    }
+                }
+            }
+
+            int d = (int) (turnos.dia(s) - primeiroDia);
+            if (!trabalhou(d, p)) {
+                int indice = offsetTrabalhou + d * palavras + (p >>> 6);
+                alterarBits(indice, bits[indice] | (1L << p));
+                if (maxPlantoesConsecutivos[p] > 0
+                        && d + 1 < inicioDia.length - 1
+                        && sequenciaAte(d, p) >= maxPlantoesConsecutivos[p]) {
+                    for (int i = inicioDia[d + 1]; i < inicioDia[d + 2]; i++) {
+                        remover(slotsDia[i], p);
+                    }
+                }
+            }
+        }
+
+        // Dias seguidos trabalhados terminando em d, somando a sequência do contexto antes do bloco
+        private int sequenciaAte(int d, int p) {
+            int sequencia = 0;
+            int i = d;
+            while (i >= 0 && trabalhou(i, p)) {
+                sequencia++;
+                i--;
+            }
+            if (i < 0 && estado.ultimoDia(p) == primeiroDia - 1) {
+                sequencia += estado.consecutivos(p);
+            }
+            return sequencia;
+        }
+
+        private boolean trabalhou(int d, int p) {
+            return (bits[offsetTrabalhou + d * palavras + (p >>> 6)] & (1L << p)) != 0;
+        }
+
+        private void remover(int t, int p) {
+            int indice = t * palavras + (p >>> 6);
+            long valor = bits[indice];
+            long bit = 1L << p;
+            if ((valor & bit) == 0) {
+                return;
+            }
+            alterarBits(indice, valor & ~bit);
+            if (valor == bit && dominioVazio(t)) {
+                alterarContador(indiceVazios, contadores[indiceVazios] + 1);
+            }
+        }
+
+        private boolean dominioVazio(int s) {
+            int base = s * palavras;
+            for (int w = 0; w < palavras; w++) {
+                if (bits[base + w] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void alterarBits(int indice, long valor) {
+            if (tamanhoTrilhaBits == trilhaBitsIndice.length) {
+                trilhaBitsIndice = Arrays.copyOf(trilhaBitsIndice, tamanhoTrilhaBits * 2);
+                trilhaBitsValor = Arrays.copyOf(trilhaBitsValor, tamanhoTrilhaBits * 2);
+            }
+            trilhaBitsIndice[tamanhoTrilhaBits] = indice;
+            trilhaBitsValor[tamanhoTrilhaBits] = bits[indice];
+            tamanhoTrilhaBits++;
+            bits[indice] = valor;
+        }
+
+        private void alterarContador(int indice, int valor) {
+            if (tamanhoTrilhaContador == trilhaContadorIndice.length) {
+                trilhaContadorIndice = Arrays.copyOf(trilhaContadorIndice, tamanhoTrilhaContador * 2);
+                trilhaContadorValor = Arrays.copyOf(trilhaContadorValor, tamanhoTrilhaContador * 2);
+            }
+            trilhaContadorIndice[tamanhoTrilhaContador] = indice;
+            trilhaContadorValor[tamanhoTrilhaContador] = contadores[indice];
+            tamanhoTrilhaContador++;
+            contadores[indice] = valor;
+        }
+
+        private void desfazer(int marcaBits, int marcaContadores) {
+            while (tamanhoTrilhaBits > marcaBits) {
+                tamanhoTrilhaBits--;
+                bits[trilhaBitsIndice[tamanhoTrilhaBits]] = trilhaBitsValor[tamanhoTrilhaBits];
+            }
+            while (tamanhoTrilhaContador > marcaContadores) {
+                tamanhoTrilhaContador--;
+                contadores[trilhaContadorIndice[tamanhoTrilhaContador]] = trilhaContadorValor[tamanhoTrilhaContador];
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.model.Turno;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Conversões de turnos para minutos desde a época (1970-01-01), sem criar objetos intermediários.
+public final class TempoCompacto {
+
+    public static final int MINUTOS_POR_DIA = 24 * 60;
+
+    private TempoCompacto() {
+    }
+
+    public static long minutos(LocalDate data, LocalTime hora) {
+        return data.toEpochDay() * MINUTOS_POR_DIA + hora.getHour() * 60 + hora.getMinute();
+    }
+
+    public static long minutos(LocalDateTime dataHora) {
+        return minutos(dataHora.toLocalDate(), dataHora.toLocalTime());
+    }
+
+    public static LocalDateTime dataHora(long minutos) {
+        return LocalDateTime.of(LocalDate.ofEpochDay(Math.floorDiv(minutos, MINUTOS_POR_DIA)), LocalTime.MIDNIGHT)
+                .plusMinutes(Math.floorMod(minutos, MINUTOS_POR_DIA));
+    }
+
+    // Mês no formato ano * 12 + mês - 1, o mesmo dos contadores mensais do estado de alocação
+    public static int mes(LocalDate data) {
+        return data.getYear() * 12 + data.getMonthValue() - 1;
+    }
+
+    public static long inicio(Turno turno) {
+        return minutos(turno.getData(), turno.getHoraInicio());
+    }
+
+    // Turnos cujo fim não é posterior ao início (ex.: 19h às 7h, ou 7h às 7h em plantões de 24h)
+    // terminam no dia seguinte, mesma convenção usada no cálculo de horas dos relatórios
+    public static long fim(Turno turno) {
+        return fim(turno.getData(), turno.getHoraInicio(), turno.getHoraFim());
+    }
+
+    public static long fim(LocalDate data, LocalTime horaInicio, LocalTime horaFim) {
+        long fim = minutos(data, horaFim);
+        if (!horaFim.isAfter(horaInicio)) {
+            fim += MINUTOS_POR_DIA;
+        }
+        return fim;
+    }
+}
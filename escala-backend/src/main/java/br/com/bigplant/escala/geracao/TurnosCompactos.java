@@ -0,0 +1,126 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.model.Turno;
+import java.util.List;
+
+// Representação compacta dos turnos a alocar: início/fim em minutos desde a época, dia (epoch day),
+// indicador de noite e célula de disponibilidade já resolvida. As entidades Turno só são tocadas
+// novamente em aplicar(), no momento de persistir.
+// Um turno que exige vários profissionais chega como posições consecutivas com a mesma chave de vaga
+// (atribuída pelo expansor de modelos), uma por vaga; fimVagas() agrupa essas posições para que a
+// alocação preencha todas as vagas do turno de uma vez. Turnos sem chave têm uma única vaga, mesmo que
+// outro turno tenha o mesmo horário, local e especialidade.
+public class TurnosCompactos {
+
+    public static final int NAO_ALOCADO = -1;
+
+    private final Turno[] turnos;
+    private final MatrizDisponibilidade matrizDisponibilidade;
+    private final long[] inicio;
+    private final long[] fim;
+    private final long[] dia;
+    private final int[] mes;
+    private final boolean[] noite;
+    private final int[] celula;
+    private final int[] alocado;
+    private final int[] fimVagas;
+
+    // Espera os turnos em ordem cronológica
+    public TurnosCompactos(List<Turno> turnos, MatrizDisponibilidade matrizDisponibilidade) {
+        int n = turnos.size();
+        this.turnos = turnos.toArray(new Turno[0]);
+        this.matrizDisponibilidade = matrizDisponibilidade;
+        this.inicio = new long[n];
+        this.fim = new long[n];
+        this.dia = new long[n];
+        this.mes = new int[n];
+        this.noite = new boolean[n];
+        this.celula = new int[n];
+        this.alocado = new int[n];
+        this.fimVagas = new int[n];
+        for (int i = 0; i < n; i++) {
+            Turno turno = this.turnos[i];
+            inicio[i] = TempoCompacto.inicio(turno);
+            fim[i] = TempoCompacto.fim(turno);
+            dia[i] = turno.getData().toEpochDay();
+            mes[i] = TempoCompacto.mes(turno.getData());
+            noite[i] = "NOITE".equalsIgnoreCase(turno.getTipo());
+            celula[i] = matrizDisponibilidade.celula(turno.getData(), turno.getTipo());
+            alocado[i] = NAO_ALOCADO;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            fimVagas[i] = i + 1 < n && mesmaVaga(i, i + 1) ? fimVagas[i + 1] : i + 1;
+        }
+    }
+
+    public int tamanho() {
+        return turnos.length;
+    }
+
+    public long inicio(int s) {
+        return inicio[s];
+    }
+
+    public long fim(int s) {
+        return fim[s];
+    }
+
+    public long dia(int s) {
+        return dia[s];
+    }
+
+    // Mês do turno como ano * 12 + (mês - 1), para regras mensais
+    public int mes(int s) {
+        return mes[s];
+    }
+
+    // Posição seguinte à última vaga do turno de s (s + 1 quando o turno exige um único profissional)
+    public int fimVagas(int s) {
+        return fimVagas[s];
+    }
+
+    public boolean noite(int s) {
+        return noite[s];
+    }
+
+    public int celula(int s) {
+        return celula[s];
+    }
+
+    public boolean disponivel(int s, int idxProfissional) {
+        return matrizDisponibilidade.disponivel(celula[s], idxProfissional);
+    }
+
+    // Profissionais disponíveis para o turno como bitset (matrizDisponibilidade().palavras() palavras)
+    public void copiarDisponiveis(int s, long[] destino, int offset, int quantidadeProfissionais) {
+        matrizDisponibilidade.copiarDisponiveis(celula[s], destino, offset, quantidadeProfissionais);
+    }
+
+    public MatrizDisponibilidade matrizDisponibilidade() {
+        return matrizDisponibilidade;
+    }
+
+    public int alocado(int s) {
+        return alocado[s];
+    }
+
+    public void alocar(int s, int idxProfissional) {
+        alocado[s] = idxProfissional;
+    }
+
+    public Turno turno(int s) {
+        return turnos[s];
+    }
+
+    private boolean mesmaVaga(int a, int b) {
+        Long chave = turnos[a].getChaveVaga();
+        return chave != null && chave.equals(turnos[b].getChaveVaga());
+    }
+
+    // Converte as alocações de volta para as entidades
+    public void aplicar(IndiceProfissionais profissionais) {
+        for (int s = 0; s < turnos.length; s++) {
+            turnos[s].setIdProfissional(alocado[s] == NAO_ALOCADO ? null : profissionais.id(alocado[s]));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.model.RegraEscalaParametro;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+// Compila os parâmetros de uma configuração (ou os vigentes do hospital) num pipeline ordenado de
+// avaliadores. As definições são descobertas como beans, então registrar uma nova chave é só criar
+// um @Component que implemente DefinicaoRegra.
+@Component
+public class CompiladorRegras {
+
+    public static final String ESCOPO_PROFISSIONAL = "PROFISSIONAL";
+
+    private final Map<String, DefinicaoRegra> definicoes = new LinkedHashMap<>();
+
+    public CompiladorRegras(List<DefinicaoRegra> definicoes) {
+        List<DefinicaoRegra> ordenadas = new ArrayList<>(definicoes);
+        ordenadas.sort(Comparator.comparingInt(DefinicaoRegra::prioridade));
+        for (DefinicaoRegra definicao : ordenadas) {
+            DefinicaoRegra anterior = this.definicoes.putIfAbsent(RegrasCompiladas.normalizar(definicao.chave()), definicao);
+            if (anterior != null) {
+                throw new IllegalStateException("Regra registrada mais de uma vez: " + definicao.chave());
+            }
+        }
+    }
+
+    public Set<String> chavesRegistradas() {
+        return definicoes.keySet();
+    }
+
+    public RegrasCompiladas compilar(List<RegraEscalaParametro> parametros) {
+        return compilar(parametros, null);
+    }
+
+    // Sobrescritas por chave prevalecem sobre os valores padrão (variantes da simulação).
+    // Parâmetros com idProfissional viram valores individuais, que prevalecem sobre o padrão. Na mesma chave
+    // vale o primeiro parâmetro com valor efetivo, como na leitura anterior pelo primeiro inteiro positivo.
+    public RegrasCompiladas compilar(List<RegraEscalaParametro> parametros, Map<String, Integer> sobrescritas) {
+        Map<String, ValorRegra> valores = new LinkedHashMap<>();
+        Map<Long, Map<String, ValorRegra>> individuais = new HashMap<>();
+        for (RegraEscalaParametro parametro : parametros) {
+            if (parametro.getChave() == null || Boolean.FALSE.equals(parametro.getAtivo())) {
+                continue;
+            }
+            ValorRegra valor = ValorRegra.de(parametro);
+            if (!valor.efetivo()) {
+                continue;
+            }
+            String chave = RegrasCompiladas.normalizar(parametro.getChave());
+            if (parametro.getIdProfissional() != null) {
+                individuais.computeIfAbsent(parametro.getIdProfissional(), id -> new LinkedHashMap<>())
+                        .putIfAbsent(chave, valor);
+            } else if (!ESCOPO_PROFISSIONAL.equalsIgnoreCase(parametro.getEscopo())) {
+                valores.putIfAbsent(chave, valor);
+            }
+        }
+        return new RegrasCompiladas(List.copyOf(definicoes.values()), valores, individuais).sobrescrever(sobrescritas);
+    }
+}
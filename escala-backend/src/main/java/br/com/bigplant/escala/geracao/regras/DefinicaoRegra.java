@@ -0,0 +1,15 @@
+package br.com.bigplant.escala.geracao.regras;
+
+// Tipo de regra registrável: cada bean associa uma chave de RegraEscalaParametro a um avaliador.
+// Novas chaves entram no pipeline só por existir um bean, sem alterar o serviço de geração.
+public interface DefinicaoRegra {
+
+    String chave();
+
+    // Ordem no pipeline (menor primeiro): regras baratas e que eliminam mais candidatos vêm antes
+    int prioridade();
+
+    // Recebe os valores já resolvidos por profissional; retorna null quando nenhum profissional
+    // tem a regra ativa (por exemplo, limite zero para todos)
+    RegraAlocacao compilar(ValoresRegra valores);
+}
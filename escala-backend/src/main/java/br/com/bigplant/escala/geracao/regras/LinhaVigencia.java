@@ -0,0 +1,70 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.model.RegraEscalaParametro;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+// Linha do tempo das vigências de um hospital: os parâmetros ativos e os dias em que o conjunto vigente
+// muda (entrada em vigor e dia seguinte ao fim da vigência). Entre dois dias de mudança as regras são as
+// mesmas, então cada trecho, identificado pelo dia em que começa, serve a qualquer janela que o cruze.
+public class LinhaVigencia {
+
+    // Início do trecho anterior à primeira mudança (nenhum parâmetro em vigor)
+    public static final LocalDate ANTES_DE_TUDO = LocalDate.MIN;
+
+    // Para a mesma chave prevalece a vigência iniciada por último (e, no empate, o parâmetro mais novo)
+    private static final Comparator<RegraEscalaParametro> PRECEDENCIA = Comparator
+            .comparing(RegraEscalaParametro::getDataInicioVigencia, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(RegraEscalaParametro::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final List<RegraEscalaParametro> ordenados;
+    private final TreeSet<LocalDate> mudancas = new TreeSet<>();
+
+    public LinhaVigencia(List<RegraEscalaParametro> parametros) {
+        this.ordenados = new ArrayList<>(parametros);
+        this.ordenados.sort(PRECEDENCIA);
+        for (RegraEscalaParametro parametro : ordenados) {
+            if (parametro.getDataInicioVigencia() != null) {
+                mudancas.add(parametro.getDataInicioVigencia());
+            }
+            if (parametro.getDataFimVigencia() != null) {
+                mudancas.add(parametro.getDataFimVigencia().plusDays(1));
+            }
+        }
+    }
+
+    public LocalDate inicioTrecho(LocalDate dia) {
+        LocalDate mudanca = mudancas.floor(dia);
+        return mudanca == null ? ANTES_DE_TUDO : mudanca;
+    }
+
+    // Inícios dos trechos que cruzam a janela, em ordem; o primeiro é o do trecho que contém inicio
+    public List<LocalDate> iniciosTrechos(LocalDate inicio, LocalDate fim) {
+        List<LocalDate> inicios = new ArrayList<>();
+        inicios.add(inicioTrecho(inicio));
+        if (fim.isAfter(inicio)) {
+            inicios.addAll(mudancas.subSet(inicio, false, fim, true));
+        }
+        return inicios;
+    }
+
+    // Parâmetros em vigor no dia, na ordem de precedência
+    public List<RegraEscalaParametro> vigentesEm(LocalDate dia) {
+        List<RegraEscalaParametro> vigentes = new ArrayList<>();
+        for (RegraEscalaParametro parametro : ordenados) {
+            if (vigente(parametro, dia)) {
+                vigentes.add(parametro);
+            }
+        }
+        return vigentes;
+    }
+
+    static boolean vigente(RegraEscalaParametro parametro, LocalDate dia) {
+        return parametro.getDataInicioVigencia() != null
+                && !parametro.getDataInicioVigencia().isAfter(dia)
+                && (parametro.getDataFimVigencia() == null || !parametro.getDataFimVigencia().isBefore(dia));
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.geracao.EstadoAlocacao;
+import br.com.bigplant.escala.geracao.TurnosCompactos;
+
+// Avaliador compilado de uma regra soft: decide se o profissional p pode receber o turno s
+// sem violar a regra, olhando só para o estado primitivo da alocação.
+public interface RegraAlocacao {
+
+    // Avaliado uma vez por turno, antes do laço de candidatos; regras que não se aplicam ao turno
+    // (por exemplo, limite de noites num turno de dia) nem entram na avaliação dos candidatos
+    default boolean aplica(TurnosCompactos turnos, int s) {
+        return true;
+    }
+
+    boolean permite(EstadoAlocacao estado, TurnosCompactos turnos, int s, int p);
+}
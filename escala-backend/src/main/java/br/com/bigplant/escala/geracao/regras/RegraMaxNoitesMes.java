@@ -0,0 +1,42 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.geracao.EstadoAlocacao;
+import br.com.bigplant.escala.geracao.TurnosCompactos;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RegraMaxNoitesMes implements DefinicaoRegra {
+
+    public static final String CHAVE = "MAX_NOITES_MES";
+
+    @Override
+    public String chave() {
+        return CHAVE;
+    }
+
+    // Só se aplica a noites e custa uma leitura de array: roda primeiro
+    @Override
+    public int prioridade() {
+        return 10;
+    }
+
+    @Override
+    public RegraAlocacao compilar(ValoresRegra valores) {
+        int[] maxNoitesMes = valores.inteiros(0);
+        if (!ValoresRegra.algumPositivo(maxNoitesMes)) {
+            return null;
+        }
+        return new RegraAlocacao() {
+            @Override
+            public boolean aplica(TurnosCompactos turnos, int s) {
+                return turnos.noite(s);
+            }
+
+            @Override
+            public boolean permite(EstadoAlocacao estado, TurnosCompactos turnos, int s, int p) {
+                int limite = maxNoitesMes[p];
+                return limite <= 0 || estado.noitesNoMes(p, turnos.mes(s)) < limite;
+            }
+        };
+    }
+}
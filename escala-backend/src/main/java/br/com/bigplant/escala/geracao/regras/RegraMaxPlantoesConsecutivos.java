@@ -0,0 +1,36 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.geracao.EstadoAlocacao;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RegraMaxPlantoesConsecutivos implements DefinicaoRegra {
+
+    public static final String CHAVE = "MAX_PLANTOES_CONSECUTIVOS";
+
+    @Override
+    public String chave() {
+        return CHAVE;
+    }
+
+    @Override
+    public int prioridade() {
+        return 20;
+    }
+
+    @Override
+    public RegraAlocacao compilar(ValoresRegra valores) {
+        int[] maxPlantoesConsecutivos = valores.inteiros(0);
+        if (!ValoresRegra.algumPositivo(maxPlantoesConsecutivos)) {
+            return null;
+        }
+        return (estado, turnos, s, p) -> {
+            int limite = maxPlantoesConsecutivos[p];
+            long ultimoDia = estado.ultimoDia(p);
+            if (limite <= 0 || ultimoDia == EstadoAlocacao.SEM_REGISTRO || turnos.dia(s) - ultimoDia != 1) {
+                return true;
+            }
+            return estado.consecutivos(p) < limite;
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.geracao.EstadoAlocacao;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RegraMinDescansoHoras implements DefinicaoRegra {
+
+    public static final String CHAVE = "MIN_DESCANSO_HORAS";
+
+    @Override
+    public String chave() {
+        return CHAVE;
+    }
+
+    @Override
+    public int prioridade() {
+        return 30;
+    }
+
+    // Aceita horas fracionadas em valorDecimal (por exemplo, 11.5)
+    @Override
+    public RegraAlocacao compilar(ValoresRegra valores) {
+        long[] minDescansoMinutos = valores.minutos();
+        if (!ValoresRegra.algumPositivo(minDescansoMinutos)) {
+            return null;
+        }
+        return (estado, turnos, s, p) -> {
+            long ultimaSaida = estado.ultimaSaida(p);
+            return ultimaSaida == EstadoAlocacao.SEM_REGISTRO || turnos.inicio(s) >= ultimaSaida + minDescansoMinutos[p];
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.geracao.IndiceProfissionais;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Resultado da compilação de uma configuração de regras, independente dos profissionais da execução:
+// definições na ordem do pipeline, valores padrão por chave e sobrescritas individuais por profissional.
+// vincular() resolve tudo para o índice denso de uma execução.
+public class RegrasCompiladas {
+
+    private final List<DefinicaoRegra> definicoes;
+    private final Map<String, ValorRegra> valores;
+    private final Map<Long, Map<String, ValorRegra>> individuais;
+
+    RegrasCompiladas(
+            List<DefinicaoRegra> definicoes,
+            Map<String, ValorRegra> valores,
+            Map<Long, Map<String, ValorRegra>> individuais) {
+        this.definicoes = definicoes;
+        this.valores = Collections.unmodifiableMap(valores);
+        Map<Long, Map<String, ValorRegra>> copia = new LinkedHashMap<>();
+        individuais.forEach((id, doProfissional) -> copia.put(id, Collections.unmodifiableMap(doProfissional)));
+        this.individuais = Collections.unmodifiableMap(copia);
+    }
+
+    // Nova instância com os valores padrão sobrescritos por chave (variantes da simulação). A instância
+    // original não muda, então pode ser compartilhada pelo cache entre execuções concorrentes.
+    public RegrasCompiladas sobrescrever(Map<String, Integer> sobrescritas) {
+        if (sobrescritas == null || sobrescritas.isEmpty()) {
+            return this;
+        }
+        Map<String, ValorRegra> novosValores = new LinkedHashMap<>(valores);
+        sobrescritas.forEach((chave, valor) -> {
+            if (chave != null && valor != null) {
+                novosValores.put(normalizar(chave), ValorRegra.deInteiro(valor));
+            }
+        });
+        return new RegrasCompiladas(definicoes, novosValores, individuais);
+    }
+
+    // Valores padrão (hospital/configuração) por chave
+    public Map<String, ValorRegra> valores() {
+        return valores;
+    }
+
+    // Sobrescritas por id de profissional e chave
+    public Map<Long, Map<String, ValorRegra>> individuais() {
+        return individuais;
+    }
+
+    public int inteiro(String chave, int padrao) {
+        ValorRegra valor = valores.get(normalizar(chave));
+        return valor == null ? padrao : valor.inteiro(padrao);
+    }
+
+    public double decimal(String chave, double padrao) {
+        ValorRegra valor = valores.get(normalizar(chave));
+        return valor == null ? padrao : valor.decimal(padrao);
+    }
+
+    public RegrasVinculadas vincular(IndiceProfissionais profissionais) {
+        Map<String, ValoresRegra> porChave = new LinkedHashMap<>();
+        for (String chave : valores.keySet()) {
+            porChave.put(chave, new ValoresRegra(chave, valores.get(chave), individuais, profissionais));
+        }
+        for (Map<String, ValorRegra> doProfissional : individuais.values()) {
+            for (String chave : doProfissional.keySet()) {
+                porChave.computeIfAbsent(chave, c -> new ValoresRegra(c, null, individuais, profissionais));
+            }
+        }
+
+        List<RegraAlocacao> regras = new ArrayList<>();
+        List<String> chaves = new ArrayList<>();
+        for (DefinicaoRegra definicao : definicoes) {
+            ValoresRegra valoresDefinicao = porChave.get(normalizar(definicao.chave()));
+            if (valoresDefinicao == null) {
+                continue;
+            }
+            RegraAlocacao regra = definicao.compilar(valoresDefinicao);
+            if (regra != null) {
+                regras.add(regra);
+                chaves.add(normalizar(definicao.chave()));
+            }
+        }
+        return new RegrasVinculadas(
+                regras.toArray(new RegraAlocacao[0]), chaves.toArray(new String[0]), porChave, profissionais);
+    }
+
+    static String normalizar(String chave) {
+        return chave.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Regras compiladas de uma janela, uma por trecho de vigência: cada trecho começa num dia em que algum
+// parâmetro entra ou sai de vigor e vale até a véspera do próximo. A consulta de um dia é uma busca
+// binária sobre os inícios dos trechos.
+public class RegrasPorPeriodo {
+
+    private final long[] inicios;
+    private final RegrasCompiladas[] regras;
+    private final long fim;
+
+    RegrasPorPeriodo(long[] inicios, RegrasCompiladas[] regras, LocalDate fim) {
+        this.inicios = inicios;
+        this.regras = regras;
+        this.fim = fim.toEpochDay();
+    }
+
+    // Mesmas regras para toda a janela (configuração escolhida explicitamente, sem vigência)
+    public static RegrasPorPeriodo unica(RegrasCompiladas regras, LocalDate inicio, LocalDate fim) {
+        return new RegrasPorPeriodo(new long[] {inicio.toEpochDay()}, new RegrasCompiladas[] {regras}, fim);
+    }
+
+    // Regras em vigor no dia; dias fora da janela usam o trecho mais próximo
+    public RegrasCompiladas em(LocalDate data) {
+        return regras[trecho(data.toEpochDay())];
+    }
+
+    // Último dia, a partir da data, em que as regras continuam as mesmas
+    public LocalDate fimTrecho(LocalDate data) {
+        int t = trecho(data.toEpochDay());
+        long ultimo = t + 1 < inicios.length ? inicios[t + 1] - 1 : Math.max(fim, data.toEpochDay());
+        return LocalDate.ofEpochDay(ultimo);
+    }
+
+    public RegrasPorPeriodo sobrescrever(Map<String, Integer> sobrescritas) {
+        if (sobrescritas == null || sobrescritas.isEmpty()) {
+            return this;
+        }
+        RegrasCompiladas[] sobrescritasPorTrecho = new RegrasCompiladas[regras.length];
+        for (int t = 0; t < regras.length; t++) {
+            sobrescritasPorTrecho[t] = regras[t].sobrescrever(sobrescritas);
+        }
+        return new RegrasPorPeriodo(inicios, sobrescritasPorTrecho, LocalDate.ofEpochDay(fim));
+    }
+
+    private int trecho(long dia) {
+        int baixo = 0;
+        int alto = inicios.length - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto + 1) >>> 1;
+            if (inicios[meio] <= dia) {
+                baixo = meio;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return baixo;
+    }
+}
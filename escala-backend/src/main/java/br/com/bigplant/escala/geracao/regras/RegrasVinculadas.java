@@ -0,0 +1,69 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.geracao.IndiceProfissionais;
+import java.util.Arrays;
+import java.util.Map;
+
+// Regras compiladas ligadas ao índice denso de profissionais de uma execução: avaliadores com os
+// limites já resolvidos em arrays por profissional, de modo que cada verificação é uma leitura de array.
+public class RegrasVinculadas {
+
+    private final RegraAlocacao[] regras;
+    private final String[] chaves;
+    private final Map<String, ValoresRegra> valores;
+    private final int quantidadeProfissionais;
+
+    RegrasVinculadas(
+            RegraAlocacao[] regras,
+            String[] chaves,
+            Map<String, ValoresRegra> valores,
+            IndiceProfissionais profissionais) {
+        this.regras = regras;
+        this.chaves = chaves;
+        this.valores = valores;
+        this.quantidadeProfissionais = profissionais.tamanho();
+    }
+
+    public int quantidade() {
+        return regras.length;
+    }
+
+    public RegraAlocacao regra(int i) {
+        return regras[i];
+    }
+
+    // Chave (normalizada) da regra na posição i do pipeline
+    public String chave(int i) {
+        return chaves[i];
+    }
+
+    public int quantidadeProfissionais() {
+        return quantidadeProfissionais;
+    }
+
+    public int[] inteiros(String chave, int padrao) {
+        ValoresRegra valoresChave = valores.get(RegrasCompiladas.normalizar(chave));
+        if (valoresChave == null) {
+            int[] padroes = new int[quantidadeProfissionais];
+            Arrays.fill(padroes, padrao);
+            return padroes;
+        }
+        return valoresChave.inteiros(padrao);
+    }
+
+    public double[] decimais(String chave, double padrao) {
+        ValoresRegra valoresChave = valores.get(RegrasCompiladas.normalizar(chave));
+        if (valoresChave == null) {
+            double[] padroes = new double[quantidadeProfissionais];
+            Arrays.fill(padroes, padrao);
+            return padroes;
+        }
+        return valoresChave.decimais(padrao);
+    }
+
+    // Limites em minutos a partir de uma regra expressa em horas
+    public long[] minutos(String chaveHoras) {
+        ValoresRegra valoresChave = valores.get(RegrasCompiladas.normalizar(chaveHoras));
+        return valoresChave == null ? new long[quantidadeProfissionais] : valoresChave.minutos();
+    }
+}
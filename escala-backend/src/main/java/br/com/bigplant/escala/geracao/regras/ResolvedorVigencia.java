@@ -0,0 +1,36 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+// Resolve, dia a dia, quais parâmetros do hospital estão em vigor numa janela. Parte da linha de vigências
+// do hospital (uma única consulta) e usa uma compilação por trecho entre mudanças de vigência, em vez de
+// uma por dia; quem chama decide de onde vem a compilação de cada trecho (o cache, por exemplo).
+@Component
+public class ResolvedorVigencia {
+
+    private final CompiladorRegras compiladorRegras;
+
+    public ResolvedorVigencia(CompiladorRegras compiladorRegras) {
+        this.compiladorRegras = compiladorRegras;
+    }
+
+    public RegrasCompiladas compilarTrecho(LinhaVigencia linha, LocalDate inicioTrecho) {
+        return compiladorRegras.compilar(linha.vigentesEm(inicioTrecho));
+    }
+
+    public RegrasPorPeriodo resolver(
+            LinhaVigencia linha, LocalDate inicio, LocalDate fim, Function<LocalDate, RegrasCompiladas> trecho) {
+        List<LocalDate> inicios = linha.iniciosTrechos(inicio, fim);
+        long[] dias = new long[inicios.size()];
+        RegrasCompiladas[] regras = new RegrasCompiladas[inicios.size()];
+        for (int t = 0; t < inicios.size(); t++) {
+            // O primeiro trecho pode começar antes da janela; no período ele vale a partir de inicio
+            dias[t] = t == 0 ? inicio.toEpochDay() : inicios.get(t).toEpochDay();
+            regras[t] = trecho.apply(inicios.get(t));
+        }
+        return new RegrasPorPeriodo(dias, regras, fim);
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.model.RegraEscalaParametro;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Valor tipado de um parâmetro de regra, lido uma única vez na compilação
+public class ValorRegra {
+
+    private final Integer valorInteiro;
+    private final BigDecimal valorDecimal;
+    private final String valorTexto;
+    private final String unidade;
+    private final String escopo;
+
+    public ValorRegra(Integer valorInteiro, BigDecimal valorDecimal, String valorTexto, String unidade, String escopo) {
+        this.valorInteiro = valorInteiro;
+        this.valorDecimal = valorDecimal;
+        this.valorTexto = valorTexto;
+        this.unidade = unidade;
+        this.escopo = escopo;
+    }
+
+    public static ValorRegra de(RegraEscalaParametro parametro) {
+        return new ValorRegra(
+                parametro.getValorInteiro(),
+                parametro.getValorDecimal(),
+                parametro.getValorTexto(),
+                parametro.getUnidade(),
+                parametro.getEscopo());
+    }
+
+    public static ValorRegra deInteiro(int valor) {
+        return new ValorRegra(valor, null, null, null, null);
+    }
+
+    // Valor que conta na precedência entre parâmetros da mesma chave: número positivo (zero ou negativo
+    // desliga a regra, como a ausência, e não esconde um limite informado depois) ou, sem número, texto
+    public boolean efetivo() {
+        if (valorInteiro != null) {
+            return valorInteiro > 0;
+        }
+        if (valorDecimal != null) {
+            return valorDecimal.signum() > 0;
+        }
+        return valorTexto != null && !valorTexto.isBlank();
+    }
+
+    // Inteiro, ou o decimal arredondado quando só ele foi informado
+    public int inteiro(int padrao) {
+        if (valorInteiro != null) {
+            return valorInteiro;
+        }
+        return valorDecimal != null ? valorDecimal.setScale(0, RoundingMode.HALF_UP).intValue() : padrao;
+    }
+
+    // Decimal, ou o inteiro quando só ele foi informado
+    public double decimal(double padrao) {
+        if (valorDecimal != null) {
+            return valorDecimal.doubleValue();
+        }
+        return valorInteiro != null ? valorInteiro : padrao;
+    }
+
+    public String texto() {
+        return valorTexto;
+    }
+
+    public String unidade() {
+        return unidade;
+    }
+
+    public String escopo() {
+        return escopo;
+    }
+}
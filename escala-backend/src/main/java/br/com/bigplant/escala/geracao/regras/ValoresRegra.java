@@ -0,0 +1,79 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import br.com.bigplant.escala.geracao.IndiceProfissionais;
+import java.util.Map;
+
+// Valores de uma chave de regra resolvidos por profissional (índice denso): o valor individual
+// quando existe, senão o padrão do hospital/configuração. Resolvido uma vez por execução.
+public class ValoresRegra {
+
+    private final ValorRegra padrao;
+    private final ValorRegra[] porProfissional;
+
+    ValoresRegra(String chave, ValorRegra padrao, Map<Long, Map<String, ValorRegra>> individuais, IndiceProfissionais profissionais) {
+        this.padrao = padrao;
+        this.porProfissional = new ValorRegra[profissionais.tamanho()];
+        for (int p = 0; p < porProfissional.length; p++) {
+            Map<String, ValorRegra> doProfissional = individuais.get(profissionais.id(p));
+            ValorRegra individual = doProfissional == null ? null : doProfissional.get(chave);
+            porProfissional[p] = individual != null ? individual : padrao;
+        }
+    }
+
+    public ValorRegra padrao() {
+        return padrao;
+    }
+
+    // null quando nem o profissional nem o hospital definem a regra
+    public ValorRegra valor(int p) {
+        return porProfissional[p];
+    }
+
+    public int quantidadeProfissionais() {
+        return porProfissional.length;
+    }
+
+    public int[] inteiros(int valorPadrao) {
+        int[] valores = new int[porProfissional.length];
+        for (int p = 0; p < valores.length; p++) {
+            valores[p] = porProfissional[p] == null ? valorPadrao : porProfissional[p].inteiro(valorPadrao);
+        }
+        return valores;
+    }
+
+    public double[] decimais(double valorPadrao) {
+        double[] valores = new double[porProfissional.length];
+        for (int p = 0; p < valores.length; p++) {
+            valores[p] = porProfissional[p] == null ? valorPadrao : porProfissional[p].decimal(valorPadrao);
+        }
+        return valores;
+    }
+
+    // Valores em horas convertidos para minutos (aceita horas fracionadas)
+    public long[] minutos() {
+        double[] horas = decimais(0);
+        long[] minutos = new long[horas.length];
+        for (int p = 0; p < horas.length; p++) {
+            minutos[p] = Math.max(0, Math.round(horas[p] * 60));
+        }
+        return minutos;
+    }
+
+    static boolean algumPositivo(int[] valores) {
+        for (int valor : valores) {
+            if (valor > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean algumPositivo(long[] valores) {
+        for (long valor : valores) {
+            if (valor > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -4,11 +4,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "disponibilidade")
+@Table(name = "disponibilidade", indexes = {
+        @Index(name = "idx_disponibilidade_hospital_data", columnList = "id_hospital, data"),
+        @Index(name = "idx_disponibilidade_hospital_profissional_data",
+                columnList = "id_hospital, id_profissional, data"),
+        @Index(name = "idx_disponibilidade_data", columnList = "data")
+})
 public class Disponibilidade {
 
     @Id
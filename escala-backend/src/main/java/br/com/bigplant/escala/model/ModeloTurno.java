@@ -0,0 +1,123 @@
+package br.com.bigplant.escala.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalTime;
+
+// Modelo de turno de um local de atendimento: horário, dias da semana e quantidade de vagas.
+// A geração expande os modelos ativos do hospital em turnos para cada dia do período.
+@Entity
+@Table(name = "modelo_turno",
+        indexes = @Index(name = "idx_modelo_turno_hospital", columnList = "id_hospital, ativo"))
+public class ModeloTurno {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long idHospital;
+
+    private Long idLocalAtendimento;
+
+    // Especialidade exigida; nulo aceita qualquer profissional
+    private Long idEspecialidade;
+
+    // Dia da semana ISO (1 = segunda ... 7 = domingo); nulo vale para todos os dias
+    private Integer diaSemana;
+
+    private LocalTime horaInicio;
+
+    private LocalTime horaFim;
+
+    // DIA ou NOITE; quando nulo, deduzido do horário de início
+    private String tipo;
+
+    // Quantos profissionais o turno exige (um turno gerado por vaga)
+    private Integer quantidade;
+
+    private Boolean ativo;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getIdHospital() {
+        return idHospital;
+    }
+
+    public void setIdHospital(Long idHospital) {
+        this.idHospital = idHospital;
+    }
+
+    public Long getIdLocalAtendimento() {
+        return idLocalAtendimento;
+    }
+
+    public void setIdLocalAtendimento(Long idLocalAtendimento) {
+        this.idLocalAtendimento = idLocalAtendimento;
+    }
+
+    public Long getIdEspecialidade() {
+        return idEspecialidade;
+    }
+
+    public void setIdEspecialidade(Long idEspecialidade) {
+        this.idEspecialidade = idEspecialidade;
+    }
+
+    public Integer getDiaSemana() {
+        return diaSemana;
+    }
+
+    public void setDiaSemana(Integer diaSemana) {
+        this.diaSemana = diaSemana;
+    }
+
+    public LocalTime getHoraInicio() {
+        return horaInicio;
+    }
+
+    public void setHoraInicio(LocalTime horaInicio) {
+        this.horaInicio = horaInicio;
+    }
+
+    public LocalTime getHoraFim() {
+        return horaFim;
+    }
+
+    public void setHoraFim(LocalTime horaFim) {
+        this.horaFim = horaFim;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public Boolean getAtivo() {
+        return ativo;
+    }
+
+    public void setAtivo(Boolean ativo) {
+        this.ativo = ativo;
+    }
+}
@@ -5,12 +5,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
-@Table(name = "profissional")
+@Table(name = "profissional",
+        indexes = @Index(name = "idx_profissional_nome", columnList = "nome"))
 public class Profissional {
 
     @Id
@@ -38,6 +41,12 @@ public class Profissional {
 
     private String perfil;
 
+    // Versão da foto em foto_perfil (nula = sem foto); muda a cada foto nova e vai na URL de leitura
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String versaoFoto;
+
+    // Não persistido: nas respostas, a URL da foto; na criação/edição, pode trazer uma foto nova (data URL)
+    @Transient
     private String fotoPerfil;
 
     @ManyToOne
@@ -140,6 +149,14 @@ public class Profissional {
         this.perfil = perfil;
     }
 
+    public String getVersaoFoto() {
+        return versaoFoto;
+    }
+
+    public void setVersaoFoto(String versaoFoto) {
+        this.versaoFoto = versaoFoto;
+    }
+
     public String getFotoPerfil() {
         return fotoPerfil;
     }
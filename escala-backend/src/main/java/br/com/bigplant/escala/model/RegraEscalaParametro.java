@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -11,7 +12,10 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "regra_escala_parametro")
+@Table(name = "regra_escala_parametro", indexes = {
+        @Index(name = "idx_regra_parametro_vigencia",
+                columnList = "id_hospital, ativo, data_inicio_vigencia, data_fim_vigencia")
+})
 public class RegraEscalaParametro {
 
     @Id
@@ -0,0 +1,121 @@
+package br.com.bigplant.escala.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Estado das regras de um profissional ao fim de uma escala (última saída, sequência de plantões e
+// acumulados do mês de dataReferencia), gravado junto com a escala para a geração seguinte partir dele
+@Entity
+@Table(name = "resumo_escala_profissional",
+        indexes = @Index(name = "idx_resumo_escala", columnList = "id_escala"))
+public class ResumoEscalaProfissional {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long idEscala;
+
+    private Long idHospital;
+
+    private Long idProfissional;
+
+    // Último dia da escala; os acumulados mensais são do mês desta data
+    private LocalDate dataReferencia;
+
+    private LocalDateTime ultimaSaida;
+
+    private LocalDate ultimoDia;
+
+    private Integer plantoesConsecutivos;
+
+    private Integer noitesNoMes;
+
+    private Long minutosNoMes;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getIdEscala() {
+        return idEscala;
+    }
+
+    public void setIdEscala(Long idEscala) {
+        this.idEscala = idEscala;
+    }
+
+    public Long getIdHospital() {
+        return idHospital;
+    }
+
+    public void setIdHospital(Long idHospital) {
+        this.idHospital = idHospital;
+    }
+
+    public Long getIdProfissional() {
+        return idProfissional;
+    }
+
+    public void setIdProfissional(Long idProfissional) {
+        this.idProfissional = idProfissional;
+    }
+
+    public LocalDate getDataReferencia() {
+        return dataReferencia;
+    }
+
+    public void setDataReferencia(LocalDate dataReferencia) {
+        this.dataReferencia = dataReferencia;
+    }
+
+    public LocalDateTime getUltimaSaida() {
+        return ultimaSaida;
+    }
+
+    public void setUltimaSaida(LocalDateTime ultimaSaida) {
+        this.ultimaSaida = ultimaSaida;
+    }
+
+    public LocalDate getUltimoDia() {
+        return ultimoDia;
+    }
+
+    public void setUltimoDia(LocalDate ultimoDia) {
+        this.ultimoDia = ultimoDia;
+    }
+
+    public Integer getPlantoesConsecutivos() {
+        return plantoesConsecutivos;
+    }
+
+    public void setPlantoesConsecutivos(Integer plantoesConsecutivos) {
+        this.plantoesConsecutivos = plantoesConsecutivos;
+    }
+
+    public Integer getNoitesNoMes() {
+        return noitesNoMes;
+    }
+
+    public void setNoitesNoMes(Integer noitesNoMes) {
+        this.noitesNoMes = noitesNoMes;
+    }
+
+    public Long getMinutosNoMes() {
+        return minutosNoMes;
+    }
+
+    public void setMinutosNoMes(Long minutosNoMes) {
+        this.minutosNoMes = minutosNoMes;
+    }
+}
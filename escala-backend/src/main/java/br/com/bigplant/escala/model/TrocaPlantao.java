@@ -4,11 +4,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "troca_plantao")
+@Table(name = "troca_plantao",
+        indexes = @Index(name = "idx_troca_plantao_solicitacao", columnList = "data_solicitacao"))
 public class TrocaPlantao {
 
     @Id
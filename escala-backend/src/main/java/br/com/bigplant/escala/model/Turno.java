@@ -1,18 +1,27 @@
 package br.com.bigplant.escala.model;
 
+import br.com.bigplant.escala.service.OcupacaoTurnoListener;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "turno")
+@Table(name = "turno", indexes = {
+        @Index(name = "idx_turno_data", columnList = "data"),
+        @Index(name = "idx_turno_profissional_data", columnList = "id_profissional, data")
+})
+@EntityListeners(OcupacaoTurnoListener.class)
 public class Turno {
 
     @Id
@@ -35,11 +44,18 @@ public class Turno {
 
     private Long idLocalAtendimento;
 
+    private Long idEspecialidade;
+
     @ManyToOne
     @JoinColumn(name = "id_escala")
     @JsonBackReference
     private Escala escala;
 
+    // Só na geração: as vagas de um mesmo turno de modelo (quantidade > 1) compartilham a chave
+    @Transient
+    @JsonIgnore
+    private Long chaveVaga;
+
     public Long getId() {
         return id;
     }
@@ -112,6 +128,14 @@ public class Turno {
         this.idLocalAtendimento = idLocalAtendimento;
     }
 
+    public Long getIdEspecialidade() {
+        return idEspecialidade;
+    }
+
+    public void setIdEspecialidade(Long idEspecialidade) {
+        this.idEspecialidade = idEspecialidade;
+    }
+
     public Escala getEscala() {
         return escala;
     }
@@ -119,4 +143,12 @@ public class Turno {
     public void setEscala(Escala escala) {
         this.escala = escala;
     }
+
+    public Long getChaveVaga() {
+        return chaveVaga;
+    }
+
+    public void setChaveVaga(Long chaveVaga) {
+        this.chaveVaga = chaveVaga;
+    }
 }
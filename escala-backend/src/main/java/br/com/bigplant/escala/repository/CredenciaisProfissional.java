@@ -0,0 +1,19 @@
+package br.com.bigplant.escala.repository;
+
+// Projeção para o login: identificação, perfil e hash da senha, sem os vínculos
+public interface CredenciaisProfissional {
+
+    Long getId();
+
+    String getNome();
+
+    String getEmail();
+
+    String getPerfil();
+
+    Long getIdHospital();
+
+    String getSenha();
+
+    String getVersaoFoto();
+}
@@ -3,13 +3,61 @@ package br.com.bigplant.escala.repository;
 import br.com.bigplant.escala.model.Disponibilidade;
 import java.time.LocalDate;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface DisponibilidadeRepository extends JpaRepository<Disponibilidade, Long> {
 
-    List<Disponibilidade> findByIdHospitalAndDataAndTipoTurnoAndDisponivelTrue(
-            Long idHospital, LocalDate data, String tipoTurno);
-}
+    List<Disponibilidade> findByIdHospitalAndDataBetweenAndDisponivelTrue(
+            Long idHospital, LocalDate inicio, LocalDate fim);
+
+    // Disponibilidades do hospital no período em ordem (data, id), a partir da posição (aposData, aposId)
+    // exclusive: paginação por chave, sem OFFSET, então cada página custa só o tamanho dela.
+    // Usa o índice idx_disponibilidade_hospital_data (id_hospital, data), que no InnoDB já termina no id
+    @Query("SELECT d FROM Disponibilidade d "
+            + "WHERE d.idHospital = :idHospital AND d.data BETWEEN :inicio AND :fim "
+            + "AND d.data >= :aposData AND (d.data > :aposData OR d.id > :aposId) "
+            + "ORDER BY d.data, d.id")
+    List<Disponibilidade> findPaginaPorHospitalEPeriodo(
+            @Param("idHospital") Long idHospital,
+            @Param("inicio") LocalDate inicio,
+            @Param("fim") LocalDate fim,
+            @Param("aposData") LocalDate aposData,
+            @Param("aposId") Long aposId,
+            Pageable pagina);
+
+    // Mesma página restrita a um profissional, pelo índice idx_disponibilidade_hospital_profissional_data
+    @Query("SELECT d FROM Disponibilidade d "
+            + "WHERE d.idHospital = :idHospital AND d.idProfissional = :idProfissional "
+            + "AND d.data BETWEEN :inicio AND :fim "
+            + "AND d.data >= :aposData AND (d.data > :aposData OR d.id > :aposId) "
+            + "ORDER BY d.data, d.id")
+    List<Disponibilidade> findPaginaPorHospitalProfissionalEPeriodo(
+            @Param("idHospital") Long idHospital,
+            @Param("idProfissional") Long idProfissional,
+            @Param("inicio") LocalDate inicio,
+            @Param("fim") LocalDate fim,
+            @Param("aposData") LocalDate aposData,
+            @Param("aposId") Long aposId,
+            Pageable pagina);
 
+    // Páginas da listagem geral em ordem (data, id), divididas como as de turnos; usam o índice
+    // idx_disponibilidade_data
+    @Query("SELECT d FROM Disponibilidade d ORDER BY d.data, d.id")
+    List<Disponibilidade> findPrimeiraPagina(Pageable pagina);
+
+    @Query("SELECT d FROM Disponibilidade d "
+            + "WHERE d.data >= :aposData AND (d.data > :aposData OR d.id > :aposId) "
+            + "ORDER BY d.data, d.id")
+    List<Disponibilidade> findPaginaApos(
+            @Param("aposData") LocalDate aposData, @Param("aposId") Long aposId, Pageable pagina);
+
+    @Query("SELECT d FROM Disponibilidade d "
+            + "WHERE (d.data IS NULL AND d.id > :aposId) OR d.data IS NOT NULL "
+            + "ORDER BY d.data, d.id")
+    List<Disponibilidade> findPaginaAposSemData(@Param("aposId") Long aposId, Pageable pagina);
+}
@@ -16,5 +16,8 @@ public interface EscalaRepository extends JpaRepository<Escala, Long> {
     Optional<Escala> findTopByIdHospitalOrderByDataInicioDesc(Long idHospital);
 
     List<Escala> findAllByIdHospitalOrderByDataInicioDesc(Long idHospital);
+
+    // Escala imediatamente anterior a uma data (a que termina mais tarde antes dela)
+    Optional<Escala> findFirstByIdHospitalAndDataFimLessThanOrderByDataFimDescIdDesc(Long idHospital, LocalDate data);
 }
 
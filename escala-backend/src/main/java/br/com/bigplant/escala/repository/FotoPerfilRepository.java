@@ -0,0 +1,81 @@
+package br.com.bigplant.escala.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Fotos de perfil (tabela foto_perfil, uma linha por profissional). Via JDBC para que as imagens não passem
+// por entidades: a leitura traz o cabeçalho e o conteúdo da mesma linha numa consulta só.
+@Repository
+public class FotoPerfilRepository {
+
+    // Cabeçalho (os tamanhos vêm de LENGTH) seguido do conteúdo pedido; a miniatura ausente vira a imagem
+    private static final String LEITURA = "SELECT versao, tipo, LENGTH(imagem), tipo_miniatura, "
+            + "LENGTH(miniatura), url_externa, %s FROM foto_perfil WHERE id_profissional = ? AND versao = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FotoPerfilRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // tamanhoMiniatura nulo = sem miniatura (imagem que o Java não lê, ou migrada da coluna antiga de
+    // profissional): a leitura da miniatura entrega a imagem original
+    public record Cabecalho(
+            String versao, String tipo, Long tamanho, String tipoMiniatura, Long tamanhoMiniatura, String urlExterna) {}
+
+    // conteudo nulo = sem imagem (foto externa) ou maior que o tamanho máximo pedido na leitura
+    public record Foto(Cabecalho cabecalho, byte[] conteudo) {}
+
+    public void salvarImagem(
+            Long idProfissional, String versao, String tipo, byte[] imagem, String tipoMiniatura, byte[] miniatura) {
+        jdbcTemplate.update("INSERT INTO foto_perfil (id_profissional, versao, tipo, imagem, tipo_miniatura, "
+                        + "miniatura, url_externa, atualizado_em) VALUES (?, ?, ?, ?, ?, ?, NULL, ?) "
+                        + "ON DUPLICATE KEY UPDATE versao = VALUES(versao), tipo = VALUES(tipo), "
+                        + "imagem = VALUES(imagem), tipo_miniatura = VALUES(tipo_miniatura), "
+                        + "miniatura = VALUES(miniatura), url_externa = NULL, atualizado_em = VALUES(atualizado_em)",
+                idProfissional, versao, tipo, imagem, tipoMiniatura, miniatura, agora());
+    }
+
+    public void salvarUrlExterna(Long idProfissional, String versao, String url) {
+        jdbcTemplate.update("INSERT INTO foto_perfil (id_profissional, versao, url_externa, atualizado_em) "
+                        + "VALUES (?, ?, ?, ?) "
+                        + "ON DUPLICATE KEY UPDATE versao = VALUES(versao), tipo = NULL, imagem = NULL, "
+                        + "tipo_miniatura = NULL, miniatura = NULL, url_externa = VALUES(url_externa), "
+                        + "atualizado_em = VALUES(atualizado_em)",
+                idProfissional, versao, url, agora());
+    }
+
+    // Lê a foto (ou a miniatura) na versão pedida numa consulta só; vazio se o profissional não tiver foto ou se
+    // ela já for outra. O conteúdo é copiado para a memória dentro da consulta, que devolve a conexão ao pool
+    // antes de a resposta começar a ser escrita; acima de tamanhoMaximo ele não é lido.
+    public Optional<Foto> ler(Long idProfissional, String versao, boolean miniatura, long tamanhoMaximo) {
+        String sql = String.format(LEITURA, miniatura ? "COALESCE(miniatura, imagem)" : "imagem");
+        List<Foto> fotos = jdbcTemplate.query(sql, (rs, linha) -> {
+            Cabecalho cabecalho = new Cabecalho(
+                    rs.getString(1),
+                    rs.getString(2),
+                    rs.getObject(3, Long.class),
+                    rs.getString(4),
+                    rs.getObject(5, Long.class),
+                    rs.getString(6));
+            Long tamanho = miniatura && cabecalho.tamanhoMiniatura() != null
+                    ? cabecalho.tamanhoMiniatura()
+                    : cabecalho.tamanho();
+            byte[] conteudo = tamanho != null && tamanho <= tamanhoMaximo ? rs.getBytes(7) : null;
+            return new Foto(cabecalho, conteudo);
+        }, idProfissional, versao);
+        return fotos.stream().findFirst();
+    }
+
+    public void remover(Long idProfissional) {
+        jdbcTemplate.update("DELETE FROM foto_perfil WHERE id_profissional = ?", idProfissional);
+    }
+
+    private static Timestamp agora() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
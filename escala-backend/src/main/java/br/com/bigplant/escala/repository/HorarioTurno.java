@@ -0,0 +1,20 @@
+package br.com.bigplant.escala.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Projeção com apenas o horário e os vínculos do turno, sem carregar a escala
+public interface HorarioTurno {
+
+    Long getId();
+
+    Long getIdHospital();
+
+    Long getIdProfissional();
+
+    LocalDate getData();
+
+    LocalTime getHoraInicio();
+
+    LocalTime getHoraFim();
+}
@@ -0,0 +1,14 @@
+package br.com.bigplant.escala.repository;
+
+import br.com.bigplant.escala.model.ModeloTurno;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ModeloTurnoRepository extends JpaRepository<ModeloTurno, Long> {
+
+    List<ModeloTurno> findByIdHospitalAndAtivoTrue(Long idHospital);
+
+    List<ModeloTurno> findByIdLocalAtendimentoAndAtivoTrue(Long idLocalAtendimento);
+}
@@ -1,17 +1,51 @@
 package br.com.bigplant.escala.repository;
 
+import br.com.bigplant.escala.dto.ProfissionalResumoDTO;
 import br.com.bigplant.escala.model.Profissional;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProfissionalRepository extends JpaRepository<Profissional, Long> {
 
+    // Colunas das listagens (ProfissionalResumoDTO): sem senha; da foto, só a versão.
+    // Instituição e especialidade vêm no mesmo SELECT, em vez de uma consulta por profissional
+    String RESUMO = "SELECT new br.com.bigplant.escala.dto.ProfissionalResumoDTO("
+            + "p.id, p.nome, p.crm, p.idHospital, p.cargaHorariaMensalMaxima, p.cargaHorariaMensalMinima, "
+            + "p.ativo, p.email, p.telefoneWhatsapp, p.perfil, p.divulgarDados, p.dataNascimento, i, e, "
+            + "p.versaoFoto) "
+            + "FROM Profissional p LEFT JOIN p.instituicao i LEFT JOIN p.especialidade e ";
+
     List<Profissional> findByIdHospitalAndAtivoTrue(Long idHospital);
 
+    @Query(RESUMO + "WHERE p.idHospital = :idHospital AND p.ativo = true")
+    List<ProfissionalResumoDTO> findResumosAtivosPorHospital(@Param("idHospital") Long idHospital);
+
     Optional<Profissional> findByEmail(String email);
 
-    Optional<Profissional> findByEmailAndAtivoTrue(String email);
+    @Query("SELECT p.id AS id, p.nome AS nome, p.email AS email, p.perfil AS perfil, p.idHospital AS idHospital, "
+            + "p.senha AS senha, p.versaoFoto AS versaoFoto "
+            + "FROM Profissional p WHERE p.email = :email AND p.ativo = true")
+    Optional<CredenciaisProfissional> findCredenciaisAtivasPorEmail(@Param("email") String email);
+
+    // Páginas da listagem geral em ordem (nome, id), pelo índice idx_profissional_nome (nome): a primeira, a
+    // seguinte a um profissional com nome e a seguinte a um sem nome (que vêm primeiro no MySQL)
+    @Query(RESUMO + "ORDER BY p.nome, p.id")
+    List<ProfissionalResumoDTO> findPrimeiraPagina(Pageable pagina);
+
+    @Query(RESUMO
+            + "WHERE p.nome >= :aposNome AND (p.nome > :aposNome OR p.id > :aposId) "
+            + "ORDER BY p.nome, p.id")
+    List<ProfissionalResumoDTO> findPaginaApos(
+            @Param("aposNome") String aposNome, @Param("aposId") Long aposId, Pageable pagina);
+
+    @Query(RESUMO
+            + "WHERE (p.nome IS NULL AND p.id > :aposId) OR p.nome IS NOT NULL "
+            + "ORDER BY p.nome, p.id")
+    List<ProfissionalResumoDTO> findPaginaAposSemNome(@Param("aposId") Long aposId, Pageable pagina);
 }
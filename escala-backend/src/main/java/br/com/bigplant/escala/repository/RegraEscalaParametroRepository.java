@@ -4,14 +4,26 @@ import br.com.bigplant.escala.model.RegraEscalaParametro;
 import java.time.LocalDate;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RegraEscalaParametroRepository extends JpaRepository<RegraEscalaParametro, Long> {
 
-    List<RegraEscalaParametro> findByIdHospitalAndAtivoAndDataInicioVigenciaLessThanEqualAndDataFimVigenciaIsNullOrDataFimVigenciaGreaterThanEqual(
-            Long idHospital, Boolean ativo, LocalDate dataInicioVigencia, LocalDate dataFimVigencia);
+    // Parâmetros ativos do hospital em vigor na data (fim de vigência nulo = sem prazo). Quando há mais de
+    // um para a mesma chave, a vigência iniciada por último vem antes e prevalece.
+    // Usa o índice idx_regra_parametro_vigencia (id_hospital, ativo, data_inicio_vigencia)
+    @Query("SELECT r FROM RegraEscalaParametro r "
+            + "WHERE r.idHospital = :idHospital AND r.ativo = true "
+            + "AND r.dataInicioVigencia <= :data "
+            + "AND (r.dataFimVigencia IS NULL OR r.dataFimVigencia >= :data) "
+            + "ORDER BY r.dataInicioVigencia DESC, r.id DESC")
+    List<RegraEscalaParametro> findVigentes(@Param("idHospital") Long idHospital, @Param("data") LocalDate data);
+
+    // Todos os parâmetros ativos do hospital, para montar a linha de vigências (trechos entre mudanças)
+    // Usa o prefixo (id_hospital, ativo) do índice idx_regra_parametro_vigencia
+    List<RegraEscalaParametro> findByIdHospitalAndAtivoTrue(Long idHospital);
 
     List<RegraEscalaParametro> findByRegraConfiguracaoId(Long idRegraConfiguracao);
 }
-
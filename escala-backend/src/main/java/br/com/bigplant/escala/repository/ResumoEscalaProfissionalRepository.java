@@ -0,0 +1,12 @@
+package br.com.bigplant.escala.repository;
+
+import br.com.bigplant.escala.model.ResumoEscalaProfissional;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResumoEscalaProfissionalRepository extends JpaRepository<ResumoEscalaProfissional, Long> {
+
+    List<ResumoEscalaProfissional> findByIdEscala(Long idEscala);
+}
@@ -3,7 +3,10 @@ package br.com.bigplant.escala.repository;
 import br.com.bigplant.escala.model.TrocaPlantao;
 import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,4 +16,22 @@ public interface TrocaPlantaoRepository extends JpaRepository<TrocaPlantao, Long
 
     List<TrocaPlantao> findByIdHospitalAndDataSolicitacaoBetween(
             Long idHospital, LocalDateTime inicio, LocalDateTime fim);
+
+    // Páginas da listagem geral, mais recentes primeiro: (dataSolicitacao, id) decrescentes, pelo índice
+    // idx_troca_plantao_solicitacao (data_solicitacao). Sem data de solicitação vêm por último (ordem do MySQL):
+    // a página seguinte a uma troca com data inclui todas elas, a seguinte a uma sem data só as restantes.
+    @Query("SELECT t FROM TrocaPlantao t ORDER BY t.dataSolicitacao DESC, t.id DESC")
+    List<TrocaPlantao> findPrimeiraPagina(Pageable pagina);
+
+    @Query("SELECT t FROM TrocaPlantao t "
+            + "WHERE (t.dataSolicitacao <= :aposData AND (t.dataSolicitacao < :aposData OR t.id < :aposId)) "
+            + "OR t.dataSolicitacao IS NULL "
+            + "ORDER BY t.dataSolicitacao DESC, t.id DESC")
+    List<TrocaPlantao> findPaginaApos(
+            @Param("aposData") LocalDateTime aposData, @Param("aposId") Long aposId, Pageable pagina);
+
+    @Query("SELECT t FROM TrocaPlantao t "
+            + "WHERE t.dataSolicitacao IS NULL AND t.id < :aposId "
+            + "ORDER BY t.dataSolicitacao DESC, t.id DESC")
+    List<TrocaPlantao> findPaginaAposSemData(@Param("aposId") Long aposId, Pageable pagina);
 }
@@ -0,0 +1,157 @@
+package br.com.bigplant.escala.repository;
+
+import br.com.bigplant.escala.model.Turno;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Inserção em massa dos turnos de uma escala gerada. Com id IDENTITY o Hibernate não agrupa INSERTs e
+// faz uma ida ao banco por turno; aqui cada lote vira um único INSERT com várias linhas, e os ids gerados
+// voltam para as entidades. Roda na conexão da transação corrente, junto com o JPA; como não passa pelo
+// contexto de persistência, os listeners de Turno não são chamados e cabe a quem chama fazer esse papel.
+@Repository
+public class TurnoLoteRepository {
+
+    public static final int LINHAS_POR_INSERT = 500;
+
+    private static final String COLUNAS = "INSERT INTO turno (data, hora_inicio, hora_fim, tipo, local, id_hospital, "
+            + "id_profissional, id_local_atendimento, id_especialidade, id_escala) VALUES ";
+    private static final String LINHA = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ULTIMO_ID = "SELECT COALESCE(MAX(id), 0) FROM turno WHERE id_escala = ?";
+    private static final String INSERIDOS = "SELECT id, data, hora_inicio, hora_fim, tipo, local, id_hospital, "
+            + "id_profissional, id_local_atendimento, id_especialidade FROM turno WHERE id_escala = ? AND id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TurnoLoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Insere os turnos (ainda sem id) na escala informada e preenche o id de cada um: um INSERT por lote de
+    // LINHAS_POR_INSERT, mais as duas consultas dos ids.
+    //
+    // Os ids não vêm de getGeneratedKeys: num INSERT de várias linhas o driver do MySQL só recebe o primeiro
+    // id e deduz os demais como consecutivos, o que não vale com innodb_autoinc_lock_mode=2 (padrão do
+    // MySQL 8), em que INSERTs concorrentes na tabela intercalam ids com os deste comando. As linhas
+    // novas da escala são relidas (id acima do maior que ela já tinha) e casadas pelo conteúdo; turnos com
+    // o mesmo conteúdo são intercambiáveis, então qualquer um dos ids serve.
+    public void inserir(List<Turno> turnos, Long idEscala) {
+        if (turnos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+            long limite = ultimoId(conexao, idEscala);
+            String sqlCompleto = null;
+            for (int i = 0; i < turnos.size(); i += LINHAS_POR_INSERT) {
+                List<Turno> lote = turnos.subList(i, Math.min(turnos.size(), i + LINHAS_POR_INSERT));
+                String sql;
+                if (lote.size() == LINHAS_POR_INSERT) {
+                    sql = sqlCompleto != null ? sqlCompleto : (sqlCompleto = sql(LINHAS_POR_INSERT));
+                } else {
+                    sql = sql(lote.size());
+                }
+                inserirLote(conexao, sql, lote, idEscala);
+            }
+            atribuirIds(conexao, turnos, idEscala, limite);
+            return null;
+        });
+    }
+
+    private static long ultimoId(Connection conexao, Long idEscala) throws SQLException {
+        try (PreparedStatement comando = conexao.prepareStatement(ULTIMO_ID)) {
+            comando.setLong(1, idEscala);
+            try (ResultSet resultado = comando.executeQuery()) {
+                resultado.next();
+                return resultado.getLong(1);
+            }
+        }
+    }
+
+    private static void inserirLote(Connection conexao, String sql, List<Turno> lote, Long idEscala)
+            throws SQLException {
+        try (PreparedStatement comando = conexao.prepareStatement(sql)) {
+            int p = 1;
+            for (Turno turno : lote) {
+                definir(comando, p++, turno.getData(), Types.DATE);
+                definir(comando, p++, turno.getHoraInicio(), Types.TIME);
+                definir(comando, p++, turno.getHoraFim(), Types.TIME);
+                definir(comando, p++, turno.getTipo(), Types.VARCHAR);
+                definir(comando, p++, turno.getLocal(), Types.VARCHAR);
+                definir(comando, p++, turno.getIdHospital(), Types.BIGINT);
+                definir(comando, p++, turno.getIdProfissional(), Types.BIGINT);
+                definir(comando, p++, turno.getIdLocalAtendimento(), Types.BIGINT);
+                definir(comando, p++, turno.getIdEspecialidade(), Types.BIGINT);
+                definir(comando, p++, idEscala, Types.BIGINT);
+            }
+            comando.executeUpdate();
+        }
+    }
+
+    // Lê as linhas que a escala ganhou depois de limite e dá a cada turno o id de uma linha com o mesmo conteúdo
+    private static void atribuirIds(Connection conexao, List<Turno> turnos, Long idEscala, long limite)
+            throws SQLException {
+        Map<List<Object>, Deque<Long>> idsPorConteudo = new HashMap<>();
+        try (PreparedStatement comando = conexao.prepareStatement(INSERIDOS)) {
+            comando.setLong(1, idEscala);
+            comando.setLong(2, limite);
+            try (ResultSet linhas = comando.executeQuery()) {
+                while (linhas.next()) {
+                    List<Object> conteudo = Arrays.asList(
+                            linhas.getObject(2, LocalDate.class),
+                            linhas.getObject(3, LocalTime.class),
+                            linhas.getObject(4, LocalTime.class),
+                            linhas.getString(5),
+                            linhas.getString(6),
+                            linhas.getObject(7, Long.class),
+                            linhas.getObject(8, Long.class),
+                            linhas.getObject(9, Long.class),
+                            linhas.getObject(10, Long.class));
+                    idsPorConteudo.computeIfAbsent(conteudo, c -> new ArrayDeque<>()).add(linhas.getLong(1));
+                }
+            }
+        }
+        for (Turno turno : turnos) {
+            Deque<Long> ids = idsPorConteudo.get(conteudo(turno));
+            if (ids == null || ids.isEmpty()) {
+                throw new SQLException("Banco não devolveu os ids de todos os turnos inseridos");
+            }
+            turno.setId(ids.poll());
+        }
+    }
+
+    private static List<Object> conteudo(Turno turno) {
+        return Arrays.asList(turno.getData(), turno.getHoraInicio(), turno.getHoraFim(), turno.getTipo(),
+                turno.getLocal(), turno.getIdHospital(), turno.getIdProfissional(), turno.getIdLocalAtendimento(),
+                turno.getIdEspecialidade());
+    }
+
+    private static void definir(PreparedStatement comando, int indice, Object valor, int tipo) throws SQLException {
+        if (valor == null) {
+            comando.setNull(indice, tipo);
+        } else {
+            comando.setObject(indice, valor);
+        }
+    }
+
+    private static String sql(int linhas) {
+        StringJoiner valores = new StringJoiner(", ", COLUNAS, "");
+        for (int i = 0; i < linhas; i++) {
+            valores.add(LINHA);
+        }
+        return valores.toString();
+    }
+}
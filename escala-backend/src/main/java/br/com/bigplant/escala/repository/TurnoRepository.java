@@ -3,12 +3,36 @@ package br.com.bigplant.escala.repository;
 import br.com.bigplant.escala.model.Turno;
 import java.time.LocalDate;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TurnoRepository extends JpaRepository<Turno, Long> {
 
     List<Turno> findByIdHospitalAndDataBetween(Long idHospital, LocalDate inicio, LocalDate fim);
-}
 
+    // Turnos alocados de todos os hospitais no período, para o índice de ocupação dos profissionais
+    List<HorarioTurno> findByDataBetweenAndIdProfissionalIsNotNull(LocalDate inicio, LocalDate fim);
+
+    // Turnos do profissional no período, em todos os hospitais (índice idx_turno_profissional_data)
+    List<HorarioTurno> findByIdProfissionalAndDataBetween(Long idProfissional, LocalDate inicio, LocalDate fim);
+
+    // Páginas da listagem geral em ordem (data, id), pelo índice idx_turno_data (data), que no InnoDB já termina
+    // no id. Uma consulta por tipo de posição, para que cada uma seja um intervalo simples do índice: a primeira
+    // página, a seguinte a um turno com data e a seguinte a um turno sem data (que vêm primeiro no MySQL).
+    @Query("SELECT t FROM Turno t ORDER BY t.data, t.id")
+    List<Turno> findPrimeiraPagina(Pageable pagina);
+
+    @Query("SELECT t FROM Turno t "
+            + "WHERE t.data >= :aposData AND (t.data > :aposData OR t.id > :aposId) "
+            + "ORDER BY t.data, t.id")
+    List<Turno> findPaginaApos(@Param("aposData") LocalDate aposData, @Param("aposId") Long aposId, Pageable pagina);
+
+    @Query("SELECT t FROM Turno t "
+            + "WHERE (t.data IS NULL AND t.id > :aposId) OR t.data IS NOT NULL "
+            + "ORDER BY t.data, t.id")
+    List<Turno> findPaginaAposSemData(@Param("aposId") Long aposId, Pageable pagina);
+}
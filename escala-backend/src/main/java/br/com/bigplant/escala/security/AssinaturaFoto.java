@@ -0,0 +1,74 @@
+package br.com.bigplant.escala.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Assinatura das URLs de foto de perfil. <img> não manda o cabeçalho Authorization, então a URL que as
+// respostas autenticadas devolvem leva a expiração e um HMAC do caminho, da versão e da expiração; o filtro
+// de JWT deixa passar só a leitura com assinatura válida e dentro do prazo.
+// A expiração é arredondada para o fim da janela seguinte: durante uma janela a mesma foto tem a mesma URL
+// (e o navegador reaproveita o que guardou), e cada URL vale de uma a duas janelas: ao menos o tempo do
+// token de login, já que a URL da foto de quem entrou fica guardada no frontend junto com ele.
+@Service
+public class AssinaturaFoto {
+
+    private static final long JANELA_SEGUNDOS = 8 * 60 * 60;
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final SecretKeySpec chave;
+
+    // Sem segredo configurado a chave é sorteada na subida: URLs de uma instância não valem em outra nem
+    // depois de um reinício (o frontend recebe URLs novas na próxima listagem)
+    public AssinaturaFoto(@Value("${escala.fotos.assinatura.segredo:}") String segredo) {
+        byte[] bytes;
+        if (segredo == null || segredo.isBlank()) {
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+        } else {
+            bytes = segredo.getBytes(StandardCharsets.UTF_8);
+        }
+        this.chave = new SecretKeySpec(bytes, ALGORITMO);
+    }
+
+    // Expiração, em segundos desde a época, das URLs geradas agora
+    public long expiracao() {
+        return (Instant.now().getEpochSecond() / JANELA_SEGUNDOS + 2) * JANELA_SEGUNDOS;
+    }
+
+    public String assinar(String caminho, String versao, long expira) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(chave);
+            byte[] assinatura = mac.doFinal(
+                    (caminho + "\n" + versao + "\n" + expira).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(assinatura);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean valida(String caminho, String versao, String expira, String assinatura) {
+        if (versao == null || expira == null || assinatura == null) {
+            return false;
+        }
+        long expiraSegundos;
+        try {
+            expiraSegundos = Long.parseLong(expira);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expiraSegundos < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        byte[] esperada = assinar(caminho, versao, expiraSegundos).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(esperada, assinatura.getBytes(StandardCharsets.US_ASCII));
+    }
+}
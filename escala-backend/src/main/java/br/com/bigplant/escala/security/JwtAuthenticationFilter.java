@@ -9,16 +9,21 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.regex.Pattern;
 import org.springframework.stereotype.Component;
 
 @Component
 public class JwtAuthenticationFilter implements Filter {
 
+    private static final Pattern FOTO = Pattern.compile("/api/profissionais/\\d+/foto(/miniatura)?");
+
     private final JwtService jwtService;
+    private final AssinaturaFoto assinaturaFoto;
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, AssinaturaFoto assinaturaFoto) {
         this.jwtService = jwtService;
+        this.assinaturaFoto = assinaturaFoto;
     }
 
     @Override
@@ -45,6 +50,10 @@ public class JwtAuthenticationFilter implements Filter {
             chain.doFilter(request, response);
             return;
         }
+        if (leituraDeFotoAssinada(httpRequest, method, path)) {
+            chain.doFilter(request, response);
+            return;
+        }
         String authorization = httpRequest.getHeader("Authorization");
         if (authorization == null || !authorization.startsWith("Bearer ")) {
             logger.warn("Token ausente ou mal formatado. Header: {}", authorization);
@@ -130,6 +139,15 @@ public class JwtAuthenticationFilter implements Filter {
         chain.doFilter(request, response);
     }
 
+    // GET /api/profissionais/{id}/foto[/miniatura]?v=&exp=&ass=: a imagem é pedida por <img>, que não manda o
+    // token; vale a assinatura com prazo que as respostas autenticadas põem na URL
+    private boolean leituraDeFotoAssinada(HttpServletRequest request, String method, String path) {
+        return "GET".equalsIgnoreCase(method)
+                && FOTO.matcher(path).matches()
+                && assinaturaFoto.valida(path, request.getParameter("v"), request.getParameter("exp"),
+                        request.getParameter("ass"));
+    }
+
     private void addCorsHeaders(HttpServletResponse response) {
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS, PATCH");
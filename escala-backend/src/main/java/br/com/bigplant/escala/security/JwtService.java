@@ -23,17 +23,25 @@ public class JwtService {
     }
 
     public String gerarToken(Profissional profissional) {
+        return gerarToken(
+                profissional.getId(),
+                profissional.getNome(),
+                profissional.getEmail(),
+                profissional.getPerfil(),
+                profissional.getIdHospital());
+    }
+
+    public String gerarToken(Long id, String nome, String email, String perfil, Long idHospital) {
         Instant agora = Instant.now();
         Instant expiracao = agora.plus(8, ChronoUnit.HOURS);
-        String perfil = profissional.getPerfil();
         String perfilNormalizado = perfil != null && !perfil.isBlank() ? perfil : "MEDICO";
         return JWT.create()
                 .withIssuer("escala-backend")
-                .withSubject(String.valueOf(profissional.getId()))
-                .withClaim("nome", profissional.getNome())
-                .withClaim("email", profissional.getEmail())
+                .withSubject(String.valueOf(id))
+                .withClaim("nome", nome)
+                .withClaim("email", email)
                 .withClaim("perfil", perfilNormalizado)
-                .withClaim("idHospital", profissional.getIdHospital())
+                .withClaim("idHospital", idHospital)
                 .withIssuedAt(Date.from(agora))
                 .withExpiresAt(Date.from(expiracao))
                 .sign(algorithm);
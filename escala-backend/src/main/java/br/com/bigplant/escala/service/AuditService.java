@@ -3,6 +3,8 @@ package br.com.bigplant.escala.service;
 import br.com.bigplant.escala.audit.AuditEvent;
 import br.com.bigplant.escala.audit.AuditLog;
 import br.com.bigplant.escala.audit.AuditLogRepository;
+import br.com.bigplant.escala.dto.Cursor;
+import br.com.bigplant.escala.dto.Pagina;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -74,11 +76,19 @@ public class AuditService {
         eventPublisher.publishEvent(new AuditEvent(this, log));
     }
 
-    public List<AuditLog> findAll() {
-        return auditLogRepository.findAllByOrderByTimestampDesc();
-    }
-
-    public List<AuditLog> findByActor(String actorId) {
-        return auditLogRepository.findByActorIdOrderByTimestampDesc(actorId);
+    // Registros mais recentes primeiro, paginados por (timestamp, id); actorId nulo = de todos os usuários
+    public Pagina<AuditLog> listarPagina(String actorId, Cursor posicao, int limite) {
+        List<AuditLog> logs;
+        if (posicao.inicio()) {
+            logs = actorId == null
+                    ? auditLogRepository.findPrimeiraPagina(Pagina.busca(limite))
+                    : auditLogRepository.findPrimeiraPaginaPorActor(actorId, Pagina.busca(limite));
+        } else {
+            logs = actorId == null
+                    ? auditLogRepository.findPaginaApos(posicao.chaveDataHora(), posicao.id(), Pagina.busca(limite))
+                    : auditLogRepository.findPaginaAposPorActor(
+                            actorId, posicao.chaveDataHora(), posicao.id(), Pagina.busca(limite));
+        }
+        return Pagina.de(logs, limite, log -> Cursor.de(log.getTimestamp(), log.getId()));
     }
 }
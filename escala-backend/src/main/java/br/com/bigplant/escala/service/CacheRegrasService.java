@@ -0,0 +1,208 @@
+package br.com.bigplant.escala.service;
+
+import br.com.bigplant.escala.dto.EstatisticasCacheRegrasDTO;
+import br.com.bigplant.escala.geracao.regras.CompiladorRegras;
+import br.com.bigplant.escala.geracao.regras.LinhaVigencia;
+import br.com.bigplant.escala.geracao.regras.RegrasCompiladas;
+import br.com.bigplant.escala.geracao.regras.RegrasPorPeriodo;
+import br.com.bigplant.escala.geracao.regras.ResolvedorVigencia;
+import br.com.bigplant.escala.model.RegraEscalaParametro;
+import br.com.bigplant.escala.repository.RegraEscalaParametroRepository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Cache limitado (LRU) das regras já compiladas, por configuração e por trecho de vigência do hospital.
+// Os trechos vêm da linha de vigências do hospital (também em cache): cada um vai de um dia em que algum
+// parâmetro entra ou sai de vigor até a véspera do próximo, então janelas diferentes que cruzam o mesmo
+// trecho reaproveitam a mesma compilação. As regras compiladas são imutáveis e a mesma instância é
+// compartilhada por gerações concorrentes.
+// As escritas em regras e configurações removem as entradas afetadas; uma carga que começou antes de
+// uma remoção não é guardada, para não recolocar no cache um valor já desatualizado. A carga lê numa
+// transação própria em READ COMMITTED: dentro da transação de quem pediu (REPEATABLE READ numa geração),
+// o snapshot pode ser anterior à escrita que motivou a remoção e o valor antigo entraria com a versão nova.
+@Service
+public class CacheRegrasService {
+
+    private final RegraEscalaParametroRepository regraEscalaParametroRepository;
+    private final CompiladorRegras compiladorRegras;
+    private final ResolvedorVigencia resolvedorVigencia;
+    private final TransactionTemplate transacaoCarga;
+    private final int capacidade;
+    private final Map<Chave, RegrasCompiladas> entradas;
+    private final Map<Long, LinhaVigencia> linhas;
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong faltas = new AtomicLong();
+    private final AtomicLong remocoes = new AtomicLong();
+    private long versao;
+
+    public CacheRegrasService(
+            RegraEscalaParametroRepository regraEscalaParametroRepository,
+            CompiladorRegras compiladorRegras,
+            ResolvedorVigencia resolvedorVigencia,
+            PlatformTransactionManager transactionManager,
+            @Value("${escala.regras.cache.capacidade:256}") int capacidade) {
+        this.regraEscalaParametroRepository = regraEscalaParametroRepository;
+        this.compiladorRegras = compiladorRegras;
+        this.resolvedorVigencia = resolvedorVigencia;
+        this.transacaoCarga = new TransactionTemplate(transactionManager);
+        this.transacaoCarga.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transacaoCarga.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.transacaoCarga.setReadOnly(true);
+        this.capacidade = Math.max(1, capacidade);
+        this.entradas = lru(this.capacidade);
+        this.linhas = lru(this.capacidade);
+    }
+
+    // Com configuração informada usa os parâmetros dela na janela toda; caso contrário, resolve dia a dia
+    // os parâmetros do hospital em vigor entre inicio e fim
+    public RegrasPorPeriodo obter(Long idHospital, LocalDate inicio, LocalDate fim, Long idRegraConfiguracao) {
+        if (idRegraConfiguracao != null) {
+            return RegrasPorPeriodo.unica(porConfiguracao(idRegraConfiguracao), inicio, fim);
+        }
+        long versaoCarga = versao();
+        LinhaVigencia linha = linha(idHospital, versaoCarga);
+        return resolvedorVigencia.resolver(
+                linha, inicio, fim, inicioTrecho -> trecho(idHospital, linha, inicioTrecho, versaoCarga));
+    }
+
+    public RegrasCompiladas porConfiguracao(Long idRegraConfiguracao) {
+        return obter(new Chave(idRegraConfiguracao, null, null), versao(), () -> transacaoCarga.execute(
+                status -> compiladorRegras.compilar(
+                        regraEscalaParametroRepository.findByRegraConfiguracaoId(idRegraConfiguracao))));
+    }
+
+    public RegrasCompiladas vigentes(Long idHospital, LocalDate data) {
+        long versaoCarga = versao();
+        LinhaVigencia linha = linha(idHospital, versaoCarga);
+        return trecho(idHospital, linha, linha.inicioTrecho(data), versaoCarga);
+    }
+
+    public synchronized void removerConfiguracao(Long idRegraConfiguracao) {
+        versao++;
+        removerSe(chave -> idRegraConfiguracao != null && idRegraConfiguracao.equals(chave.idRegraConfiguracao()));
+    }
+
+    // Remove a linha de vigências e todos os trechos já compilados para o hospital
+    public synchronized void removerHospital(Long idHospital) {
+        versao++;
+        linhas.remove(idHospital);
+        removerSe(chave -> idHospital != null && idHospital.equals(chave.idHospital()));
+    }
+
+    // Hospitais e configurações a que os parâmetros estão ligados; tirado antes de alterá-los, para que a
+    // remoção alcance também os vínculos antigos
+    public static Vinculos vinculos(Collection<RegraEscalaParametro> parametros) {
+        Set<Long> hospitais = new HashSet<>();
+        Set<Long> configuracoes = new HashSet<>();
+        for (RegraEscalaParametro parametro : parametros) {
+            if (parametro.getIdHospital() != null) {
+                hospitais.add(parametro.getIdHospital());
+            }
+            if (parametro.getRegraConfiguracao() != null && parametro.getRegraConfiguracao().getId() != null) {
+                configuracoes.add(parametro.getRegraConfiguracao().getId());
+            }
+        }
+        return new Vinculos(hospitais, configuracoes);
+    }
+
+    // Parâmetros alterados: remove as configurações e os hospitais a que eles pertenciam antes da alteração
+    // e a que pertencem depois dela
+    public synchronized void removerAfetados(Vinculos antes, Collection<RegraEscalaParametro> depois) {
+        versao++;
+        Vinculos atuais = vinculos(depois);
+        Set<Long> hospitais = new HashSet<>(antes.hospitais());
+        hospitais.addAll(atuais.hospitais());
+        Set<Long> configuracoes = new HashSet<>(antes.configuracoes());
+        configuracoes.addAll(atuais.configuracoes());
+        linhas.keySet().removeAll(hospitais);
+        removerSe(chave -> hospitais.contains(chave.idHospital())
+                || configuracoes.contains(chave.idRegraConfiguracao()));
+    }
+
+    public synchronized EstatisticasCacheRegrasDTO estatisticas() {
+        return new EstatisticasCacheRegrasDTO(acertos.get(), faltas.get(), remocoes.get(), entradas.size(), capacidade);
+    }
+
+    private synchronized long versao() {
+        return versao;
+    }
+
+    // Todos os parâmetros ativos do hospital, com as vigências passadas e futuras, numa única consulta
+    private LinhaVigencia linha(Long idHospital, long versaoCarga) {
+        synchronized (this) {
+            LinhaVigencia linha = linhas.get(idHospital);
+            if (linha != null) {
+                return linha;
+            }
+        }
+        LinhaVigencia linha = transacaoCarga.execute(status -> new LinhaVigencia(
+                regraEscalaParametroRepository.findByIdHospitalAndAtivoTrue(idHospital)));
+        synchronized (this) {
+            if (versaoCarga == versao) {
+                linhas.put(idHospital, linha);
+            }
+        }
+        return linha;
+    }
+
+    // A versão é a lida antes de obter a linha: se houve remoção depois, o trecho é compilado de uma linha
+    // que pode estar desatualizada e não fica no cache
+    private RegrasCompiladas trecho(Long idHospital, LinhaVigencia linha, LocalDate inicioTrecho, long versaoCarga) {
+        return obter(new Chave(null, idHospital, inicioTrecho), versaoCarga,
+                () -> resolvedorVigencia.compilarTrecho(linha, inicioTrecho));
+    }
+
+    private RegrasCompiladas obter(Chave chave, long versaoCarga, Supplier<RegrasCompiladas> carga) {
+        synchronized (this) {
+            RegrasCompiladas regras = entradas.get(chave);
+            if (regras != null) {
+                acertos.incrementAndGet();
+                return regras;
+            }
+        }
+        faltas.incrementAndGet();
+
+        // A consulta e a compilação acontecem fora do lock para não serializar gerações de hospitais diferentes
+        RegrasCompiladas regras = carga.get();
+        synchronized (this) {
+            if (versaoCarga == versao) {
+                entradas.put(chave, regras);
+            }
+        }
+        return regras;
+    }
+
+    private void removerSe(Predicate<Chave> condicao) {
+        int antes = entradas.size();
+        entradas.keySet().removeIf(condicao);
+        remocoes.addAndGet(antes - entradas.size());
+    }
+
+    private static <K, V> Map<K, V> lru(int capacidade) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> maisAntiga) {
+                return size() > capacidade;
+            }
+        };
+    }
+
+    public record Vinculos(Set<Long> hospitais, Set<Long> configuracoes) {
+    }
+
+    // Trechos de vigência do hospital são identificados pelo dia em que começam
+    private record Chave(Long idRegraConfiguracao, Long idHospital, LocalDate inicioTrecho) {
+    }
+}
@@ -0,0 +1,167 @@
+package br.com.bigplant.escala.service;
+
+import br.com.bigplant.escala.model.Profissional;
+import br.com.bigplant.escala.repository.FotoPerfilRepository;
+import br.com.bigplant.escala.repository.ProfissionalRepository;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import javax.imageio.ImageIO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+// Fotos de perfil: a imagem enviada é guardada uma vez, em binário, com uma miniatura gerada no envio.
+// O profissional guarda só a versão (hash do conteúdo), que entra na URL; mesma URL = mesma imagem, então
+// a leitura pode ser cacheada pelo navegador enquanto a URL valer.
+@Service
+public class FotoPerfilService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FotoPerfilService.class);
+
+    // Mesmo limite do envio no frontend
+    public static final int TAMANHO_MAXIMO = 5 * 1024 * 1024;
+    // Lado maior da miniatura, suficiente para os avatares das listagens e da escala
+    public static final int LADO_MINIATURA = 128;
+
+    private static final String PREFIXO_DATA_URL = "data:";
+    private static final String MARCA_BASE64 = ";base64";
+
+    private final FotoPerfilRepository fotoPerfilRepository;
+    private final ProfissionalRepository profissionalRepository;
+
+    public FotoPerfilService(
+            FotoPerfilRepository fotoPerfilRepository, ProfissionalRepository profissionalRepository) {
+        this.fotoPerfilRepository = fotoPerfilRepository;
+        this.profissionalRepository = profissionalRepository;
+    }
+
+    private record Miniatura(String tipo, byte[] conteudo) {}
+
+    // Aplica ao profissional já salvo o valor de fotoPerfil vindo do cliente e o salva com a versão nova:
+    // data URL = foto nova, URL http(s) externa = foto externa, texto vazio = remover. A URL de leitura da
+    // própria foto, que as respostas devolvem e os formulários reenviam, não altera nada.
+    @Transactional
+    public void aplicar(Profissional profissional, String valor) {
+        if (valor == null || ehUrlPropria(profissional.getId(), valor)) {
+            return;
+        }
+        if (valor.isBlank()) {
+            remover(profissional);
+        } else if (valor.startsWith(PREFIXO_DATA_URL)) {
+            salvarDataUrl(profissional, valor);
+        } else if (valor.startsWith("http://") || valor.startsWith("https://")) {
+            salvarUrlExterna(profissional, valor);
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Foto inválida");
+        }
+    }
+
+    @Transactional
+    public void salvarUrlExterna(Profissional profissional, String url) {
+        String versao = versao(url.getBytes(StandardCharsets.UTF_8));
+        fotoPerfilRepository.salvarUrlExterna(profissional.getId(), versao, url);
+        profissional.setVersaoFoto(versao);
+        profissionalRepository.save(profissional);
+    }
+
+    @Transactional
+    public void remover(Profissional profissional) {
+        fotoPerfilRepository.remover(profissional.getId());
+        profissional.setVersaoFoto(null);
+        profissionalRepository.save(profissional);
+    }
+
+    // A miniatura só é gerada no envio; fotos sem ela (migradas, ou que o Java não lê) entregam a original.
+    // Imagens acima do limite de envio (só as migradas da coluna antiga) vêm sem conteúdo.
+    public Optional<FotoPerfilRepository.Foto> ler(Long idProfissional, String versao, boolean miniatura) {
+        return fotoPerfilRepository.ler(idProfissional, versao, miniatura, TAMANHO_MAXIMO);
+    }
+
+    // data:<tipo>;base64,<conteúdo>
+    private void salvarDataUrl(Profissional profissional, String dataUrl) {
+        int virgula = dataUrl.indexOf(',');
+        if (virgula < 0 || !dataUrl.substring(0, virgula).endsWith(MARCA_BASE64)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Foto deve ser uma imagem em base64");
+        }
+        String tipo = dataUrl.substring(PREFIXO_DATA_URL.length(), virgula - MARCA_BASE64.length());
+        if (!tipo.startsWith("image/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Foto deve ser uma imagem");
+        }
+        byte[] imagem;
+        try {
+            imagem = Base64.getMimeDecoder().decode(dataUrl.substring(virgula + 1));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Foto com base64 inválido");
+        }
+        if (imagem.length == 0 || imagem.length > TAMANHO_MAXIMO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A imagem deve ter no máximo 5MB");
+        }
+        String versao = versao(imagem);
+        // Formatos que o Java não lê (webp, svg...) ficam sem miniatura e a leitura entrega a imagem original
+        Miniatura miniatura = gerarMiniatura(imagem);
+        fotoPerfilRepository.salvarImagem(profissional.getId(), versao, tipo, imagem,
+                miniatura != null ? miniatura.tipo() : tipo, miniatura != null ? miniatura.conteudo() : null);
+        profissional.setVersaoFoto(versao);
+        profissionalRepository.save(profissional);
+    }
+
+    // Reduz para caber em LADO_MINIATURA x LADO_MINIATURA (sem ampliar); PNG se houver transparência, senão JPEG
+    private static Miniatura gerarMiniatura(byte[] imagem) {
+        try {
+            BufferedImage original = ImageIO.read(new ByteArrayInputStream(imagem));
+            if (original == null) {
+                return null;
+            }
+            double escala = Math.min(1.0,
+                    (double) LADO_MINIATURA / Math.max(original.getWidth(), original.getHeight()));
+            int largura = Math.max(1, (int) Math.round(original.getWidth() * escala));
+            int altura = Math.max(1, (int) Math.round(original.getHeight() * escala));
+            boolean transparente = original.getColorModel().hasAlpha();
+            BufferedImage reduzida = new BufferedImage(
+                    largura, altura, transparente ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D grafico = reduzida.createGraphics();
+            try {
+                grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                grafico.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                grafico.drawImage(original, 0, 0, largura, altura, null);
+            } finally {
+                grafico.dispose();
+            }
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            String formato = transparente ? "png" : "jpeg";
+            if (!ImageIO.write(reduzida, formato, saida)) {
+                return null;
+            }
+            return new Miniatura("image/" + formato, saida.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Não foi possível gerar a miniatura da foto: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean ehUrlPropria(Long idProfissional, String valor) {
+        return valor.contains("/api/profissionais/" + idProfissional + "/foto");
+    }
+
+    private static String versao(byte[] conteudo) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(conteudo);
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.bigplant.escala.service;
+
+import br.com.bigplant.escala.dto.DadosGeracaoEscalaDTO;
+import br.com.bigplant.escala.geracao.JobGeracao;
+import br.com.bigplant.escala.geracao.ProgressoGeracao;
+import br.com.bigplant.escala.model.Escala;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class GeracaoEscalaJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeracaoEscalaJobService.class);
+    private static final long HORAS_RETENCAO_JOBS = 1;
+
+    private final GeracaoEscalaService geracaoEscalaService;
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<String, JobGeracao> jobs = new ConcurrentHashMap<>();
+    // Uma geração por hospital por vez
+    private final Map<Long, String> jobEmExecucaoPorHospital = new ConcurrentHashMap<>();
+
+    public GeracaoEscalaJobService(
+            GeracaoEscalaService geracaoEscalaService,
+            @Qualifier("geracaoEscalaExecutor") ThreadPoolTaskExecutor executor) {
+        this.geracaoEscalaService = geracaoEscalaService;
+        this.executor = executor;
+    }
+
+    public JobGeracao submeter(Long idHospital, DadosGeracaoEscalaDTO dados) {
+        removerJobsExpirados();
+
+        JobGeracao job = new JobGeracao(UUID.randomUUID().toString(), idHospital);
+        reservar(idHospital, job.getId());
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> executar(job, dados));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            jobEmExecucaoPorHospital.remove(idHospital, job.getId());
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE, "Fila de geração cheia, tente novamente em instantes");
+        }
+        return job;
+    }
+
+    // Geração na própria requisição (endpoint síncrono), sob a mesma trava por hospital dos jobs
+    public Escala gerarSincrono(Long idHospital, DadosGeracaoEscalaDTO dados) {
+        String idGeracao = UUID.randomUUID().toString();
+        reservar(idHospital, idGeracao);
+        try {
+            return geracaoEscalaService.gerarEscala(idHospital, dados, ProgressoGeracao.NENHUM);
+        } finally {
+            jobEmExecucaoPorHospital.remove(idHospital, idGeracao);
+        }
+    }
+
+    public Optional<JobGeracao> buscar(String idJob) {
+        return Optional.ofNullable(jobs.get(idJob));
+    }
+
+    private void executar(JobGeracao job, DadosGeracaoEscalaDTO dados) {
+        job.iniciar();
+        try {
+            Escala escala = geracaoEscalaService.gerarEscala(job.getIdHospital(), dados, job);
+            job.concluir(escala.getId());
+        } catch (ResponseStatusException e) {
+            job.falhar(e.getReason());
+        } catch (Exception e) {
+            logger.error("Erro na geração assíncrona da escala do hospital {}", job.getIdHospital(), e);
+            job.falhar("Erro interno ao gerar escala: " + e.getMessage());
+        } finally {
+            jobEmExecucaoPorHospital.remove(job.getIdHospital(), job.getId());
+        }
+    }
+
+    private void reservar(Long idHospital, String idGeracao) {
+        String jobAtual = jobEmExecucaoPorHospital.putIfAbsent(idHospital, idGeracao);
+        if (jobAtual != null) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT, "Já existe uma geração em andamento para este hospital: " + jobAtual);
+        }
+    }
+
+    private void removerJobsExpirados() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(HORAS_RETENCAO_JOBS);
+        jobs.values().removeIf(j -> j.finalizado() && j.getConcluidoEm() != null && j.getConcluidoEm().isBefore(limite));
+    }
+}
@@ -1,99 +1,382 @@
 package br.com.bigplant.escala.service;
 
 import br.com.bigplant.escala.dto.DadosGeracaoEscalaDTO;
+import br.com.bigplant.escala.dto.DadosReparoEscalaDTO;
+import br.com.bigplant.escala.dto.DadosSimulacaoEscalaDTO;
+import br.com.bigplant.escala.dto.ResultadoReparoDTO;
+import br.com.bigplant.escala.dto.ResultadoSimulacaoDTO;
+import br.com.bigplant.escala.dto.VarianteRegrasDTO;
+import br.com.bigplant.escala.geracao.AlocadorEscala;
+import br.com.bigplant.escala.geracao.EstadoAlocacao;
+import br.com.bigplant.escala.geracao.ExpansorModelosTurno;
+import br.com.bigplant.escala.geracao.IndiceProfissionais;
+import br.com.bigplant.escala.geracao.MatrizDisponibilidade;
+import br.com.bigplant.escala.geracao.MetricasEscala;
+import br.com.bigplant.escala.geracao.OtimizadorEscala;
+import br.com.bigplant.escala.geracao.ParticaoEscala;
+import br.com.bigplant.escala.geracao.ParticionadorEscala;
+import br.com.bigplant.escala.geracao.ProgressoGeracao;
+import br.com.bigplant.escala.geracao.RastroAlocacao;
+import br.com.bigplant.escala.geracao.ReparadorEscala;
+import br.com.bigplant.escala.geracao.SolucionadorRestricoes;
+import br.com.bigplant.escala.geracao.TempoCompacto;
+import br.com.bigplant.escala.geracao.TurnosCompactos;
+import br.com.bigplant.escala.geracao.regras.RegraMaxPlantoesConsecutivos;
+import br.com.bigplant.escala.geracao.regras.RegrasCompiladas;
+import br.com.bigplant.escala.geracao.regras.RegrasPorPeriodo;
+import br.com.bigplant.escala.geracao.regras.RegrasVinculadas;
 import br.com.bigplant.escala.model.Escala;
+import br.com.bigplant.escala.model.LocalAtendimento;
+import br.com.bigplant.escala.model.ModeloTurno;
 import br.com.bigplant.escala.model.Turno;
 import br.com.bigplant.escala.model.Profissional;
+import br.com.bigplant.escala.model.ResumoEscalaProfissional;
 import br.com.bigplant.escala.model.Disponibilidade;
-import br.com.bigplant.escala.model.RegraEscalaParametro;
 import br.com.bigplant.escala.repository.EscalaRepository;
+import br.com.bigplant.escala.repository.LocalAtendimentoRepository;
+import br.com.bigplant.escala.repository.ModeloTurnoRepository;
+import br.com.bigplant.escala.repository.TurnoLoteRepository;
 import br.com.bigplant.escala.repository.TurnoRepository;
 import br.com.bigplant.escala.repository.ProfissionalRepository;
 import br.com.bigplant.escala.repository.DisponibilidadeRepository;
-import br.com.bigplant.escala.repository.RegraEscalaParametroRepository;
+import br.com.bigplant.escala.service.OcupacaoProfissionaisService.Ocupacao;
+import jakarta.persistence.EntityManager;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class GeracaoEscalaService {
 
     private final EscalaRepository escalaRepository;
     private final TurnoRepository turnoRepository;
+    private final TurnoLoteRepository turnoLoteRepository;
     private final ProfissionalRepository profissionalRepository;
     private final DisponibilidadeRepository disponibilidadeRepository;
-    private final RegraEscalaParametroRepository regraEscalaParametroRepository;
+    private final ModeloTurnoRepository modeloTurnoRepository;
+    private final LocalAtendimentoRepository localAtendimentoRepository;
+    private final EntityManager entityManager;
+    private final ForkJoinPool geracaoForkJoinPool;
+    private final CacheRegrasService cacheRegrasService;
+    private final ResumoEscalaService resumoEscalaService;
+    private final OcupacaoProfissionaisService ocupacaoProfissionaisService;
+    private final RastroGeracaoService rastroGeracaoService;
+
+    private static final int MAX_VARIANTES_SIMULACAO = 8;
+    private static final String MODO_GULOSO = "GULOSO";
+    private static final String MODO_RESTRICOES = "RESTRICOES";
+    private static final int TEMPO_BUSCA_PADRAO_MS = 1000;
 
     public GeracaoEscalaService(
             EscalaRepository escalaRepository,
             TurnoRepository turnoRepository,
+            TurnoLoteRepository turnoLoteRepository,
             ProfissionalRepository profissionalRepository,
             DisponibilidadeRepository disponibilidadeRepository,
-            RegraEscalaParametroRepository regraEscalaParametroRepository) {
+            ModeloTurnoRepository modeloTurnoRepository,
+            LocalAtendimentoRepository localAtendimentoRepository,
+            EntityManager entityManager,
+            @Qualifier("geracaoForkJoinPool") ForkJoinPool geracaoForkJoinPool,
+            CacheRegrasService cacheRegrasService,
+            ResumoEscalaService resumoEscalaService,
+            OcupacaoProfissionaisService ocupacaoProfissionaisService,
+            RastroGeracaoService rastroGeracaoService) {
         this.escalaRepository = escalaRepository;
         this.turnoRepository = turnoRepository;
+        this.turnoLoteRepository = turnoLoteRepository;
         this.profissionalRepository = profissionalRepository;
         this.disponibilidadeRepository = disponibilidadeRepository;
-        this.regraEscalaParametroRepository = regraEscalaParametroRepository;
+        this.modeloTurnoRepository = modeloTurnoRepository;
+        this.localAtendimentoRepository = localAtendimentoRepository;
+        this.entityManager = entityManager;
+        this.geracaoForkJoinPool = geracaoForkJoinPool;
+        this.cacheRegrasService = cacheRegrasService;
+        this.resumoEscalaService = resumoEscalaService;
+        this.ocupacaoProfissionaisService = ocupacaoProfissionaisService;
+        this.rastroGeracaoService = rastroGeracaoService;
     }
 
+    // Com período informado nos dados, gera o horizonte pedido; caso contrário, os próximos quinze dias
     @Transactional
-    public Escala gerarEscalaProximosQuinzeDias(Long idHospital, DadosGeracaoEscalaDTO dados) {
-        LocalDate hoje = LocalDate.now();
-        LocalDate dataFim = hoje.plusDays(15);
+    public Escala gerarEscala(Long idHospital, DadosGeracaoEscalaDTO dados, ProgressoGeracao progresso) {
+        if (dados.getDataInicio() == null || dados.getDataFim() == null) {
+            LocalDate hoje = LocalDate.now();
+            return gerarEscala(idHospital, hoje, hoje.plusDays(15), dados, progresso);
+        }
+        return gerarEscala(idHospital, dados.getDataInicio(), dados.getDataFim(), dados, progresso);
+    }
+
+    // Gera a escala de um período arbitrário processando o horizonte em blocos (por padrão, mês a mês).
+    // O estado das regras (noites no mês, plantões consecutivos, última saída) atravessa os blocos e
+    // cada bloco é persistido e descarregado do contexto antes do próximo, mantendo a memória estável.
+    // Esse estado parte do resumo da escala anterior e o estado final vira o resumo desta escala.
+    @Transactional
+    public Escala gerarEscala(
+            Long idHospital, LocalDate inicio, LocalDate fim, DadosGeracaoEscalaDTO dados, ProgressoGeracao progresso) {
+        if (inicio == null || fim == null || fim.isBefore(inicio)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período de geração inválido");
+        }
+        progresso.iniciarFase(ProgressoGeracao.FASE_CARREGAMENTO);
+        long marco = System.nanoTime();
 
         Escala escala = new Escala();
         escala.setIdHospital(idHospital);
-        escala.setDataInicio(hoje);
-        escala.setDataFim(dataFim);
+        escala.setDataInicio(inicio);
+        escala.setDataFim(fim);
         escala.setStatus("GERADA");
+        Long idEscala = escalaRepository.save(escala).getId();
+
+        List<Profissional> profissionais = carregarProfissionais(idHospital, dados);
+        RegrasPorPeriodo regras = profissionais.isEmpty()
+                ? null
+                : cacheRegrasService.obter(idHospital, inicio, fim, dados.getIdRegraConfiguracao());
+        Map<Long, ResumoEscalaProfissional> resumoAnterior = profissionais.isEmpty()
+                ? Map.of()
+                : resumoEscalaService.anterior(idHospital, inicio);
+        ExpansorModelosTurno expansor = carregarModelos(idHospital, dados);
+        RastroAlocacao rastro = rastroGeracaoService.criar(dados);
+        progresso.registrarTempoFase(ProgressoGeracao.FASE_CARREGAMENTO, System.nanoTime() - marco);
+
+        FonteDadosGeracao fonte = new FonteDadosGeracao() {
+            @Override
+            public List<Turno> turnosExistentes(LocalDate de, LocalDate ate) {
+                return turnoRepository.findByIdHospitalAndDataBetween(idHospital, de, ate);
+            }
 
-        List<Turno> turnos = new ArrayList<>();
+            @Override
+            public List<Disponibilidade> disponibilidades(LocalDate de, LocalDate ate) {
+                return disponibilidadeRepository.findByIdHospitalAndDataBetweenAndDisponivelTrue(idHospital, de, ate);
+            }
 
-        LocalDate data = hoje;
-        while (!data.isAfter(dataFim)) {
-            Turno turnoDia = new Turno();
-            turnoDia.setData(data);
-            turnoDia.setHoraInicio(LocalTime.of(7, 0));
-            turnoDia.setHoraFim(LocalTime.of(19, 0));
-            turnoDia.setTipo("DIA");
-            turnoDia.setLocal("Hospital Principal");
-            turnoDia.setIdHospital(idHospital);
-            turnoDia.setEscala(escala);
-            turnos.add(turnoDia);
+            @Override
+            public List<Ocupacao> ocupacoesOutrosHospitais(LocalDate de, LocalDate ate) {
+                return carregarOcupacoesExternas(idHospital, profissionais, de, ate);
+            }
+        };
+        List<ParticaoEscala> particoes = executarGeracao(inicio, fim, dados, expansor, profissionais, regras,
+                resumoAnterior, tempoOtimizacaoNanos(dados.getTempoOtimizacaoMs()), 1, fonte, rastro, turnosBloco -> {
+                    // INSERTs de várias linhas fora do contexto de persistência: poucas idas ao banco por bloco
+                    // e o contexto não cresce com a escala. O índice de ocupação é avisado como faria o listener.
+                    entityManager.flush();
+                    turnoLoteRepository.inserir(turnosBloco, idEscala);
+                    turnosBloco.forEach(ocupacaoProfissionaisService::turnoGravado);
+                    entityManager.clear();
+                }, progresso);
+        resumoEscalaService.registrar(idEscala, idHospital, fim, particoes);
+        rastroGeracaoService.guardar(idEscala, rastro);
+
+        return escalaRepository.findById(idEscala).orElseThrow();
+    }
 
-            Turno turnoNoite = new Turno();
-            turnoNoite.setData(data);
-            turnoNoite.setHoraInicio(LocalTime.of(19, 0));
-            turnoNoite.setHoraFim(LocalTime.of(7, 0));
-            turnoNoite.setTipo("NOITE");
-            turnoNoite.setLocal("Hospital Principal");
-            turnoNoite.setIdHospital(idHospital);
-            turnoNoite.setEscala(escala);
-            turnos.add(turnoNoite);
+    // Simulação (what-if): roda o mesmo motor da geração sobre um snapshot em memória, uma vez por
+    // variante de regras e com as variantes em paralelo. Nada é gravado: nem escala, nem turnos, nem auditoria.
+    @Transactional(readOnly = true)
+    public List<ResultadoSimulacaoDTO> simularEscala(Long idHospital, DadosSimulacaoEscalaDTO dados) {
+        LocalDate inicio = dados.getDataInicio();
+        LocalDate fim = dados.getDataFim();
+        if (inicio == null || fim == null) {
+            inicio = LocalDate.now();
+            fim = inicio.plusDays(15);
+        }
+        if (fim.isBefore(inicio)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período de simulação inválido");
+        }
+        List<VarianteRegrasDTO> variantes = dados.getVariantes() == null || dados.getVariantes().isEmpty()
+                ? List.of(new VarianteRegrasDTO())
+                : dados.getVariantes();
+        if (variantes.size() > MAX_VARIANTES_SIMULACAO) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "Máximo de " + MAX_VARIANTES_SIMULACAO + " variantes por simulação");
+        }
+
+        // Snapshot único, compartilhado (somente leitura) por todas as variantes
+        List<Profissional> profissionais = carregarProfissionais(idHospital, dados);
+        List<Turno> turnosExistentes = turnoRepository.findByIdHospitalAndDataBetween(
+                idHospital, inicio.minusDays(1), fim.plusDays(1));
+        List<Disponibilidade> disponibilidades =
+                disponibilidadeRepository.findByIdHospitalAndDataBetweenAndDisponivelTrue(idHospital, inicio, fim);
+        Map<Long, ResumoEscalaProfissional> resumoAnterior = profissionais.isEmpty()
+                ? Map.of()
+                : resumoEscalaService.anterior(idHospital, inicio);
+        List<Ocupacao> ocupacoesExternas =
+                carregarOcupacoesExternas(idHospital, profissionais, inicio.minusDays(1), fim.plusDays(1));
+        ExpansorModelosTurno expansor = carregarModelos(idHospital, dados);
+        FonteDadosGeracao snapshot = new FonteDadosGeracao() {
+            @Override
+            public List<Turno> turnosExistentes(LocalDate de, LocalDate ate) {
+                return turnosExistentes.stream()
+                        .filter(t -> !t.getData().isBefore(de) && !t.getData().isAfter(ate))
+                        .toList();
+            }
+
+            @Override
+            public List<Disponibilidade> disponibilidades(LocalDate de, LocalDate ate) {
+                return disponibilidades.stream()
+                        .filter(d -> d.getData() != null && !d.getData().isBefore(de) && !d.getData().isAfter(ate))
+                        .toList();
+            }
 
-            data = data.plusDays(1);
+            @Override
+            public List<Ocupacao> ocupacoesOutrosHospitais(LocalDate de, LocalDate ate) {
+                return ocupacoesExternas.stream()
+                        .filter(o -> o.dia() >= de.toEpochDay() && o.dia() <= ate.toEpochDay())
+                        .toList();
+            }
+        };
+
+        LocalDate inicioSimulacao = inicio;
+        LocalDate fimSimulacao = fim;
+        List<Callable<ResultadoSimulacaoDTO>> tarefas = new ArrayList<>();
+        for (int i = 0; i < variantes.size(); i++) {
+            VarianteRegrasDTO variante = variantes.get(i);
+            String nome = variante.getNome() != null ? variante.getNome() : "Variante " + (i + 1);
+            Long idRegraConfiguracao = variante.getIdRegraConfiguracao() != null
+                    ? variante.getIdRegraConfiguracao()
+                    : dados.getIdRegraConfiguracao();
+            RegrasPorPeriodo regras = cacheRegrasService
+                    .obter(idHospital, inicioSimulacao, fimSimulacao, idRegraConfiguracao)
+                    .sobrescrever(variante.getParametros());
+            long tempoOtimizacao = tempoOtimizacaoNanos(variante.getTempoOtimizacaoMs() != null
+                    ? variante.getTempoOtimizacaoMs()
+                    : dados.getTempoOtimizacaoMs());
+            int execucoesConcorrentes = variantes.size();
+            tarefas.add(() -> {
+                List<Turno> turnos = new ArrayList<>();
+                executarGeracao(inicioSimulacao, fimSimulacao, dados, expansor, profissionais,
+                        profissionais.isEmpty() ? null : regras, resumoAnterior, tempoOtimizacao, execucoesConcorrentes,
+                        snapshot, null, turnos::addAll, ProgressoGeracao.NENHUM);
+                // As métricas usam as regras em vigor no início da simulação
+                RegrasCompiladas regrasInicio = regras.em(inicioSimulacao);
+                MetricasEscala metricas =
+                        MetricasEscala.calcular(turnos, profissionais, regrasInicio, inicioSimulacao, fimSimulacao);
+                return new ResultadoSimulacaoDTO(nome, regrasEfetivas(regrasInicio), metricas, turnos);
+            });
+        }
+        return executarEmParalelo(tarefas);
+    }
+
+    // Reparo incremental: realoca apenas os turnos afetados (sem profissional, profissional inativo ou
+    // excluído, indisponível, em conflito de horário ou indicados explicitamente) a partir de hoje.
+    // Se algum continuar vago, tenta de novo liberando os turnos vizinhos (mesmo dia, anterior e seguinte).
+    @Transactional
+    public ResultadoReparoDTO repararEscala(Long idEscala, DadosReparoEscalaDTO dados) {
+        long marco = System.nanoTime();
+        Escala escala = escalaRepository.findById(idEscala)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Escala não encontrada"));
+        Long idHospital = escala.getIdHospital();
+        LocalDate inicio = dados.getDataInicio() != null ? dados.getDataInicio() : LocalDate.now();
+        if (escala.getDataInicio() != null && inicio.isBefore(escala.getDataInicio())) {
+            inicio = escala.getDataInicio();
+        }
+        LocalDate fim = escala.getDataFim();
+        if (fim == null || fim.isBefore(inicio)) {
+            return new ResultadoReparoDTO(idEscala, 0, 0, 0, 0, List.of());
         }
 
-        aplicarRegrasEAlocarProfissionais(idHospital, hoje, dataFim, turnos, dados);
+        List<Profissional> profissionais = profissionalRepository.findByIdHospitalAndAtivoTrue(idHospital);
+        if (dados.getIdsProfissionaisExcluidos() != null && !dados.getIdsProfissionaisExcluidos().isEmpty()) {
+            profissionais = profissionais.stream()
+                    .filter(p -> !dados.getIdsProfissionaisExcluidos().contains(p.getId()))
+                    .collect(Collectors.toList());
+        }
+        IndiceProfissionais indiceProfissionais = new IndiceProfissionais(profissionais);
+        RegrasVinculadas regras = cacheRegrasService.obter(idHospital, inicio, inicio, dados.getIdRegraConfiguracao())
+                .em(inicio)
+                .vincular(indiceProfissionais);
+
+        // O contexto cobre a maior sequência de plantões permitida entre os profissionais
+        int maiorSequencia = 1;
+        for (int limite : regras.inteiros(RegraMaxPlantoesConsecutivos.CHAVE, 0)) {
+            maiorSequencia = Math.max(maiorSequencia, limite);
+        }
+        int margem = maiorSequencia + 1;
+        LocalDate inicioContexto = inicio.minusDays(margem);
+        if (inicio.withDayOfMonth(1).isBefore(inicioContexto)) {
+            inicioContexto = inicio.withDayOfMonth(1);
+        }
+        LocalDate fimContexto = fim.plusDays(margem);
+        if (fim.withDayOfMonth(fim.lengthOfMonth()).isAfter(fimContexto)) {
+            fimContexto = fim.withDayOfMonth(fim.lengthOfMonth());
+        }
 
-        escala.setTurnos(turnos);
+        List<Turno> turnosContexto = turnoRepository.findByIdHospitalAndDataBetween(idHospital, inicioContexto, fimContexto);
+        MatrizDisponibilidade matrizDisponibilidade = new MatrizDisponibilidade(inicio, fim, indiceProfissionais,
+                disponibilidadeRepository.findByIdHospitalAndDataBetweenAndDisponivelTrue(idHospital, inicio, fim));
 
-        Escala escalaSalva = escalaRepository.save(escala);
-        // turnoRepository.saveAll(turnos); // CascadeType.ALL already handles this
+        LocalDate inicioJanela = inicio;
+        List<Turno> turnosJanela = turnosContexto.stream()
+                .filter(t -> t.getEscala() != null && idEscala.equals(t.getEscala().getId()))
+                .filter(t -> !t.getData().isBefore(inicioJanela) && !t.getData().isAfter(fim))
+                .sorted(Comparator.comparingLong(TempoCompacto::inicio).thenComparing(Turno::getId))
+                .toList();
+        Set<Turno> afetados = identificarAfetados(
+                turnosJanela, turnosContexto, indiceProfissionais, matrizDisponibilidade, dados.getIdsTurnos());
+        int quantidadeAfetados = afetados.size();
+        if (afetados.isEmpty()) {
+            return new ResultadoReparoDTO(idEscala, 0, 0, 0, (System.nanoTime() - marco) / 1_000_000, List.of());
+        }
 
-        return escalaSalva;
+        List<Turno> realocar = turnosJanela.stream().filter(afetados::contains).toList();
+        TurnosCompactos resultado = realocarTurnos(realocar, turnosContexto, afetados, indiceProfissionais,
+                matrizDisponibilidade, regras, inicioContexto, fimContexto);
+        if (contarNaoAlocados(resultado) > 0 && !Boolean.FALSE.equals(dados.getExpandirVizinhanca())) {
+            Set<Long> diasVagos = new HashSet<>();
+            for (int s = 0; s < resultado.tamanho(); s++) {
+                if (resultado.alocado(s) == TurnosCompactos.NAO_ALOCADO) {
+                    diasVagos.add(resultado.dia(s));
+                }
+            }
+            Set<Turno> vizinhanca = new HashSet<>(afetados);
+            for (Turno turno : turnosJanela) {
+                long dia = turno.getData().toEpochDay();
+                if (diasVagos.contains(dia - 1) || diasVagos.contains(dia) || diasVagos.contains(dia + 1)) {
+                    vizinhanca.add(turno);
+                }
+            }
+            List<Turno> realocarVizinhanca = turnosJanela.stream().filter(vizinhanca::contains).toList();
+            TurnosCompactos resultadoVizinhanca = realocarTurnos(realocarVizinhanca, turnosContexto, vizinhanca,
+                    indiceProfissionais, matrizDisponibilidade, regras, inicioContexto, fimContexto);
+            if (contarNaoAlocados(resultadoVizinhanca) < contarNaoAlocados(resultado)) {
+                resultado = resultadoVizinhanca;
+            }
+        }
+
+        List<Turno> alterados = new ArrayList<>();
+        for (int s = 0; s < resultado.tamanho(); s++) {
+            Turno turno = resultado.turno(s);
+            Long idProfissional = resultado.alocado(s) == TurnosCompactos.NAO_ALOCADO
+                    ? null
+                    : indiceProfissionais.id(resultado.alocado(s));
+            if (!Objects.equals(idProfissional, turno.getIdProfissional())) {
+                turno.setIdProfissional(idProfissional);
+                alterados.add(turno);
+            }
+        }
+        turnoRepository.saveAll(alterados);
+        resumoEscalaService.recalcular(escala, turnosContexto, inicioContexto);
+        return new ResultadoReparoDTO(idEscala, quantidadeAfetados, alterados.size(), contarNaoAlocados(resultado),
+                (System.nanoTime() - marco) / 1_000_000, alterados);
     }
 
     public Optional<Escala> buscarUltimaEscala(Long idHospital) {
@@ -111,229 +394,441 @@ public class GeracaoEscalaService {
     @Transactional
     public void excluirEscala(Long id) {
         if (escalaRepository.existsById(id)) {
+            resumoEscalaService.remover(id);
+            rastroGeracaoService.remover(id);
             escalaRepository.deleteById(id);
         } else {
             throw new IllegalArgumentException("Escala não encontrada");
         }
     }
 
-    private void aplicarRegrasEAlocarProfissionais(
-            Long idHospital, LocalDate inicio, LocalDate fim, List<Turno> turnos, DadosGeracaoEscalaDTO dados) {
-        List<Profissional> profissionais = profissionalRepository.findByIdHospitalAndAtivoTrue(idHospital);
-        
-        // Filtrar por profissionais se fornecido
-        if (dados.getIdsProfissionais() != null && !dados.getIdsProfissionais().isEmpty()) {
-            profissionais = profissionais.stream()
-                .filter(p -> dados.getIdsProfissionais().contains(p.getId()))
-                .collect(Collectors.toList());
+    // Motor da geração, comum à geração real e à simulação: cria os turnos bloco a bloco, aloca as partições
+    // exclusivas em paralelo e depois a compartilhada, otimiza se houver orçamento e entrega cada bloco ao
+    // destino. Devolve as partições, cujo estado ao final é o das regras no último dia do horizonte. Com rastro,
+    // a alocação gulosa registra nele os filtros de cada turno (o modo por restrições não é rastreado).
+    private List<ParticaoEscala> executarGeracao(
+            LocalDate inicio,
+            LocalDate fim,
+            DadosGeracaoEscalaDTO dados,
+            ExpansorModelosTurno expansor,
+            List<Profissional> profissionais,
+            RegrasPorPeriodo regras,
+            Map<Long, ResumoEscalaProfissional> resumoAnterior,
+            long tempoOtimizacaoNanos,
+            int execucoesConcorrentes,
+            FonteDadosGeracao fonte,
+            RastroAlocacao rastro,
+            Consumer<List<Turno>> destino,
+            ProgressoGeracao progresso) {
+        List<ParticaoEscala> particoes = ParticionadorEscala.particionar(
+                profissionais,
+                expansor.chaves(),
+                p -> p.getEspecialidade() == null ? null : p.getEspecialidade().getId());
+        resumoEscalaService.semear(particoes, resumoAnterior);
+        // Partição de cada chave de turno; chaves sem partição (ninguém atende) geram turnos vagos
+        Map<Long, Integer> particaoPorChave = new HashMap<>();
+        for (int i = 0; i < particoes.size(); i++) {
+            for (Long chave : particoes.get(i).getChaves()) {
+                particaoPorChave.put(chave, i);
+            }
         }
-
-        // Filtrar por especialidades se fornecido
-        if (dados.getIdsEspecialidades() != null && !dados.getIdsEspecialidades().isEmpty()) {
-            profissionais = profissionais.stream()
-                .filter(p -> p.getEspecialidade() != null && dados.getIdsEspecialidades().contains(p.getEspecialidade().getId()))
-                .collect(Collectors.toList());
+        // Primeiro as partições exclusivas, em paralelo; depois a compartilhada, que já vê as alocações delas
+        List<List<Integer>> ondas = new ArrayList<>();
+        List<Integer> exclusivas = new ArrayList<>();
+        List<Integer> compartilhadas = new ArrayList<>();
+        for (int i = 0; i < particoes.size(); i++) {
+            if (particoes.get(i).compartilhada()) {
+                compartilhadas.add(i);
+            } else {
+                exclusivas.add(i);
+            }
         }
-
-        if (profissionais.isEmpty()) {
-            return;
+        if (!exclusivas.isEmpty()) {
+            ondas.add(exclusivas);
         }
-
-        // Pre-buscar turnos existentes para validação de conflito
-        List<Turno> turnosExistentes = turnoRepository.findByIdHospitalAndDataBetween(idHospital, inicio.minusDays(1), fim.plusDays(1));
-        Map<Long, List<Turno>> turnosExistentesMap = turnosExistentes.stream()
-                .collect(Collectors.groupingBy(Turno::getIdProfissional));
-
-        Long idRegraConfiguracao = dados.getIdRegraConfiguracao();
-        List<RegraEscalaParametro> regras;
-        if (idRegraConfiguracao != null) {
-            regras = regraEscalaParametroRepository.findByRegraConfiguracaoId(idRegraConfiguracao);
-        } else {
-            regras = regraEscalaParametroRepository
-                    .findByIdHospitalAndAtivoAndDataInicioVigenciaLessThanEqualAndDataFimVigenciaIsNullOrDataFimVigenciaGreaterThanEqual(
-                            idHospital, true, inicio, inicio);
+        if (!compartilhadas.isEmpty()) {
+            ondas.add(compartilhadas);
         }
+        boolean otimizar = regras != null && tempoOtimizacaoNanos > 0;
+        long tempoBuscaNanos = tempoBuscaNanos(dados);
+        long diasHorizonte = ChronoUnit.DAYS.between(inicio, fim) + 1;
+
+        int totalBlocos = 0;
+        for (LocalDate d = inicio; !d.isAfter(fim);
+                d = calcularFimBloco(d, fim, dados.getDiasPorBloco(), regras).plusDays(1)) {
+            totalBlocos++;
+        }
+        int blocosConcluidos = 0;
+
+        LocalDate inicioBloco = inicio;
+        LocalDate turnosExistentesCarregadosAte = inicio.minusDays(2);
+        while (!inicioBloco.isAfter(fim)) {
+            LocalDate fimBloco = calcularFimBloco(inicioBloco, fim, dados.getDiasPorBloco(), regras);
+            // Só os turnos do bloco são criados, já separados por partição numa única passada
+            List<Turno> turnosBloco = new ArrayList<>();
+            List<List<Turno>> turnosPorParticao = new ArrayList<>();
+            particoes.forEach(p -> turnosPorParticao.add(new ArrayList<>()));
+            expansor.expandir(inicioBloco, fimBloco).forEach(turno -> {
+                turnosBloco.add(turno);
+                Integer particao = particaoPorChave.get(turno.getIdEspecialidade());
+                if (particao != null) {
+                    turnosPorParticao.get(particao).add(turno);
+                }
+            });
+
+            if (regras != null) {
+                progresso.iniciarFase(ProgressoGeracao.FASE_CARREGAMENTO);
+                long marco = System.nanoTime();
+
+                // Pre-buscar turnos existentes para validação de conflito, sem repetir dias já carregados
+                LocalDate inicioExistentes = turnosExistentesCarregadosAte.plusDays(1);
+                LocalDate fimExistentes = fimBloco.plusDays(1);
+                List<Turno> turnosExistentes = fonte.turnosExistentes(inicioExistentes, fimExistentes);
+                List<Ocupacao> ocupacoesExternas = fonte.ocupacoesOutrosHospitais(inicioExistentes, fimExistentes);
+                turnosExistentesCarregadosAte = fimExistentes;
+
+                List<Disponibilidade> disponibilidadesBloco = fonte.disponibilidades(inicioBloco, fimBloco);
+                progresso.registrarTempoFase(ProgressoGeracao.FASE_CARREGAMENTO, System.nanoTime() - marco);
+
+                LocalDate inicioAlocacao = inicioBloco;
+                // Blocos não atravessam mudanças de vigência: as regras do primeiro dia valem para o bloco todo
+                RegrasCompiladas regrasBloco = regras.em(inicioBloco);
+                OtimizadorEscala otimizador = otimizar ? new OtimizadorEscala(regrasBloco, inicio) : null;
+                boolean guardarContexto = otimizador != null;
+                // O orçamento de otimização é dividido entre os blocos na proporção dos dias de cada um,
+                // e a parte do bloco entre as ondas
+                long diasBloco = ChronoUnit.DAYS.between(inicioBloco, fimBloco) + 1;
+                long orcamentoOnda = tempoOtimizacaoNanos * diasBloco / diasHorizonte / Math.max(1, ondas.size());
+                for (List<Integer> onda : ondas) {
+                    progresso.iniciarFase(ProgressoGeracao.FASE_ALOCACAO);
+                    marco = System.nanoTime();
+                    List<Callable<ResultadoParticao>> tarefas = new ArrayList<>();
+                    for (int i : onda) {
+                        ParticaoEscala particao = particoes.get(i);
+                        List<Turno> turnosParticao = turnosPorParticao.get(i);
+                        tarefas.add(() -> alocarParticao(particao, regrasBloco, turnosParticao, turnosExistentes,
+                                ocupacoesExternas, disponibilidadesBloco, inicioAlocacao, fimBloco, guardarContexto,
+                                tempoBuscaNanos, rastro));
+                    }
+                    List<ResultadoParticao> resultados = executarEmParalelo(tarefas).stream()
+                            .filter(r -> r != null)
+                            .toList();
+                    progresso.registrarTempoFase(ProgressoGeracao.FASE_ALOCACAO, System.nanoTime() - marco);
+
+                    if (otimizador != null && !resultados.isEmpty()) {
+                        progresso.iniciarFase(ProgressoGeracao.FASE_OTIMIZACAO);
+                        marco = System.nanoTime();
+                        long prazo = marco + orcamentoOnda;
+                        int cadeias = Math.max(
+                                1, geracaoForkJoinPool.getParallelism() / (resultados.size() * execucoesConcorrentes));
+                        List<Callable<ResultadoParticao>> otimizacoes = new ArrayList<>();
+                        for (ResultadoParticao resultado : resultados) {
+                            otimizacoes.add(() -> otimizarParticao(resultado, otimizador, prazo, cadeias));
+                        }
+                        executarEmParalelo(otimizacoes);
+                        progresso.registrarTempoFase(ProgressoGeracao.FASE_OTIMIZACAO, System.nanoTime() - marco);
+                    }
+
+                    for (ResultadoParticao resultado : resultados) {
+                        resultado.turnos().aplicar(resultado.particao().profissionais());
+                        // Quem também está em outra partição leva para ela o que recebeu nesta
+                        for (ParticaoEscala outra : particoes) {
+                            if (outra != resultado.particao()
+                                    && (outra.compartilhada() || resultado.particao().compartilhada())) {
+                                outra.registrarAlocacoes(resultado.particao().profissionais(), resultado.turnos());
+                            }
+                        }
+                    }
+                }
+            }
 
-        int maxNoitesMes = obterValorInteiroRegras(regras, "MAX_NOITES_MES", 0);
-        int minDescansoHoras = obterValorInteiroRegras(regras, "MIN_DESCANSO_HORAS", 0);
-        int maxPlantoesConsecutivos = obterValorInteiroRegras(regras, "MAX_PLANTOES_CONSECUTIVOS", 0);
+            progresso.iniciarFase(ProgressoGeracao.FASE_PERSISTENCIA);
+            long marco = System.nanoTime();
+            destino.accept(turnosBloco);
+            progresso.registrarTempoFase(ProgressoGeracao.FASE_PERSISTENCIA, System.nanoTime() - marco);
+            progresso.blocoConcluido(++blocosConcluidos, totalBlocos);
 
-        Map<Long, Integer> noitesPorProfissional = new HashMap<>();
-        Map<Long, LocalDateTime> ultimaSaidaPorProfissional = new HashMap<>();
-        Map<Long, Integer> plantoesConsecutivosPorProfissional = new HashMap<>();
-        Map<Long, LocalDate> ultimaDataComPlantaoPorProfissional = new HashMap<>();
+            inicioBloco = fimBloco.plusDays(1);
+        }
+        return particoes;
+    }
 
-        List<Turno> turnosOrdenados = turnos.stream()
-                .sorted(Comparator.comparing(Turno::getData).thenComparing(Turno::getHoraInicio))
+    // Os turnos do próprio hospital já vêm dos turnos existentes da fonte
+    private List<Ocupacao> carregarOcupacoesExternas(
+            Long idHospital, List<Profissional> profissionais, LocalDate de, LocalDate ate) {
+        if (profissionais.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = profissionais.stream().map(Profissional::getId).toList();
+        return ocupacaoProfissionaisService.ocupacoes(ids, de, ate).stream()
+                .filter(o -> !Objects.equals(idHospital, o.idHospital()))
                 .toList();
+    }
 
-        for (Turno turno : turnosOrdenados) {
-            List<Disponibilidade> disponibilidades = disponibilidadeRepository
-                    .findByIdHospitalAndDataAndTipoTurnoAndDisponivelTrue(
-                            idHospital, turno.getData(), turno.getTipo());
-
-            Set<Long> idsDisponiveis = disponibilidades.isEmpty()
-                    ? profissionais.stream().map(Profissional::getId).collect(Collectors.toSet())
-                    : disponibilidades.stream().map(Disponibilidade::getIdProfissional).collect(Collectors.toSet());
-
-            List<Profissional> candidatos = profissionais.stream()
-                    .filter(p -> idsDisponiveis.contains(p.getId()))
-                    .collect(Collectors.toList());
+    private Map<String, Object> regrasEfetivas(RegrasCompiladas regras) {
+        Map<String, Object> efetivas = new LinkedHashMap<>();
+        regras.valores().forEach((chave, valor) ->
+                efetivas.put(chave, valor.texto() != null ? valor.texto() : valor.decimal(0)));
+        return efetivas;
+    }
 
-            if (candidatos.isEmpty()) {
-                continue;
-            }
+    // Zero no modo guloso (padrão); no modo por restrições, o tempo de busca por partição e bloco
+    private long tempoBuscaNanos(DadosGeracaoEscalaDTO dados) {
+        String modo = dados.getModoAlocacao();
+        if (modo == null || modo.isBlank() || MODO_GULOSO.equalsIgnoreCase(modo.trim())) {
+            return 0;
+        }
+        if (!MODO_RESTRICOES.equalsIgnoreCase(modo.trim())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Modo de alocação inválido: " + modo);
+        }
+        Integer tempoBuscaMs = dados.getTempoBuscaMs();
+        return (tempoBuscaMs != null && tempoBuscaMs > 0 ? tempoBuscaMs : TEMPO_BUSCA_PADRAO_MS) * 1_000_000L;
+    }
 
-            LocalDateTime inicioTurno = LocalDateTime.of(turno.getData(), turno.getHoraInicio());
-            LocalDateTime fimTurno = calcularFimTurno(turno);
+    private long tempoOtimizacaoNanos(Integer tempoOtimizacaoMs) {
+        return tempoOtimizacaoMs != null && tempoOtimizacaoMs > 0 ? tempoOtimizacaoMs * 1_000_000L : 0;
+    }
 
-            // Filtro Hard: Sem Conflito
-            List<Profissional> semConflito = candidatos.stream()
-                    .filter(p -> !temConflitoHorario(p.getId(), turno, turnosExistentesMap))
-                    .collect(Collectors.toList());
-            
-            if (semConflito.isEmpty()) {
-                continue;
+    private Set<Turno> identificarAfetados(
+            List<Turno> turnosJanela,
+            List<Turno> turnosContexto,
+            IndiceProfissionais indiceProfissionais,
+            MatrizDisponibilidade matrizDisponibilidade,
+            List<Long> idsTurnos) {
+        Set<Turno> afetados = new HashSet<>();
+        for (Turno turno : turnosJanela) {
+            int idx = indiceProfissionais.indice(turno.getIdProfissional());
+            if (idx < 0
+                    || (idsTurnos != null && idsTurnos.contains(turno.getId()))
+                    || !matrizDisponibilidade.disponivel(
+                            matrizDisponibilidade.celula(turno.getData(), turno.getTipo()), idx)) {
+                afetados.add(turno);
             }
+        }
 
-            // Filtros Soft: Regras
-            List<Profissional> candidatosFiltrados = semConflito.stream()
-                    .filter(p -> respeitaDescanso(p.getId(), inicioTurno, ultimaSaidaPorProfissional, minDescansoHoras))
-                    .filter(p -> respeitaMaxNoites(turno, p.getId(), noitesPorProfissional, maxNoitesMes))
-                    .filter(p -> respeitaMaxPlantoesConsecutivos(
-                            p.getId(),
-                            turno.getData(),
-                            plantoesConsecutivosPorProfissional,
-                            ultimaDataComPlantaoPorProfissional,
-                            maxPlantoesConsecutivos))
-                    .collect(Collectors.toList());
-
-            if (candidatosFiltrados.isEmpty()) {
-                candidatosFiltrados = semConflito;
+        // Conflitos de horário do mesmo profissional: libera o turno da escala que começa depois
+        Set<Turno> daJanela = new HashSet<>(turnosJanela);
+        Map<Long, List<Turno>> porProfissional = new HashMap<>();
+        for (Turno turno : turnosContexto) {
+            if (turno.getIdProfissional() != null && !afetados.contains(turno)) {
+                porProfissional.computeIfAbsent(turno.getIdProfissional(), id -> new ArrayList<>()).add(turno);
             }
-
-            Profissional escolhido = candidatosFiltrados.stream()
-                    .min(Comparator.comparing(p -> cargaAtualEstimativa(p.getId(), turnos)))
-                    .orElse(candidatosFiltrados.get(0));
-
-            turno.setIdProfissional(escolhido.getId());
-            ultimaSaidaPorProfissional.put(escolhido.getId(), fimTurno);
-
-            LocalDate ultimaData = ultimaDataComPlantaoPorProfissional.get(escolhido.getId());
-            int plantoesConsecutivosAtuais = plantoesConsecutivosPorProfissional.getOrDefault(escolhido.getId(), 0);
-            if (ultimaData == null) {
-                plantoesConsecutivosAtuais = 1;
-            } else {
-                long diasEntre = ChronoUnit.DAYS.between(ultimaData, turno.getData());
-                if (diasEntre == 1) {
-                    plantoesConsecutivosAtuais = plantoesConsecutivosAtuais + 1;
-                } else if (diasEntre > 1) {
-                    plantoesConsecutivosAtuais = 1;
+        }
+        for (List<Turno> turnos : porProfissional.values()) {
+            turnos.sort(Comparator.comparingLong(TempoCompacto::inicio));
+            long maiorFim = Long.MIN_VALUE;
+            for (Turno turno : turnos) {
+                if (TempoCompacto.inicio(turno) < maiorFim && daJanela.contains(turno)) {
+                    afetados.add(turno);
+                    continue;
                 }
+                maiorFim = Math.max(maiorFim, TempoCompacto.fim(turno));
             }
-            plantoesConsecutivosPorProfissional.put(escolhido.getId(), plantoesConsecutivosAtuais);
-            ultimaDataComPlantaoPorProfissional.put(escolhido.getId(), turno.getData());
+        }
+        return afetados;
+    }
 
-            if ("NOITE".equalsIgnoreCase(turno.getTipo())) {
-                int atual = noitesPorProfissional.getOrDefault(escolhido.getId(), 0);
-                noitesPorProfissional.put(escolhido.getId(), atual + 1);
+    private TurnosCompactos realocarTurnos(
+            List<Turno> realocar,
+            List<Turno> turnosContexto,
+            Set<Turno> liberados,
+            IndiceProfissionais indiceProfissionais,
+            MatrizDisponibilidade matrizDisponibilidade,
+            RegrasVinculadas regras,
+            LocalDate inicioContexto,
+            LocalDate fimContexto) {
+        ReparadorEscala reparador = new ReparadorEscala(regras, inicioContexto, fimContexto);
+        for (Turno turno : turnosContexto) {
+            int idx = indiceProfissionais.indice(turno.getIdProfissional());
+            if (idx >= 0 && !liberados.contains(turno)) {
+                reparador.registrar(idx, turno);
             }
         }
+        TurnosCompactos turnos = new TurnosCompactos(realocar, matrizDisponibilidade);
+        reparador.reparar(turnos);
+        return turnos;
     }
 
-    private boolean temConflitoHorario(Long idProfissional, Turno novoTurno, Map<Long, List<Turno>> turnosExistentesMap) {
-        List<Turno> existentes = turnosExistentesMap.get(idProfissional);
-        if (existentes == null || existentes.isEmpty()) {
-            return false;
+    private int contarNaoAlocados(TurnosCompactos turnos) {
+        int naoAlocados = 0;
+        for (int s = 0; s < turnos.tamanho(); s++) {
+            if (turnos.alocado(s) == TurnosCompactos.NAO_ALOCADO) {
+                naoAlocados++;
+            }
         }
+        return naoAlocados;
+    }
 
-        LocalDateTime novoInicio = LocalDateTime.of(novoTurno.getData(), novoTurno.getHoraInicio());
-        LocalDateTime novoFim = calcularFimTurno(novoTurno);
+    // Origem dos dados lidos a cada bloco: o banco na geração real, um snapshot em memória na simulação
+    private interface FonteDadosGeracao {
 
-        for (Turno existente : existentes) {
-            LocalDateTime existenteInicio = LocalDateTime.of(existente.getData(), existente.getHoraInicio());
-            LocalDateTime existenteFim = calcularFimTurno(existente);
+        List<Turno> turnosExistentes(LocalDate inicio, LocalDate fim);
 
-            if (novoInicio.isBefore(existenteFim) && novoFim.isAfter(existenteInicio)) {
-                return true;
-            }
-        }
-        return false;
+        List<Disponibilidade> disponibilidades(LocalDate inicio, LocalDate fim);
+
+        // Turnos dos profissionais da geração em outros hospitais, que também ocupam o horário
+        List<Ocupacao> ocupacoesOutrosHospitais(LocalDate inicio, LocalDate fim);
     }
 
-    private int obterValorInteiroRegras(List<RegraEscalaParametro> regras, String chave, int valorPadrao) {
-        return regras.stream()
-                .filter(r -> chave.equalsIgnoreCase(r.getChave()))
-                .map(RegraEscalaParametro::getValorInteiro)
-                .filter(v -> v != null && v > 0)
-                .findFirst()
-                .orElse(valorPadrao);
+    // Alocação de uma partição no bloco; contexto é o estado anterior ao bloco, guardado só quando há otimização
+    private record ResultadoParticao(ParticaoEscala particao, TurnosCompactos turnos, EstadoAlocacao contexto) {
     }
 
-    private LocalDateTime calcularFimTurno(Turno turno) {
-        LocalDate dataFim = turno.getData();
-        if (turno.getHoraFim().isBefore(turno.getHoraInicio())) {
-            dataFim = dataFim.plusDays(1);
+    // Executado em paralelo: cada partição só toca o próprio estado e os próprios turnos
+    private ResultadoParticao alocarParticao(
+            ParticaoEscala particao,
+            RegrasCompiladas regras,
+            List<Turno> turnosParticao,
+            List<Turno> turnosExistentes,
+            List<Ocupacao> ocupacoesExternas,
+            List<Disponibilidade> disponibilidades,
+            LocalDate inicioBloco,
+            LocalDate fimBloco,
+            boolean guardarContexto,
+            long tempoBuscaNanos,
+            RastroAlocacao rastro) {
+        IndiceProfissionais indiceProfissionais = particao.profissionais();
+        EstadoAlocacao estado = particao.estado();
+
+        // Intervalos que terminaram antes do bloco não geram mais conflito
+        estado.ocupacao().descartarTerminadosAte(TempoCompacto.minutos(inicioBloco, LocalTime.MIDNIGHT));
+        for (Turno existente : turnosExistentes) {
+            int idx = indiceProfissionais.indice(existente.getIdProfissional());
+            if (idx >= 0) {
+                estado.ocupacao().adicionar(idx, TempoCompacto.inicio(existente), TempoCompacto.fim(existente));
+            }
+        }
+        for (Ocupacao externa : ocupacoesExternas) {
+            int idx = indiceProfissionais.indice(externa.idProfissional());
+            if (idx >= 0) {
+                estado.ocupacao().adicionar(idx, externa.inicio(), externa.fim());
+            }
+        }
+        if (turnosParticao.isEmpty() || indiceProfissionais.tamanho() == 0) {
+            return null;
         }
-        return LocalDateTime.of(dataFim, turno.getHoraFim());
-    }
 
-    private boolean respeitaDescanso(
-            Long idProfissional,
-            LocalDateTime inicioTurno,
-            Map<Long, LocalDateTime> ultimaSaidaPorProfissional,
-            int minDescansoHoras) {
-        if (minDescansoHoras <= 0) {
-            return true;
+        MatrizDisponibilidade matrizDisponibilidade =
+                new MatrizDisponibilidade(inicioBloco, fimBloco, indiceProfissionais, disponibilidades);
+        TurnosCompactos turnosCompactos = new TurnosCompactos(turnosParticao, matrizDisponibilidade);
+        EstadoAlocacao contexto = guardarContexto ? estado.copiar() : null;
+        // Os valores individuais são resolvidos uma vez para os profissionais da partição
+        RegrasVinculadas vinculadas = regras.vincular(indiceProfissionais);
+        if (tempoBuscaNanos > 0) {
+            new SolucionadorRestricoes(vinculadas, SolucionadorRestricoes.LIMITE_NOS_PADRAO, tempoBuscaNanos)
+                    .alocar(turnosCompactos, estado);
+        } else {
+            RastroAlocacao.Gravador gravador =
+                    rastro != null ? rastro.gravador(indiceProfissionais, vinculadas) : null;
+            new AlocadorEscala(vinculadas, gravador).alocar(turnosCompactos, estado);
         }
-        LocalDateTime ultimaSaida = ultimaSaidaPorProfissional.get(idProfissional);
-        if (ultimaSaida == null) {
-            return true;
+        return new ResultadoParticao(particao, turnosCompactos, contexto);
+    }
+
+    // Melhora o resultado guloso até o prazo e refaz o estado da partição a partir da solução final
+    private ResultadoParticao otimizarParticao(
+            ResultadoParticao resultado, OtimizadorEscala otimizador, long prazo, int cadeias) {
+        ParticaoEscala particao = resultado.particao();
+        TurnosCompactos turnos = resultado.turnos();
+        otimizador.otimizar(turnos, resultado.contexto(), particao.profissionais(), prazo, cadeias, geracaoForkJoinPool);
+
+        EstadoAlocacao estado = particao.estado();
+        estado.restaurar(resultado.contexto());
+        for (int s = 0; s < turnos.tamanho(); s++) {
+            if (turnos.alocado(s) != TurnosCompactos.NAO_ALOCADO) {
+                estado.registrar(turnos.alocado(s), turnos, s);
+            }
         }
-        LocalDateTime minimoPermitido = ultimaSaida.plusHours(minDescansoHoras);
-        return !inicioTurno.isBefore(minimoPermitido);
+        return resultado;
     }
 
-    private boolean respeitaMaxNoites(
-            Turno turno, Long idProfissional, Map<Long, Integer> noitesPorProfissional, int maxNoitesMes) {
-        if (maxNoitesMes <= 0) {
-            return true;
+    private <T> List<T> executarEmParalelo(List<Callable<T>> tarefas) {
+        if (tarefas.size() == 1) {
+            try {
+                List<T> resultados = new ArrayList<>();
+                resultados.add(tarefas.get(0).call());
+                return resultados;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
         }
-        if (!"NOITE".equalsIgnoreCase(turno.getTipo())) {
-            return true;
+        List<T> resultados = new ArrayList<>();
+        for (Future<T> futuro : geracaoForkJoinPool.invokeAll(tarefas)) {
+            try {
+                resultados.add(futuro.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Geração interrompida", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
         }
-        int atual = noitesPorProfissional.getOrDefault(idProfissional, 0);
-        return atual < maxNoitesMes;
+        return resultados;
     }
 
-    private boolean respeitaMaxPlantoesConsecutivos(
-            Long idProfissional,
-            LocalDate dataTurno,
-            Map<Long, Integer> plantoesConsecutivosPorProfissional,
-            Map<Long, LocalDate> ultimaDataComPlantaoPorProfissional,
-            int maxPlantoesConsecutivos) {
-        if (maxPlantoesConsecutivos <= 0) {
-            return true;
-        }
-        LocalDate ultimaData = ultimaDataComPlantaoPorProfissional.get(idProfissional);
-        if (ultimaData == null) {
-            return true;
+    private List<Profissional> carregarProfissionais(Long idHospital, DadosGeracaoEscalaDTO dados) {
+        List<Profissional> profissionais = profissionalRepository.findByIdHospitalAndAtivoTrue(idHospital);
+        
+        // Filtrar por profissionais se fornecido
+        if (dados.getIdsProfissionais() != null && !dados.getIdsProfissionais().isEmpty()) {
+            profissionais = profissionais.stream()
+                .filter(p -> dados.getIdsProfissionais().contains(p.getId()))
+                .collect(Collectors.toList());
         }
-        long diasEntre = ChronoUnit.DAYS.between(ultimaData, dataTurno);
-        if (diasEntre == 1) {
-            int atual = plantoesConsecutivosPorProfissional.getOrDefault(idProfissional, 1);
-            return atual < maxPlantoesConsecutivos;
+
+        // Filtrar por especialidades se fornecido
+        if (dados.getIdsEspecialidades() != null && !dados.getIdsEspecialidades().isEmpty()) {
+            profissionais = profissionais.stream()
+                .filter(p -> p.getEspecialidade() != null && dados.getIdsEspecialidades().contains(p.getEspecialidade().getId()))
+                .collect(Collectors.toList());
         }
-        if (diasEntre > 1) {
-            return true;
+
+        return profissionais;
+    }
+
+    // Modelos de turno ativos do hospital (só os das especialidades pedidas, quando filtradas). Sem modelos,
+    // mantém o par DIA/NOITE padrão, aberto a todos; as partições vêm das especialidades dos modelos.
+    private ExpansorModelosTurno carregarModelos(
+            Long idHospital, DadosGeracaoEscalaDTO dados) {
+        List<ModeloTurno> modelos = modeloTurnoRepository.findByIdHospitalAndAtivoTrue(idHospital).stream()
+                .filter(m -> m.getIdEspecialidade() == null
+                        || dados.getIdsEspecialidades() == null
+                        || dados.getIdsEspecialidades().isEmpty()
+                        || dados.getIdsEspecialidades().contains(m.getIdEspecialidade()))
+                .toList();
+        if (!modelos.isEmpty()) {
+            Set<Long> idsLocais = modelos.stream()
+                    .map(ModeloTurno::getIdLocalAtendimento)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<Long, String> nomesLocais = new HashMap<>();
+            for (LocalAtendimento local : localAtendimentoRepository.findAllById(idsLocais)) {
+                nomesLocais.put(local.getId(), local.getNome());
+            }
+            ExpansorModelosTurno expansor = new ExpansorModelosTurno(idHospital, modelos, nomesLocais);
+            if (!expansor.vazio()) {
+                return expansor;
+            }
         }
-        return true;
+
+        return ExpansorModelosTurno.padrao(idHospital);
     }
 
-    private int cargaAtualEstimativa(Long idProfissional, List<Turno> turnos) {
-        return (int)
-                turnos.stream()
-                        .filter(t -> idProfissional.equals(t.getIdProfissional()))
-                        .count();
+    // Sem tamanho informado, cada bloco vai até o fim do mês corrente. O bloco também termina na véspera
+    // de uma mudança de vigência das regras.
+    private LocalDate calcularFimBloco(
+            LocalDate inicioBloco, LocalDate fim, Integer diasPorBloco, RegrasPorPeriodo regras) {
+        LocalDate fimBloco = diasPorBloco != null && diasPorBloco > 0
+                ? inicioBloco.plusDays(diasPorBloco - 1L)
+                : inicioBloco.withDayOfMonth(inicioBloco.lengthOfMonth());
+        if (regras != null && regras.fimTrecho(inicioBloco).isBefore(fimBloco)) {
+            fimBloco = regras.fimTrecho(inicioBloco);
+        }
+        return fimBloco.isAfter(fim) ? fim : fimBloco;
     }
 }
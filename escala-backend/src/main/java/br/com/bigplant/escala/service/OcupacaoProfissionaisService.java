@@ -0,0 +1,298 @@
+package br.com.bigplant.escala.service;
+
+import br.com.bigplant.escala.geracao.TempoCompacto;
+import br.com.bigplant.escala.model.Turno;
+import br.com.bigplant.escala.repository.HorarioTurno;
+import br.com.bigplant.escala.repository.TurnoRepository;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Horários ocupados por profissional em todos os hospitais, para detectar conflitos de quem atende em
+// várias unidades. A decisão de conflito de uma gravação consulta o banco, que vale para todas as
+// instâncias da aplicação; as leituras em lote da geração usam um índice em memória desta instância,
+// carregado sob demanda, mês a mês (com limite de meses em memória, LRU), e atualizado a cada turno
+// gravado ou removido depois do commit da transação. A leitura de um mês acontece fora do monitor, numa
+// transação própria em READ COMMITTED; quem precisa do mesmo mês espera a mesma carga, e as alterações
+// aplicadas enquanto ela corre prevalecem sobre as linhas lidas.
+// No índice, cada profissional tem os turnos ordenados pelo início e a leitura de um período é uma faixa.
+// Na consulta de conflito, como um turno dura no máximo 24h, bastam os turnos com data entre a véspera
+// do início e o fim do intervalo.
+@Service
+public class OcupacaoProfissionaisService {
+
+    private static final Comparator<Ocupacao> ORDEM = Comparator
+            .comparingLong(Ocupacao::inicio)
+            .thenComparing(Ocupacao::idTurno, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final TurnoRepository turnoRepository;
+    private final int capacidadeMeses;
+    private final Map<Long, NavigableSet<Ocupacao>> porProfissional = new HashMap<>();
+    private final Map<Long, Ocupacao> porTurno = new HashMap<>();
+    private final Map<Integer, Boolean> mesesCarregados;
+    // Cargas em andamento por mês e, para cada uma, as alterações aplicadas desde que ela começou
+    private final Map<Integer, CompletableFuture<Void>> cargas = new HashMap<>();
+    private final List<Map<Long, Optional<Ocupacao>>> alteracoesDuranteCargas = new ArrayList<>();
+    private final TransactionTemplate transacaoCarga;
+
+    public OcupacaoProfissionaisService(
+            TurnoRepository turnoRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${escala.ocupacao.capacidade-meses:24}") int capacidadeMeses) {
+        this.turnoRepository = turnoRepository;
+        this.transacaoCarga = new TransactionTemplate(transactionManager);
+        this.transacaoCarga.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transacaoCarga.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.transacaoCarga.setReadOnly(true);
+        this.capacidadeMeses = Math.max(3, capacidadeMeses);
+        this.mesesCarregados = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> maisAntigo) {
+                if (size() <= OcupacaoProfissionaisService.this.capacidadeMeses) {
+                    return false;
+                }
+                descarregar(maisAntigo.getKey());
+                return true;
+            }
+        };
+    }
+
+    // Intervalo de um turno alocado, em minutos desde a época
+    public record Ocupacao(Long idTurno, Long idHospital, Long idProfissional, long inicio, long fim) {
+
+        public long dia() {
+            return Math.floorDiv(inicio, TempoCompacto.MINUTOS_POR_DIA);
+        }
+    }
+
+    // O profissional tem algum turno, em qualquer hospital, que se sobrepõe a [inicio, fim)?
+    // O turno informado em idTurnoIgnorado (o próprio turno sendo alterado) não conta.
+    public boolean conflita(Long idProfissional, long inicio, long fim, Long idTurnoIgnorado) {
+        if (idProfissional == null) {
+            return false;
+        }
+        LocalDate de = LocalDate.ofEpochDay(Math.floorDiv(inicio, TempoCompacto.MINUTOS_POR_DIA) - 1);
+        LocalDate ate = LocalDate.ofEpochDay(Math.floorDiv(fim - 1, TempoCompacto.MINUTOS_POR_DIA));
+        for (HorarioTurno horario : turnoRepository.findByIdProfissionalAndDataBetween(idProfissional, de, ate)) {
+            if (horario.getHoraInicio() == null || horario.getHoraFim() == null
+                    || horario.getId().equals(idTurnoIgnorado)) {
+                continue;
+            }
+            if (TempoCompacto.minutos(horario.getData(), horario.getHoraInicio()) < fim
+                    && TempoCompacto.fim(horario.getData(), horario.getHoraInicio(), horario.getHoraFim()) > inicio) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean conflita(Turno turno) {
+        if (turno.getIdProfissional() == null || turno.getData() == null
+                || turno.getHoraInicio() == null || turno.getHoraFim() == null) {
+            return false;
+        }
+        return conflita(
+                turno.getIdProfissional(), TempoCompacto.inicio(turno), TempoCompacto.fim(turno), turno.getId());
+    }
+
+    // Turnos dos profissionais informados com data entre de e ate (inclusive), de todos os hospitais
+    public List<Ocupacao> ocupacoes(Collection<Long> idsProfissionais, LocalDate de, LocalDate ate) {
+        garantirCarregado(de, ate);
+        long inicio = TempoCompacto.minutos(de, LocalTime.MIDNIGHT);
+        long fim = TempoCompacto.minutos(ate.plusDays(1), LocalTime.MIDNIGHT);
+        List<Ocupacao> resultado = new ArrayList<>();
+        synchronized (this) {
+            for (Long idProfissional : idsProfissionais) {
+                NavigableSet<Ocupacao> ocupacoes = porProfissional.get(idProfissional);
+                if (ocupacoes != null) {
+                    resultado.addAll(faixa(ocupacoes, inicio, fim));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Chamados pelo listener de Turno; dentro de uma transação, só valem depois do commit
+    public void turnoGravado(Turno turno) {
+        agendar(turno.getId(), paraOcupacao(turno));
+    }
+
+    public void turnoRemovido(Turno turno) {
+        agendar(turno.getId(), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void agendar(Long idTurno, Ocupacao ocupacao) {
+        if (idTurno == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(Map.of(idTurno, Optional.ofNullable(ocupacao)));
+            return;
+        }
+        Map<Long, Optional<Ocupacao>> pendentes =
+                (Map<Long, Optional<Ocupacao>>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Map<Long, Optional<Ocupacao>> novas = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(novas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OcupacaoProfissionaisService.this);
+                }
+            });
+            pendentes = novas;
+        }
+        pendentes.put(idTurno, Optional.ofNullable(ocupacao));
+    }
+
+    private synchronized void aplicar(Map<Long, Optional<Ocupacao>> alteracoes) {
+        alteracoesDuranteCargas.forEach(durante -> durante.putAll(alteracoes));
+        alteracoes.forEach((idTurno, ocupacao) -> {
+            remover(idTurno);
+            // Meses ainda não carregados serão lidos do banco, já com a alteração, quando forem consultados
+            if (ocupacao.isPresent() && mesesCarregados.containsKey(mes(ocupacao.get().dia()))) {
+                adicionar(ocupacao.get());
+            }
+        });
+    }
+
+    private void garantirCarregado(LocalDate de, LocalDate ate) {
+        for (int mes = TempoCompacto.mes(de); mes <= TempoCompacto.mes(ate); mes++) {
+            CompletableFuture<Void> carga;
+            Map<Long, Optional<Ocupacao>> alteracoes = null;
+            synchronized (this) {
+                if (mesesCarregados.get(mes) != null) {
+                    continue;
+                }
+                carga = cargas.get(mes);
+                if (carga == null) {
+                    carga = new CompletableFuture<>();
+                    cargas.put(mes, carga);
+                    alteracoes = new HashMap<>();
+                    alteracoesDuranteCargas.add(alteracoes);
+                }
+            }
+            if (alteracoes == null) {
+                carga.join();
+            } else {
+                carregar(mes, carga, alteracoes);
+            }
+        }
+    }
+
+    private void carregar(int mes, CompletableFuture<Void> carga, Map<Long, Optional<Ocupacao>> alteracoes) {
+        List<HorarioTurno> horarios;
+        try {
+            LocalDate primeiroDia = LocalDate.of(mes / 12, mes % 12 + 1, 1);
+            horarios = transacaoCarga.execute(status -> turnoRepository.findByDataBetweenAndIdProfissionalIsNotNull(
+                    primeiroDia, primeiroDia.withDayOfMonth(primeiroDia.lengthOfMonth())));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                encerrarCarga(mes, alteracoes);
+            }
+            carga.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            for (HorarioTurno horario : horarios) {
+                if (horario.getHoraInicio() == null || horario.getHoraFim() == null
+                        || porTurno.containsKey(horario.getId()) || alteracoes.containsKey(horario.getId())) {
+                    continue;
+                }
+                adicionar(new Ocupacao(horario.getId(), horario.getIdHospital(), horario.getIdProfissional(),
+                        TempoCompacto.minutos(horario.getData(), horario.getHoraInicio()),
+                        TempoCompacto.fim(horario.getData(), horario.getHoraInicio(), horario.getHoraFim())));
+            }
+            // Alterações do mês aplicadas durante a leitura, que aplicar() ainda não podia indexar
+            alteracoes.forEach((idTurno, ocupacao) -> {
+                if (ocupacao.isPresent() && mes(ocupacao.get().dia()) == mes) {
+                    remover(idTurno);
+                    adicionar(ocupacao.get());
+                }
+            });
+            mesesCarregados.put(mes, Boolean.TRUE);
+            encerrarCarga(mes, alteracoes);
+        }
+        carga.complete(null);
+    }
+
+    private void encerrarCarga(int mes, Map<Long, Optional<Ocupacao>> alteracoes) {
+        cargas.remove(mes);
+        alteracoesDuranteCargas.removeIf(durante -> durante == alteracoes);
+    }
+
+    private void descarregar(int mes) {
+        porTurno.values().removeIf(ocupacao -> {
+            if (mes(ocupacao.dia()) != mes) {
+                return false;
+            }
+            NavigableSet<Ocupacao> ocupacoes = porProfissional.get(ocupacao.idProfissional());
+            ocupacoes.remove(ocupacao);
+            if (ocupacoes.isEmpty()) {
+                porProfissional.remove(ocupacao.idProfissional());
+            }
+            return true;
+        });
+    }
+
+    private void adicionar(Ocupacao ocupacao) {
+        porTurno.put(ocupacao.idTurno(), ocupacao);
+        porProfissional.computeIfAbsent(ocupacao.idProfissional(), id -> new TreeSet<>(ORDEM)).add(ocupacao);
+    }
+
+    private void remover(Long idTurno) {
+        Ocupacao anterior = porTurno.remove(idTurno);
+        if (anterior != null) {
+            NavigableSet<Ocupacao> ocupacoes = porProfissional.get(anterior.idProfissional());
+            ocupacoes.remove(anterior);
+            if (ocupacoes.isEmpty()) {
+                porProfissional.remove(anterior.idProfissional());
+            }
+        }
+    }
+
+    // Ocupações com início em [de, ate)
+    private static NavigableSet<Ocupacao> faixa(NavigableSet<Ocupacao> ocupacoes, long de, long ate) {
+        if (de >= ate) {
+            return new TreeSet<>(ORDEM);
+        }
+        return ocupacoes.subSet(
+                new Ocupacao(null, null, null, de, de), true, new Ocupacao(null, null, null, ate, ate), false);
+    }
+
+    private static Ocupacao paraOcupacao(Turno turno) {
+        if (turno.getIdProfissional() == null || turno.getData() == null
+                || turno.getHoraInicio() == null || turno.getHoraFim() == null) {
+            return null;
+        }
+        return new Ocupacao(turno.getId(), turno.getIdHospital(), turno.getIdProfissional(),
+                TempoCompacto.inicio(turno), TempoCompacto.fim(turno));
+    }
+
+    private static int mes(long dia) {
+        return TempoCompacto.mes(LocalDate.ofEpochDay(dia));
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.bigplant.escala.service;
+
+import br.com.bigplant.escala.model.Turno;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Mantém o índice de ocupação dos profissionais em dia com toda gravação e remoção de Turno, venha ela
+// da geração, do reparo, das trocas ou da API de turnos. O serviço é resolvido só no primeiro evento,
+// porque o listener é criado junto com o EntityManagerFactory do qual o repositório de turnos depende.
+@Component
+public class OcupacaoTurnoListener {
+
+    private final ObjectProvider<OcupacaoProfissionaisService> ocupacaoProfissionaisService;
+
+    public OcupacaoTurnoListener(ObjectProvider<OcupacaoProfissionaisService> ocupacaoProfissionaisService) {
+        this.ocupacaoProfissionaisService = ocupacaoProfissionaisService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void gravado(Turno turno) {
+        ocupacaoProfissionaisService.getObject().turnoGravado(turno);
+    }
+
+    @PostRemove
+    public void removido(Turno turno) {
+        ocupacaoProfissionaisService.getObject().turnoRemovido(turno);
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.bigplant.escala.service;
+
+import br.com.bigplant.escala.dto.DadosGeracaoEscalaDTO;
+import br.com.bigplant.escala.geracao.RastroAlocacao;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Rastros de alocação das gerações feitas com rastrear = true, só em memória e por escala.
+// Cada rastro guarda no máximo a capacidade pedida (com teto) e ocupa só o que a geração gravou; os
+// guardados somam no máximo escala.rastro.maximo-bytes, saindo primeiro os menos consultados (LRU).
+@Service
+public class RastroGeracaoService {
+
+    private static final int CAPACIDADE_PADRAO = 50_000;
+    // Cerca de 19 MB por rastro (RastroAlocacao.BYTES_POR_ENTRADA bytes por entrada)
+    private static final int CAPACIDADE_MAXIMA = 200_000;
+
+    private final long maximoBytes;
+    private final Map<Long, RastroAlocacao> porEscala = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesGuardados;
+
+    public RastroGeracaoService(@Value("${escala.rastro.maximo-bytes:67108864}") long maximoBytes) {
+        this.maximoBytes = Math.max(1, maximoBytes);
+    }
+
+    // Rastro vazio para a geração, ou null quando não foi pedido (a alocação roda sem instrumentação)
+    public RastroAlocacao criar(DadosGeracaoEscalaDTO dados) {
+        if (!Boolean.TRUE.equals(dados.getRastrear())) {
+            return null;
+        }
+        int capacidade = dados.getCapacidadeRastro() != null && dados.getCapacidadeRastro() > 0
+                ? Math.min(dados.getCapacidadeRastro(), CAPACIDADE_MAXIMA)
+                : CAPACIDADE_PADRAO;
+        return new RastroAlocacao(capacidade);
+    }
+
+    public synchronized void guardar(Long idEscala, RastroAlocacao rastro) {
+        if (rastro == null) {
+            return;
+        }
+        rastro.compactar();
+        remover(idEscala);
+        porEscala.put(idEscala, rastro);
+        bytesGuardados += rastro.bytes();
+        // O rastro recém-guardado fica mesmo sozinho acima do limite (o teto de capacidade o mantém pequeno)
+        Iterator<RastroAlocacao> maisAntigos = porEscala.values().iterator();
+        while (bytesGuardados > maximoBytes && porEscala.size() > 1) {
+            bytesGuardados -= maisAntigos.next().bytes();
+            maisAntigos.remove();
+        }
+    }
+
+    public synchronized Optional<RastroAlocacao> buscar(Long idEscala) {
+        return Optional.ofNullable(porEscala.get(idEscala));
+    }
+
+    public synchronized void remover(Long idEscala) {
+        RastroAlocacao removido = porEscala.remove(idEscala);
+        if (removido != null) {
+            bytesGuardados -= removido.bytes();
+        }
+    }
+}
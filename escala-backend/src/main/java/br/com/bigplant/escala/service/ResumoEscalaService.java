@@ -0,0 +1,158 @@
+package br.com.bigplant.escala.service;
+
+import br.com.bigplant.escala.geracao.EstadoAlocacao;
+import br.com.bigplant.escala.geracao.IndiceProfissionais;
+import br.com.bigplant.escala.geracao.ParticaoEscala;
+import br.com.bigplant.escala.geracao.TempoCompacto;
+import br.com.bigplant.escala.model.Escala;
+import br.com.bigplant.escala.model.ResumoEscalaProfissional;
+import br.com.bigplant.escala.model.Turno;
+import br.com.bigplant.escala.repository.EscalaRepository;
+import br.com.bigplant.escala.repository.ResumoEscalaProfissionalRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Resumo por profissional do estado das regras ao fim de cada escala. É gravado quando a escala é
+// gerada ou reparada e lido pela geração seguinte, que parte dele em vez de contadores zerados, sem
+// precisar recarregar os turnos históricos.
+@Service
+public class ResumoEscalaService {
+
+    private final ResumoEscalaProfissionalRepository resumoRepository;
+    private final EscalaRepository escalaRepository;
+
+    public ResumoEscalaService(
+            ResumoEscalaProfissionalRepository resumoRepository, EscalaRepository escalaRepository) {
+        this.resumoRepository = resumoRepository;
+        this.escalaRepository = escalaRepository;
+    }
+
+    // Resumo da última escala do hospital terminada antes de inicio, por id do profissional
+    @Transactional(readOnly = true)
+    public Map<Long, ResumoEscalaProfissional> anterior(Long idHospital, LocalDate inicio) {
+        Map<Long, ResumoEscalaProfissional> porProfissional = new HashMap<>();
+        escalaRepository.findFirstByIdHospitalAndDataFimLessThanOrderByDataFimDescIdDesc(idHospital, inicio)
+                .ifPresent(escala -> resumoRepository.findByIdEscala(escala.getId())
+                        .forEach(r -> porProfissional.put(r.getIdProfissional(), r)));
+        return porProfissional;
+    }
+
+    // Carrega o resumo anterior no estado de cada partição, antes do primeiro bloco
+    public void semear(List<ParticaoEscala> particoes, Map<Long, ResumoEscalaProfissional> resumo) {
+        if (resumo.isEmpty()) {
+            return;
+        }
+        for (ParticaoEscala particao : particoes) {
+            IndiceProfissionais indice = particao.profissionais();
+            for (int idx = 0; idx < indice.tamanho(); idx++) {
+                ResumoEscalaProfissional r = resumo.get(indice.id(idx));
+                if (r == null || r.getDataReferencia() == null) {
+                    continue;
+                }
+                particao.estado().semear(idx,
+                        r.getUltimaSaida() == null
+                                ? EstadoAlocacao.SEM_REGISTRO
+                                : TempoCompacto.minutos(r.getUltimaSaida()),
+                        r.getUltimoDia() == null ? EstadoAlocacao.SEM_REGISTRO : r.getUltimoDia().toEpochDay(),
+                        r.getPlantoesConsecutivos() == null ? 0 : r.getPlantoesConsecutivos(),
+                        TempoCompacto.mes(r.getDataReferencia()),
+                        r.getNoitesNoMes() == null ? 0 : r.getNoitesNoMes(),
+                        r.getMinutosNoMes() == null ? 0 : r.getMinutosNoMes());
+            }
+        }
+    }
+
+    // Geração: o estado final das partições já é o resumo, não há turnos a reler
+    @Transactional
+    public void registrar(Long idEscala, Long idHospital, LocalDate dataReferencia, List<ParticaoEscala> particoes) {
+        List<ResumoEscalaProfissional> resumo = new ArrayList<>();
+        // Quem está em mais de uma partição tem o mesmo estado em todas; entra uma vez só
+        Set<Long> resumidos = new HashSet<>();
+        for (ParticaoEscala particao : particoes) {
+            IndiceProfissionais indice = particao.profissionais();
+            for (int idx = 0; idx < indice.tamanho(); idx++) {
+                if (particao.estado().ultimoDia(idx) != EstadoAlocacao.SEM_REGISTRO && resumidos.add(indice.id(idx))) {
+                    resumo.add(resumir(particao.estado(), idx, indice.id(idx), idEscala, idHospital, dataReferencia));
+                }
+            }
+        }
+        resumoRepository.deleteAll(resumoRepository.findByIdEscala(idEscala));
+        resumoRepository.saveAll(resumo);
+    }
+
+    // Reparo: refaz o resumo a partir dos turnos do hospital desde inicioTurnos (que deve cobrir o mês
+    // do fim da escala e a maior sequência permitida). Quem não aparece nesses turnos mantém o resumo
+    // antigo se ele for anterior a inicioTurnos; se não for, o turno que o originava foi realocado.
+    @Transactional
+    public void recalcular(Escala escala, List<Turno> turnos, LocalDate inicioTurnos) {
+        LocalDate dataReferencia = escala.getDataFim();
+        List<Turno> considerados = turnos.stream()
+                .filter(t -> t.getIdProfissional() != null)
+                .filter(t -> !t.getData().isBefore(inicioTurnos) && !t.getData().isAfter(dataReferencia))
+                .sorted(Comparator.comparingLong(TempoCompacto::inicio))
+                .toList();
+        Map<Long, Integer> indices = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        for (Turno turno : considerados) {
+            indices.computeIfAbsent(turno.getIdProfissional(), id -> {
+                ids.add(id);
+                return ids.size() - 1;
+            });
+        }
+        EstadoAlocacao estado = new EstadoAlocacao(ids.size());
+        for (Turno turno : considerados) {
+            estado.registrar(indices.get(turno.getIdProfissional()), TempoCompacto.inicio(turno),
+                    TempoCompacto.fim(turno), turno.getData().toEpochDay(), "NOITE".equalsIgnoreCase(turno.getTipo()),
+                    TempoCompacto.mes(turno.getData()));
+        }
+
+        List<ResumoEscalaProfissional> existentes = resumoRepository.findByIdEscala(escala.getId());
+        List<ResumoEscalaProfissional> remover = new ArrayList<>();
+        List<ResumoEscalaProfissional> resumo = new ArrayList<>();
+        for (ResumoEscalaProfissional existente : existentes) {
+            if (!indices.containsKey(existente.getIdProfissional())
+                    && existente.getUltimoDia() != null
+                    && existente.getUltimoDia().isBefore(inicioTurnos)) {
+                resumo.add(existente);
+            } else {
+                remover.add(existente);
+            }
+        }
+        for (int idx = 0; idx < ids.size(); idx++) {
+            resumo.add(resumir(estado, idx, ids.get(idx), escala.getId(), escala.getIdHospital(), dataReferencia));
+        }
+        resumoRepository.deleteAll(remover);
+        resumoRepository.saveAll(resumo);
+    }
+
+    @Transactional
+    public void remover(Long idEscala) {
+        resumoRepository.deleteAll(resumoRepository.findByIdEscala(idEscala));
+    }
+
+    private ResumoEscalaProfissional resumir(
+            EstadoAlocacao estado, int idx, Long idProfissional, Long idEscala, Long idHospital, LocalDate data) {
+        int mes = TempoCompacto.mes(data);
+        ResumoEscalaProfissional resumo = new ResumoEscalaProfissional();
+        resumo.setIdEscala(idEscala);
+        resumo.setIdHospital(idHospital);
+        resumo.setIdProfissional(idProfissional);
+        resumo.setDataReferencia(data);
+        resumo.setUltimaSaida(estado.ultimaSaida(idx) == EstadoAlocacao.SEM_REGISTRO
+                ? null
+                : TempoCompacto.dataHora(estado.ultimaSaida(idx)));
+        resumo.setUltimoDia(LocalDate.ofEpochDay(estado.ultimoDia(idx)));
+        resumo.setPlantoesConsecutivos(estado.consecutivos(idx));
+        resumo.setNoitesNoMes(estado.noitesNoMes(idx, mes));
+        resumo.setMinutosNoMes(estado.minutosNoMes(idx, mes));
+        return resumo;
+    }
+}
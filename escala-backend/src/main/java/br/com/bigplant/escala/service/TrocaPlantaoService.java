@@ -1,5 +1,8 @@
 package br.com.bigplant.escala.service;
 
+import br.com.bigplant.escala.dto.Cursor;
+import br.com.bigplant.escala.dto.Pagina;
+import br.com.bigplant.escala.geracao.TempoCompacto;
 import br.com.bigplant.escala.model.Profissional;
 import br.com.bigplant.escala.model.TrocaPlantao;
 import br.com.bigplant.escala.model.Turno;
@@ -20,20 +23,32 @@ public class TrocaPlantaoService {
     private final TurnoRepository turnoRepository;
     private final ProfissionalRepository profissionalRepository;
     private final NotificacaoService notificacaoService;
+    private final OcupacaoProfissionaisService ocupacaoProfissionaisService;
 
     public TrocaPlantaoService(
             TrocaPlantaoRepository trocaPlantaoRepository,
             TurnoRepository turnoRepository,
             ProfissionalRepository profissionalRepository,
-            NotificacaoService notificacaoService) {
+            NotificacaoService notificacaoService,
+            OcupacaoProfissionaisService ocupacaoProfissionaisService) {
         this.trocaPlantaoRepository = trocaPlantaoRepository;
         this.turnoRepository = turnoRepository;
         this.profissionalRepository = profissionalRepository;
         this.notificacaoService = notificacaoService;
+        this.ocupacaoProfissionaisService = ocupacaoProfissionaisService;
     }
 
-    public List<TrocaPlantao> listarTodas() {
-        return trocaPlantaoRepository.findAll();
+    // Mais recentes primeiro, paginadas por (dataSolicitacao, id)
+    public Pagina<TrocaPlantao> listarPagina(Cursor posicao, int limite) {
+        List<TrocaPlantao> trocas;
+        if (posicao.inicio()) {
+            trocas = trocaPlantaoRepository.findPrimeiraPagina(Pagina.busca(limite));
+        } else if (posicao.chave() == null) {
+            trocas = trocaPlantaoRepository.findPaginaAposSemData(posicao.id(), Pagina.busca(limite));
+        } else {
+            trocas = trocaPlantaoRepository.findPaginaApos(posicao.chaveDataHora(), posicao.id(), Pagina.busca(limite));
+        }
+        return Pagina.de(trocas, limite, t -> Cursor.de(t.getDataSolicitacao(), t.getId()));
     }
 
     @Transactional
@@ -110,6 +125,14 @@ public class TrocaPlantaoService {
                                         new ResponseStatusException(
                                                 HttpStatus.NOT_FOUND, "Profissional de destino não encontrado"));
 
+        // O destino pode ter assumido outro turno, em qualquer hospital, depois da solicitação
+        if (turno.getData() != null && turno.getHoraInicio() != null && turno.getHoraFim() != null
+                && ocupacaoProfissionaisService.conflita(
+                        destino.getId(), TempoCompacto.inicio(turno), TempoCompacto.fim(turno), turno.getId())) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT, "Profissional de destino já possui turno nesse horário");
+        }
+
         turno.setIdProfissional(destino.getId());
         turnoRepository.save(turno);
 
@@ -0,0 +1,18 @@
+-- V10: Cria tabela de resumo por profissional ao fim de cada escala
+-- Guarda o estado das regras (última saída, sequência, noites e minutos no mês) para a geração seguinte
+
+CREATE TABLE resumo_escala_profissional (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_escala BIGINT NOT NULL,
+    id_hospital BIGINT NOT NULL,
+    id_profissional BIGINT NOT NULL,
+    data_referencia DATE NOT NULL,
+    ultima_saida DATETIME,
+    ultimo_dia DATE,
+    plantoes_consecutivos INT,
+    noites_no_mes INT,
+    minutos_no_mes BIGINT
+);
+
+ALTER TABLE resumo_escala_profissional ADD CONSTRAINT fk_resumo_escala FOREIGN KEY (id_escala) REFERENCES escala (id) ON DELETE CASCADE;
+CREATE INDEX idx_resumo_escala ON resumo_escala_profissional (id_escala);
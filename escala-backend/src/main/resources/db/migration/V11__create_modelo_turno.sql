@@ -0,0 +1,19 @@
+-- V11: Cria tabela de modelos de turno por local de atendimento
+-- Cada modelo define horário, dia da semana (nulo = todos) e quantidade de vagas por dia
+
+CREATE TABLE modelo_turno (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_hospital BIGINT NOT NULL,
+    id_local_atendimento BIGINT,
+    id_especialidade BIGINT,
+    dia_semana INT,
+    hora_inicio TIME NOT NULL,
+    hora_fim TIME NOT NULL,
+    tipo VARCHAR(20),
+    quantidade INT NOT NULL DEFAULT 1,
+    ativo BOOLEAN DEFAULT TRUE
+);
+
+ALTER TABLE modelo_turno ADD CONSTRAINT fk_modelo_turno_local FOREIGN KEY (id_local_atendimento) REFERENCES local_atendimento(id);
+ALTER TABLE modelo_turno ADD CONSTRAINT fk_modelo_turno_especialidade FOREIGN KEY (id_especialidade) REFERENCES especialidade(id);
+CREATE INDEX idx_modelo_turno_hospital ON modelo_turno (id_hospital, ativo);
@@ -0,0 +1,8 @@
+-- V12: Índices para a listagem de disponibilidades por hospital e período (paginação por (data, id))
+-- O segundo atende o filtro por profissional sem ler as disponibilidades dos demais
+
+CREATE INDEX idx_disponibilidade_hospital_data
+    ON disponibilidade (id_hospital, data);
+
+CREATE INDEX idx_disponibilidade_hospital_profissional_data
+    ON disponibilidade (id_hospital, id_profissional, data);
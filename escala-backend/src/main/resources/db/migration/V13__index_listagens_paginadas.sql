@@ -0,0 +1,14 @@
+-- V13: Índices das listagens paginadas por chave (chave de ordenação, id)
+-- Cada índice secundário do InnoDB já termina na chave primária, então cobre o desempate pelo id
+
+CREATE INDEX idx_turno_data ON turno (data);
+
+CREATE INDEX idx_disponibilidade_data ON disponibilidade (data);
+
+CREATE INDEX idx_profissional_nome ON profissional (nome);
+
+CREATE INDEX idx_troca_plantao_solicitacao ON troca_plantao (data_solicitacao);
+
+CREATE INDEX idx_audit_log_timestamp ON audit_log (timestamp);
+
+CREATE INDEX idx_audit_log_actor ON audit_log (actor_id, timestamp);
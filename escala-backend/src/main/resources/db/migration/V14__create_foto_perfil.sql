@@ -0,0 +1,43 @@
+-- V14: Fotos de perfil fora da linha do profissional
+-- A imagem (binária) e a miniatura ficam em foto_perfil; o profissional guarda só a versão, que entra na URL.
+-- Foto externa (Google, avatares gerados) fica como url_externa, sem imagem.
+
+CREATE TABLE foto_perfil (
+    id_profissional BIGINT PRIMARY KEY,
+    versao VARCHAR(32) NOT NULL,
+    tipo VARCHAR(100),
+    imagem LONGBLOB,
+    tipo_miniatura VARCHAR(100),
+    miniatura MEDIUMBLOB,
+    url_externa VARCHAR(2048),
+    atualizado_em DATETIME NOT NULL
+);
+
+ALTER TABLE foto_perfil ADD CONSTRAINT fk_foto_perfil_profissional FOREIGN KEY (id_profissional) REFERENCES profissional (id) ON DELETE CASCADE;
+
+ALTER TABLE profissional ADD COLUMN versao_foto VARCHAR(32);
+
+-- Fotos enviadas (data:<tipo>;base64,<conteúdo>); ficam sem miniatura (só o envio gera uma) e a leitura
+-- da miniatura entrega a imagem original
+INSERT INTO foto_perfil (id_profissional, versao, tipo, imagem, atualizado_em)
+SELECT id,
+       LEFT(SHA2(foto_perfil, 256), 16),
+       SUBSTRING_INDEX(SUBSTRING(foto_perfil, 6), ';', 1),
+       FROM_BASE64(SUBSTRING_INDEX(foto_perfil, ',', -1)),
+       NOW()
+FROM profissional
+WHERE foto_perfil LIKE 'data:%;base64,%';
+
+INSERT INTO foto_perfil (id_profissional, versao, url_externa, atualizado_em)
+SELECT id, LEFT(SHA2(foto_perfil, 256), 16), foto_perfil, NOW()
+FROM profissional
+WHERE foto_perfil LIKE 'http://%' OR foto_perfil LIKE 'https://%';
+
+UPDATE profissional p JOIN foto_perfil f ON f.id_profissional = p.id SET p.versao_foto = f.versao;
+
+-- profissional.foto_perfil fica por uma versão: a aplicação não a lê nem grava mais, mas uma volta à versão
+-- anterior ainda encontra as fotos, e linhas que a cópia acima não reconheceu não se perdem. Conferir antes
+-- de removê-la numa migração posterior:
+--   SELECT id FROM profissional p
+--   WHERE foto_perfil IS NOT NULL AND foto_perfil <> ''
+--     AND NOT EXISTS (SELECT 1 FROM foto_perfil f WHERE f.id_profissional = p.id);
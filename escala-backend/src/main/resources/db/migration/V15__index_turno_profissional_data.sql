@@ -0,0 +1,3 @@
+-- V15: Turnos de um profissional por data, para a verificação de conflito de horário entre hospitais
+
+CREATE INDEX idx_turno_profissional_data ON turno (id_profissional, data);
@@ -0,0 +1,5 @@
+-- V8: Adiciona coluna id_especialidade na tabela turno
+-- Permite gerar turnos por especialidade e particionar a geração da escala
+
+ALTER TABLE turno ADD COLUMN id_especialidade BIGINT;
+ALTER TABLE turno ADD CONSTRAINT fk_turno_especialidade FOREIGN KEY (id_especialidade) REFERENCES especialidade(id);
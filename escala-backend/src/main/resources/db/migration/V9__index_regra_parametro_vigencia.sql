@@ -0,0 +1,5 @@
+-- V9: Índice para a consulta de parâmetros vigentes por hospital e data
+-- Cobre o filtro (id_hospital, ativo) e o intervalo de vigência sem varrer a tabela
+
+CREATE INDEX idx_regra_parametro_vigencia
+    ON regra_escala_parametro (id_hospital, ativo, data_inicio_vigencia, data_fim_vigencia);
@@ -0,0 +1,41 @@
+package br.com.bigplant.escala;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registra todo SQL que o Hibernate prepara, para os testes contarem idas ao banco.
+// Ligado por spring.jpa.properties.hibernate.session_factory.statement_inspector; o estado é estático
+// porque o Hibernate instancia a classe por conta própria.
+public class ContadorComandos implements StatementInspector {
+
+    private static final List<String> COMANDOS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        COMANDOS.add(sql);
+        return sql;
+    }
+
+    public static void zerar() {
+        COMANDOS.clear();
+    }
+
+    // Comandos que citam a tabela (como palavra inteira, em qualquer cláusula)
+    public static long naTabela(String tabela) {
+        Pattern nome = Pattern.compile("\\b" + Pattern.quote(tabela) + "\\b", Pattern.CASE_INSENSITIVE);
+        return COMANDOS.stream().filter(sql -> nome.matcher(sql).find()).count();
+    }
+
+    // INSERTs na tabela
+    public static long insercoesEm(String tabela) {
+        Pattern insert = Pattern.compile("^\\s*insert\\s+into\\s+" + Pattern.quote(tabela) + "\\b",
+                Pattern.CASE_INSENSITIVE);
+        return COMANDOS.stream().filter(sql -> insert.matcher(sql).find()).count();
+    }
+
+    public static int total() {
+        return COMANDOS.size();
+    }
+}
@@ -0,0 +1,99 @@
+package br.com.bigplant.escala;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// Registra cada comando que chega a ser executado no driver, venha do Hibernate ou do JdbcTemplate, para
+// os testes contarem idas ao banco. Ligado com @Import(ContadorJdbc.class): embrulha o DataSource da
+// aplicação, e o estado é estático como no ContadorComandos.
+public class ContadorJdbc implements BeanPostProcessor {
+
+    private static final List<String> EXECUTADOS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String nome) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return conexao(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String usuario, String senha) throws SQLException {
+                return conexao(super.getConnection(usuario, senha));
+            }
+        };
+    }
+
+    public static void zerar() {
+        EXECUTADOS.clear();
+    }
+
+    // INSERTs executados na tabela
+    public static long insercoesEm(String tabela) {
+        Pattern insert = Pattern.compile("^\\s*insert\\s+into\\s+" + Pattern.quote(tabela) + "\\b",
+                Pattern.CASE_INSENSITIVE);
+        return EXECUTADOS.stream().filter(sql -> insert.matcher(sql).find()).count();
+    }
+
+    public static int total() {
+        return EXECUTADOS.size();
+    }
+
+    private static Connection conexao(Connection real) {
+        return embrulhar(Connection.class, real, (metodo, argumentos, resultado) -> {
+            if (resultado instanceof CallableStatement chamada) {
+                return embrulharComando(CallableStatement.class, chamada, (String) argumentos[0]);
+            }
+            if (resultado instanceof PreparedStatement preparado) {
+                return embrulharComando(PreparedStatement.class, preparado, (String) argumentos[0]);
+            }
+            if (resultado instanceof Statement comando) {
+                return embrulharComando(Statement.class, comando, null);
+            }
+            return resultado;
+        });
+    }
+
+    // Um execute* conta uma ida ao banco; o SQL é o da preparação ou, num Statement simples, o do argumento
+    private static <T extends Statement> T embrulharComando(Class<T> tipo, T real, String sqlPreparado) {
+        return embrulhar(tipo, real, (metodo, argumentos, resultado) -> {
+            if (metodo.getName().startsWith("execute")) {
+                EXECUTADOS.add(sqlPreparado != null ? sqlPreparado
+                        : argumentos != null && argumentos.length > 0 ? String.valueOf(argumentos[0]) : "");
+            }
+            return resultado;
+        });
+    }
+
+    private static <T> T embrulhar(Class<T> tipo, T real, Depois depois) {
+        InvocationHandler tratador = (proxy, metodo, argumentos) -> {
+            try {
+                return depois.aplicar(metodo, argumentos, metodo.invoke(real, argumentos));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return tipo.cast(Proxy.newProxyInstance(ContadorJdbc.class.getClassLoader(), new Class<?>[] {tipo}, tratador));
+    }
+
+    private interface Depois {
+        Object aplicar(Method metodo, Object[] argumentos, Object resultado) throws SQLException;
+    }
+}
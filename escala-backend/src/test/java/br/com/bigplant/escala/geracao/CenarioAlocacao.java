@@ -0,0 +1,118 @@
+package br.com.bigplant.escala.geracao;
+
+import br.com.bigplant.escala.geracao.regras.CompiladorRegras;
+import br.com.bigplant.escala.geracao.regras.RegraMaxNoitesMes;
+import br.com.bigplant.escala.geracao.regras.RegraMaxPlantoesConsecutivos;
+import br.com.bigplant.escala.geracao.regras.RegraMinDescansoHoras;
+import br.com.bigplant.escala.geracao.regras.RegrasCompiladas;
+import br.com.bigplant.escala.model.Disponibilidade;
+import br.com.bigplant.escala.model.Profissional;
+import br.com.bigplant.escala.model.RegraEscalaParametro;
+import br.com.bigplant.escala.model.Turno;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Cenário em memória para os testes do motor: profissionais com ids 1..n (índices 0..n-1), turnos DIA
+// (7h-19h) e NOITE (19h-7h) a partir de INICIO, disponibilidade por célula e regras pelas três definições
+// embutidas. Células sem nenhum registro de disponibilidade não restringem ninguém.
+class CenarioAlocacao {
+
+    static final LocalDate INICIO = LocalDate.of(2030, 1, 1);
+    static final Long ID_FORA_DA_GERACAO = 999L;
+
+    private final IndiceProfissionais profissionais;
+    private final List<Turno> turnos = new ArrayList<>();
+    private final List<Disponibilidade> disponibilidades = new ArrayList<>();
+    private final Map<String, Integer> regras = new LinkedHashMap<>();
+
+    CenarioAlocacao(int quantidadeProfissionais) {
+        List<Profissional> lista = new ArrayList<>();
+        for (int i = 0; i < quantidadeProfissionais; i++) {
+            Profissional profissional = new Profissional();
+            profissional.setId(i + 1L);
+            profissional.setNome("Profissional " + i);
+            lista.add(profissional);
+        }
+        this.profissionais = new IndiceProfissionais(lista);
+    }
+
+    IndiceProfissionais profissionais() {
+        return profissionais;
+    }
+
+    CenarioAlocacao regra(String chave, int valor) {
+        regras.put(chave, valor);
+        return this;
+    }
+
+    // Turno DIA ou NOITE no dia INICIO + dia
+    CenarioAlocacao turno(int dia, String tipo) {
+        turnos.add(turno(INICIO.plusDays(dia), tipo));
+        return this;
+    }
+
+    // Só os profissionais informados (índices) ficam disponíveis na célula; sem índices, ninguém fica
+    CenarioAlocacao disponiveis(int dia, String tipo, int... indices) {
+        if (indices.length == 0) {
+            disponibilidades.add(disponibilidade(ID_FORA_DA_GERACAO, dia, tipo));
+        }
+        for (int idx : indices) {
+            disponibilidades.add(disponibilidade(profissionais.id(idx), dia, tipo));
+        }
+        return this;
+    }
+
+    TurnosCompactos compactar() {
+        LocalDate fim = turnos.stream().map(Turno::getData).max(LocalDate::compareTo).orElse(INICIO);
+        MatrizDisponibilidade matriz = new MatrizDisponibilidade(INICIO, fim, profissionais, disponibilidades);
+        return new TurnosCompactos(turnos, matriz);
+    }
+
+    RegrasCompiladas regrasCompiladas() {
+        List<RegraEscalaParametro> parametros = new ArrayList<>();
+        regras.forEach((chave, valor) -> {
+            RegraEscalaParametro parametro = new RegraEscalaParametro();
+            parametro.setChave(chave);
+            parametro.setValorInteiro(valor);
+            parametro.setAtivo(true);
+            parametros.add(parametro);
+        });
+        return new CompiladorRegras(List.of(
+                new RegraMaxNoitesMes(), new RegraMaxPlantoesConsecutivos(), new RegraMinDescansoHoras()))
+                .compilar(parametros);
+    }
+
+    static Turno turno(LocalDate data, String tipo) {
+        boolean dia = "DIA".equals(tipo);
+        Turno turno = new Turno();
+        turno.setData(data);
+        turno.setTipo(tipo);
+        turno.setHoraInicio(dia ? LocalTime.of(7, 0) : LocalTime.of(19, 0));
+        turno.setHoraFim(dia ? LocalTime.of(19, 0) : LocalTime.of(7, 0));
+        return turno;
+    }
+
+    // Quantidade de turnos alocados ao profissional
+    static int quantidade(TurnosCompactos turnos, int idx) {
+        int total = 0;
+        for (int s = 0; s < turnos.tamanho(); s++) {
+            if (turnos.alocado(s) == idx) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private static Disponibilidade disponibilidade(Long idProfissional, int dia, String tipo) {
+        Disponibilidade disponibilidade = new Disponibilidade();
+        disponibilidade.setIdProfissional(idProfissional);
+        disponibilidade.setData(INICIO.plusDays(dia));
+        disponibilidade.setTipoTurno(tipo);
+        disponibilidade.setDisponivel(true);
+        return disponibilidade;
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.bigplant.escala.geracao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import br.com.bigplant.escala.model.ModeloTurno;
+import br.com.bigplant.escala.model.Turno;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ExpansorModelosTurnoTest {
+
+    private static final LocalDate DIA = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void modelosIguaisNaoSeJuntamNumaVagaSo() {
+        ExpansorModelosTurno expansor = new ExpansorModelosTurno(1L, List.of(modelo(2), modelo(3)), Map.of());
+        List<Turno> turnos = expansor.expandir(DIA, DIA.plusDays(1)).toList();
+        TurnosCompactos compactos = new TurnosCompactos(turnos, new MatrizDisponibilidade(
+                DIA, DIA.plusDays(1), new IndiceProfissionais(List.of()), List.of()));
+
+        assertEquals(10, compactos.tamanho());
+        assertEquals(2, compactos.fimVagas(0));
+        assertEquals(5, compactos.fimVagas(2));
+        assertEquals(7, compactos.fimVagas(5));
+        assertEquals(10, compactos.fimVagas(7));
+    }
+
+    private static ModeloTurno modelo(int quantidade) {
+        ModeloTurno modelo = new ModeloTurno();
+        modelo.setHoraInicio(LocalTime.of(7, 0));
+        modelo.setHoraFim(LocalTime.of(19, 0));
+        modelo.setTipo("DIA");
+        modelo.setIdEspecialidade(5L);
+        modelo.setQuantidade(quantidade);
+        return modelo;
+    }
+}
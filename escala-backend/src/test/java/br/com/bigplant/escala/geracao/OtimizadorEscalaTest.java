@@ -0,0 +1,93 @@
+package br.com.bigplant.escala.geracao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import br.com.bigplant.escala.geracao.regras.RegraMaxNoitesMes;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+// A busca parte do resultado guloso e fica com a melhor solução; uma cadeia com a semente fixa e um
+// problema pequeno chegam sempre ao ótimo dentro do prazo.
+class OtimizadorEscalaTest {
+
+    private static final long PRAZO_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void equilibraPlantoesSemAlocarQuemEstaIndisponivel() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .turno(0, "DIA").turno(1, "DIA").turno(2, "DIA").turno(3, "DIA")
+                .disponiveis(2, "DIA", 0);
+        TurnosCompactos turnos = cenario.compactar();
+        for (int s = 0; s < turnos.tamanho(); s++) {
+            turnos.alocar(s, 0);
+        }
+
+        otimizar(cenario, turnos, new EstadoAlocacao(2));
+
+        assertEquals(0, turnos.alocado(2));
+        assertEquals(2, CenarioAlocacao.quantidade(turnos, 0));
+        assertEquals(2, CenarioAlocacao.quantidade(turnos, 1));
+    }
+
+    @Test
+    void removeViolacaoDeRegraMesmoComCargaDesigual() {
+        // O profissional 1 já tem plantões antes do bloco: pelo equilíbrio, as duas noites iriam para o 0,
+        // mas o limite de uma noite no mês pesa mais
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .regra(RegraMaxNoitesMes.CHAVE, 1)
+                .turno(0, "NOITE").turno(2, "NOITE");
+        TurnosCompactos turnos = cenario.compactar();
+        turnos.alocar(0, 0);
+        turnos.alocar(1, 0);
+        EstadoAlocacao contexto = new EstadoAlocacao(2);
+        for (int i = 0; i < 5; i++) {
+            contexto.carga().registrar(1, 12 * 60, false);
+        }
+
+        otimizar(cenario, turnos, contexto);
+
+        assertEquals(1, CenarioAlocacao.quantidade(turnos, 0));
+        assertEquals(1, CenarioAlocacao.quantidade(turnos, 1));
+    }
+
+    @Test
+    void preencheTurnoVagoSoComProfissionalDisponivel() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .turno(0, "DIA").turno(0, "NOITE").turno(1, "DIA")
+                .disponiveis(0, "NOITE", 1)
+                .disponiveis(1, "DIA");
+        TurnosCompactos turnos = cenario.compactar();
+        turnos.alocar(0, 0);
+        turnos.alocar(1, TurnosCompactos.NAO_ALOCADO);
+        turnos.alocar(2, TurnosCompactos.NAO_ALOCADO);
+
+        otimizar(cenario, turnos, new EstadoAlocacao(2));
+
+        assertEquals(1, turnos.alocado(1));
+        // Ninguém está disponível no turno do segundo dia: continua vago
+        assertEquals(TurnosCompactos.NAO_ALOCADO, turnos.alocado(2));
+    }
+
+    @Test
+    void naoOcupaHorarioJaOcupadoNoContexto() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2).turno(0, "DIA").turno(1, "DIA");
+        TurnosCompactos turnos = cenario.compactar();
+        turnos.alocar(0, 0);
+        turnos.alocar(1, 0);
+        // O profissional 1 já está ocupado (em outra escala) durante o primeiro turno
+        EstadoAlocacao contexto = new EstadoAlocacao(2);
+        contexto.ocupacao().adicionar(1, turnos.inicio(0), turnos.fim(0));
+
+        otimizar(cenario, turnos, contexto);
+
+        assertEquals(0, turnos.alocado(0));
+        assertEquals(1, turnos.alocado(1));
+    }
+
+    private static void otimizar(CenarioAlocacao cenario, TurnosCompactos turnos, EstadoAlocacao contexto) {
+        new OtimizadorEscala(cenario.regrasCompiladas(), CenarioAlocacao.INICIO).otimizar(
+                turnos, contexto, cenario.profissionais(), System.nanoTime() + PRAZO_NANOS, 1,
+                ForkJoinPool.commonPool());
+    }
+}
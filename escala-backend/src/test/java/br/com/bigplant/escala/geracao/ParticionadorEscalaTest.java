@@ -0,0 +1,83 @@
+package br.com.bigplant.escala.geracao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import br.com.bigplant.escala.model.Profissional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ParticionadorEscalaTest {
+
+    private static final Long CLINICA = 10L;
+    private static final Long PEDIATRIA = 20L;
+
+    // Profissionais 1 e 2 da clínica, 3 da pediatria, 4 sem especialidade
+    private final Map<Long, Long> especialidades = new HashMap<>(Map.of(1L, CLINICA, 2L, CLINICA, 3L, PEDIATRIA));
+    private final List<Profissional> profissionais = profissionais(1L, 2L, 3L, 4L);
+
+    @Test
+    void turnosSemEspecialidadeFicamNumaParticaoCompartilhadaAoFinal() {
+        List<ParticaoEscala> particoes = ParticionadorEscala.particionar(
+                profissionais, Arrays.asList(CLINICA, null, PEDIATRIA), p -> especialidades.get(p.getId()));
+
+        assertEquals(3, particoes.size());
+        assertEquals(Set.of(CLINICA), particoes.get(0).getChaves());
+        assertEquals(List.of(1L, 2L), ids(particoes.get(0)));
+        assertFalse(particoes.get(0).compartilhada());
+        assertEquals(List.of(3L), ids(particoes.get(1)));
+        assertFalse(particoes.get(1).compartilhada());
+        assertTrue(particoes.get(2).getChaves().contains(null));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(particoes.get(2)));
+        assertTrue(particoes.get(2).compartilhada());
+    }
+
+    @Test
+    void semTurnosSemEspecialidadeNaoHaParticaoCompartilhada() {
+        List<ParticaoEscala> particoes = ParticionadorEscala.particionar(
+                profissionais, List.of(CLINICA, PEDIATRIA), p -> especialidades.get(p.getId()));
+
+        assertEquals(2, particoes.size());
+        assertTrue(particoes.stream().noneMatch(ParticaoEscala::compartilhada));
+    }
+
+    // O turno alocado ao profissional 2 numa partição entra no estado dele na outra, pelo índice de lá
+    @Test
+    void alocacaoDeUmaParticaoEntraNoEstadoDaOutra() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2).turno(0, "DIA");
+        TurnosCompactos turnos = cenario.compactar();
+        turnos.alocar(0, 1);
+        ParticaoEscala outra = new ParticaoEscala(
+                Set.of(CLINICA), new IndiceProfissionais(profissionais(2L, 1L)), true);
+
+        outra.registrarAlocacoes(cenario.profissionais(), turnos);
+
+        assertEquals(CenarioAlocacao.INICIO.toEpochDay(), outra.estado().ultimoDia(0));
+        assertEquals(EstadoAlocacao.SEM_REGISTRO, outra.estado().ultimoDia(1));
+        assertEquals(1, outra.estado().consecutivos(0));
+    }
+
+    private static List<Profissional> profissionais(Long... ids) {
+        List<Profissional> lista = new ArrayList<>();
+        for (Long id : ids) {
+            Profissional profissional = new Profissional();
+            profissional.setId(id);
+            lista.add(profissional);
+        }
+        return lista;
+    }
+
+    private static List<Long> ids(ParticaoEscala particao) {
+        List<Long> ids = new ArrayList<>();
+        for (int idx = 0; idx < particao.profissionais().tamanho(); idx++) {
+            ids.add(particao.profissionais().id(idx));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.bigplant.escala.geracao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import br.com.bigplant.escala.geracao.regras.RegraMaxPlantoesConsecutivos;
+import br.com.bigplant.escala.geracao.regras.RegraMinDescansoHoras;
+import org.junit.jupiter.api.Test;
+
+// Reparo depois da saída de um profissional: o índice da execução já não o contém, os turnos mantidos dos
+// demais entram como contexto e só os turnos que eram dele são realocados.
+class ReparadorEscalaTest {
+
+    @Test
+    void realocaTurnoDoProfissionalRemovidoRespeitandoDescanso() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2).regra(RegraMinDescansoHoras.CHAVE, 12).turno(1, "DIA");
+        ReparadorEscala reparador = reparador(cenario);
+        // O profissional 0 sai da noite anterior às 7h; o 1 tem mais plantões, mas longe do turno
+        reparador.registrar(0, CenarioAlocacao.turno(CenarioAlocacao.INICIO, "NOITE"));
+        reparador.registrar(1, CenarioAlocacao.turno(CenarioAlocacao.INICIO.plusDays(5), "DIA"));
+        reparador.registrar(1, CenarioAlocacao.turno(CenarioAlocacao.INICIO.plusDays(7), "DIA"));
+        TurnosCompactos turnos = cenario.compactar();
+
+        reparador.reparar(turnos);
+
+        assertEquals(1, turnos.alocado(0));
+    }
+
+    @Test
+    void contaPlantoesConsecutivosAntesEDepoisDoTurno() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .regra(RegraMaxPlantoesConsecutivos.CHAVE, 2)
+                .turno(1, "DIA");
+        ReparadorEscala reparador = reparador(cenario);
+        reparador.registrar(0, CenarioAlocacao.turno(CenarioAlocacao.INICIO, "DIA"));
+        reparador.registrar(0, CenarioAlocacao.turno(CenarioAlocacao.INICIO.plusDays(2), "DIA"));
+        for (int dia = 5; dia <= 9; dia += 2) {
+            reparador.registrar(1, CenarioAlocacao.turno(CenarioAlocacao.INICIO.plusDays(dia), "DIA"));
+        }
+        TurnosCompactos turnos = cenario.compactar();
+
+        reparador.reparar(turnos);
+
+        assertEquals(1, turnos.alocado(0));
+    }
+
+    @Test
+    void semAlternativaAlocaQuemNaoTemConflitoDeHorario() {
+        // Só o profissional 0 está disponível: a regra de descanso cede, o conflito de horário não
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .regra(RegraMinDescansoHoras.CHAVE, 12)
+                .turno(1, "DIA").turno(1, "NOITE")
+                .disponiveis(1, "DIA", 0)
+                .disponiveis(1, "NOITE", 0);
+        ReparadorEscala reparador = reparador(cenario);
+        reparador.registrar(0, CenarioAlocacao.turno(CenarioAlocacao.INICIO, "NOITE"));
+        TurnosCompactos turnos = cenario.compactar();
+
+        reparador.reparar(turnos);
+
+        assertEquals(0, turnos.alocado(0));
+        assertEquals(0, turnos.alocado(1));
+    }
+
+    @Test
+    void turnoSemNinguemDisponivelFicaVago() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .turno(1, "DIA").turno(2, "DIA")
+                .disponiveis(1, "DIA");
+        ReparadorEscala reparador = reparador(cenario);
+        TurnosCompactos turnos = cenario.compactar();
+
+        reparador.reparar(turnos);
+
+        assertEquals(TurnosCompactos.NAO_ALOCADO, turnos.alocado(0));
+        assertEquals(0, turnos.alocado(1));
+    }
+
+    private static ReparadorEscala reparador(CenarioAlocacao cenario) {
+        return new ReparadorEscala(cenario.regrasCompiladas().vincular(cenario.profissionais()),
+                CenarioAlocacao.INICIO, CenarioAlocacao.INICIO.plusDays(30));
+    }
+}
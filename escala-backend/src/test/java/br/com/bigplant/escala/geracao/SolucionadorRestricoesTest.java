@@ -0,0 +1,92 @@
+package br.com.bigplant.escala.geracao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import br.com.bigplant.escala.geracao.regras.RegraMaxNoitesMes;
+import br.com.bigplant.escala.geracao.regras.RegraMaxPlantoesConsecutivos;
+import br.com.bigplant.escala.geracao.regras.RegraMinDescansoHoras;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+// Nos cenários abaixo o guloso (menos carregado primeiro, empate pelo índice) escolhe o profissional 0 no
+// primeiro turno e depois não tem como cobrir um turno seguinte sem violar uma regra; a busca volta atrás.
+class SolucionadorRestricoesTest {
+
+    @Test
+    void voltaAtrasParaRespeitarDescansoMinimo() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .regra(RegraMinDescansoHoras.CHAVE, 12)
+                .turno(0, "DIA").turno(0, "NOITE")
+                .disponiveis(0, "NOITE", 0);
+
+        TurnosCompactos turnos = alocar(cenario, new EstadoAlocacao(2));
+
+        assertEquals(1, turnos.alocado(0));
+        assertEquals(0, turnos.alocado(1));
+    }
+
+    @Test
+    void voltaAtrasParaRespeitarNoitesNoMes() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .regra(RegraMaxNoitesMes.CHAVE, 1)
+                .turno(0, "NOITE").turno(2, "NOITE")
+                .disponiveis(2, "NOITE", 0);
+
+        TurnosCompactos turnos = alocar(cenario, new EstadoAlocacao(2));
+
+        assertEquals(1, turnos.alocado(0));
+        assertEquals(0, turnos.alocado(1));
+    }
+
+    @Test
+    void voltaAtrasParaRespeitarPlantoesConsecutivos() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .regra(RegraMaxPlantoesConsecutivos.CHAVE, 2)
+                .turno(0, "DIA").turno(1, "DIA").turno(2, "DIA")
+                .disponiveis(1, "DIA", 0)
+                .disponiveis(2, "DIA", 0);
+
+        TurnosCompactos turnos = alocar(cenario, new EstadoAlocacao(2));
+
+        assertEquals(1, turnos.alocado(0));
+        assertEquals(0, turnos.alocado(1));
+        assertEquals(0, turnos.alocado(2));
+    }
+
+    @Test
+    void turnoSemNinguemDisponivelFicaVagoSemAtrapalharOsDemais() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2)
+                .turno(0, "DIA").turno(1, "DIA").turno(2, "DIA")
+                .disponiveis(1, "DIA");
+        EstadoAlocacao estado = new EstadoAlocacao(2);
+
+        TurnosCompactos turnos = alocar(cenario, estado);
+
+        assertEquals(TurnosCompactos.NAO_ALOCADO, turnos.alocado(1));
+        assertEquals(0, turnos.alocado(0));
+        assertEquals(1, turnos.alocado(2));
+        // Só os turnos atribuídos entram no estado
+        assertEquals(1, estado.carga().plantoes(0));
+        assertEquals(1, estado.carga().plantoes(1));
+    }
+
+    @Test
+    void respeitaOcupacaoDoContexto() {
+        CenarioAlocacao cenario = new CenarioAlocacao(2).turno(0, "NOITE");
+        TurnosCompactos compactos = cenario.compactar();
+        EstadoAlocacao estado = new EstadoAlocacao(2);
+        estado.ocupacao().adicionar(0, compactos.inicio(0) + 60, compactos.inicio(0) + 120);
+
+        new SolucionadorRestricoes(cenario.regrasCompiladas().vincular(cenario.profissionais()),
+                SolucionadorRestricoes.LIMITE_NOS_PADRAO, TimeUnit.SECONDS.toNanos(1)).alocar(compactos, estado);
+
+        assertEquals(1, compactos.alocado(0));
+    }
+
+    private static TurnosCompactos alocar(CenarioAlocacao cenario, EstadoAlocacao estado) {
+        TurnosCompactos turnos = cenario.compactar();
+        new SolucionadorRestricoes(cenario.regrasCompiladas().vincular(cenario.profissionais()),
+                SolucionadorRestricoes.LIMITE_NOS_PADRAO, TimeUnit.SECONDS.toNanos(1)).alocar(turnos, estado);
+        return turnos;
+    }
+}
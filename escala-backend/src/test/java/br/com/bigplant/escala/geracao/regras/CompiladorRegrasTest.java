@@ -0,0 +1,61 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import br.com.bigplant.escala.model.RegraEscalaParametro;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CompiladorRegrasTest {
+
+    private final CompiladorRegras compilador = new CompiladorRegras(List.of(
+            new RegraMaxNoitesMes(), new RegraMaxPlantoesConsecutivos(), new RegraMinDescansoHoras()));
+
+    @Test
+    void zeroNaoEscondeLimitePositivoInformadoDepois() {
+        RegrasCompiladas regras = compilador.compilar(List.of(
+                parametro(RegraMaxNoitesMes.CHAVE, 0, null),
+                parametro(RegraMaxNoitesMes.CHAVE, 8, null),
+                parametro(RegraMaxNoitesMes.CHAVE, 10, null)));
+
+        assertEquals(8, regras.inteiro(RegraMaxNoitesMes.CHAVE, 0));
+    }
+
+    @Test
+    void individualComZeroNaoEscondeLimiteIndividualPositivo() {
+        RegrasCompiladas regras = compilador.compilar(List.of(
+                parametro(RegraMaxPlantoesConsecutivos.CHAVE, -1, 7L),
+                parametro(RegraMaxPlantoesConsecutivos.CHAVE, 3, 7L)));
+
+        assertEquals(3, regras.individuais().get(7L).get(RegraMaxPlantoesConsecutivos.CHAVE).inteiro(0));
+    }
+
+    @Test
+    void decimalPositivoContaQuandoNaoHaInteiro() {
+        RegraEscalaParametro decimal = parametro(RegraMinDescansoHoras.CHAVE, null, null);
+        decimal.setValorDecimal(new BigDecimal("11.5"));
+        RegrasCompiladas regras = compilador.compilar(List.of(
+                parametro(RegraMinDescansoHoras.CHAVE, 0, null), decimal));
+
+        assertEquals(11.5, regras.decimal(RegraMinDescansoHoras.CHAVE, 0), 1e-9);
+    }
+
+    @Test
+    void sobrescritaComZeroDesligaARegra() {
+        RegrasCompiladas regras = compilador.compilar(
+                List.of(parametro(RegraMaxNoitesMes.CHAVE, 8, null)), Map.of(RegraMaxNoitesMes.CHAVE, 0));
+
+        assertEquals(0, regras.inteiro(RegraMaxNoitesMes.CHAVE, 0));
+    }
+
+    private static RegraEscalaParametro parametro(String chave, Integer valor, Long idProfissional) {
+        RegraEscalaParametro parametro = new RegraEscalaParametro();
+        parametro.setChave(chave);
+        parametro.setValorInteiro(valor);
+        parametro.setIdProfissional(idProfissional);
+        parametro.setAtivo(true);
+        return parametro;
+    }
+}
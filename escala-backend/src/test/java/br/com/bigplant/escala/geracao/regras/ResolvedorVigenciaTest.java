@@ -0,0 +1,64 @@
+package br.com.bigplant.escala.geracao.regras;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import br.com.bigplant.escala.model.RegraEscalaParametro;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ResolvedorVigenciaTest {
+
+    private final CompiladorRegras compilador = new CompiladorRegras(List.of(new RegraMaxNoitesMes()));
+    private final ResolvedorVigencia resolvedor = new ResolvedorVigencia(compilador);
+
+    private final LinhaVigencia linha = new LinhaVigencia(List.of(
+            parametro(1L, 8, LocalDate.of(2030, 1, 1), null),
+            parametro(2L, 5, LocalDate.of(2030, 3, 1), LocalDate.of(2030, 3, 31))));
+
+    @Test
+    void janelasDiferentesNoMesmoTrechoUsamAMesmaCompilacao() {
+        Map<LocalDate, RegrasCompiladas> trechos = new HashMap<>();
+        RegrasPorPeriodo janeiro = resolvedor.resolver(linha, LocalDate.of(2030, 1, 10), LocalDate.of(2030, 1, 20),
+                inicio -> trechos.computeIfAbsent(inicio, i -> resolvedor.compilarTrecho(linha, i)));
+        RegrasPorPeriodo fevereiro = resolvedor.resolver(linha, LocalDate.of(2030, 2, 1), LocalDate.of(2030, 2, 28),
+                inicio -> trechos.computeIfAbsent(inicio, i -> resolvedor.compilarTrecho(linha, i)));
+
+        assertSame(janeiro.em(LocalDate.of(2030, 1, 15)), fevereiro.em(LocalDate.of(2030, 2, 15)));
+        assertEquals(1, trechos.size());
+    }
+
+    @Test
+    void trechosSeguemAsMudancasDeVigenciaDentroDaJanela() {
+        RegrasPorPeriodo regras = resolvedor.resolver(linha, LocalDate.of(2030, 2, 15), LocalDate.of(2030, 4, 15),
+                inicio -> resolvedor.compilarTrecho(linha, inicio));
+
+        assertEquals(8, regras.em(LocalDate.of(2030, 2, 20)).inteiro(RegraMaxNoitesMes.CHAVE, 0));
+        assertEquals(5, regras.em(LocalDate.of(2030, 3, 10)).inteiro(RegraMaxNoitesMes.CHAVE, 0));
+        assertEquals(8, regras.em(LocalDate.of(2030, 4, 1)).inteiro(RegraMaxNoitesMes.CHAVE, 0));
+        assertEquals(LocalDate.of(2030, 2, 28), regras.fimTrecho(LocalDate.of(2030, 2, 15)));
+        assertEquals(List.of(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 3, 1), LocalDate.of(2030, 4, 1)),
+                linha.iniciosTrechos(LocalDate.of(2030, 2, 15), LocalDate.of(2030, 4, 15)));
+    }
+
+    @Test
+    void antesDaPrimeiraVigenciaNaoHaRegras() {
+        assertEquals(LinhaVigencia.ANTES_DE_TUDO, linha.inicioTrecho(LocalDate.of(2029, 6, 1)));
+        assertEquals(0, resolvedor.compilarTrecho(linha, LinhaVigencia.ANTES_DE_TUDO)
+                .inteiro(RegraMaxNoitesMes.CHAVE, 0));
+    }
+
+    private static RegraEscalaParametro parametro(Long id, int valor, LocalDate inicio, LocalDate fim) {
+        RegraEscalaParametro parametro = new RegraEscalaParametro();
+        parametro.setId(id);
+        parametro.setChave(RegraMaxNoitesMes.CHAVE);
+        parametro.setValorInteiro(valor);
+        parametro.setDataInicioVigencia(inicio);
+        parametro.setDataFimVigencia(fim);
+        parametro.setAtivo(true);
+        return parametro;
+    }
+}
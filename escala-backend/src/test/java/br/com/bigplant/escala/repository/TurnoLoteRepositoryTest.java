@@ -0,0 +1,116 @@
+package br.com.bigplant.escala.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import br.com.bigplant.escala.ContadorJdbc;
+import br.com.bigplant.escala.model.Escala;
+import br.com.bigplant.escala.model.Turno;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+// Idas ao banco para gravar os turnos de uma escala, contadas nos comandos executados pelo driver: pelo JPA
+// (id IDENTITY, um INSERT por turno) e pelo TurnoLoteRepository (um INSERT por lote de LINHAS_POR_INSERT,
+// mais as duas consultas que releem os ids).
+@SpringBootTest
+@Transactional
+@Import(ContadorJdbc.class)
+class TurnoLoteRepositoryTest {
+
+    private static final Long ID_HOSPITAL = 902L;
+    private static final LocalDate INICIO = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private TurnoLoteRepository turnoLoteRepository;
+
+    @Autowired
+    private TurnoRepository turnoRepository;
+
+    @Autowired
+    private EscalaRepository escalaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Escala escala;
+
+    @BeforeEach
+    void criarEscala() {
+        escala = new Escala();
+        escala.setIdHospital(ID_HOSPITAL);
+        escala.setDataInicio(INICIO);
+        escala.setDataFim(INICIO.plusYears(1));
+        escala.setStatus("GERADA");
+        escala = escalaRepository.saveAndFlush(escala);
+    }
+
+    @Test
+    void idasAoBancoPorTamanhoDaEscala() {
+        for (int quantidade : new int[] {32, 480, 3650}) {
+            ContadorJdbc.zerar();
+            turnoRepository.saveAllAndFlush(turnos(quantidade, escala));
+            long jpa = ContadorJdbc.insercoesEm("turno");
+
+            ContadorJdbc.zerar();
+            turnoLoteRepository.inserir(turnos(quantidade, null), escala.getId());
+            int lote = ContadorJdbc.total();
+
+            assertEquals(quantidade, jpa);
+            assertEquals(2 + (quantidade + TurnoLoteRepository.LINHAS_POR_INSERT - 1)
+                    / TurnoLoteRepository.LINHAS_POR_INSERT, lote);
+        }
+    }
+
+    // Cada turno recebe o id da linha com o seu conteúdo, inclusive quando a escala já tinha turnos e quando
+    // há turnos iguais (vagas com mais de uma pessoa)
+    @Test
+    void idsCorrespondemAsLinhasInseridas() {
+        turnoLoteRepository.inserir(turnos(10, null), escala.getId());
+        List<Turno> turnos = turnos(1200, null);
+        turnos.addAll(turnos(3, null));
+
+        turnoLoteRepository.inserir(turnos, escala.getId());
+
+        Set<Long> ids = new HashSet<>();
+        for (Turno turno : turnos) {
+            assertNotNull(turno.getId());
+            ids.add(turno.getId());
+            Long idProfissional = jdbcTemplate.queryForObject(
+                    "SELECT id_profissional FROM turno WHERE id = ?", Long.class, turno.getId());
+            LocalDate data = jdbcTemplate.queryForObject(
+                    "SELECT data FROM turno WHERE id = ?", LocalDate.class, turno.getId());
+            assertEquals(turno.getIdProfissional(), idProfissional);
+            assertEquals(turno.getData(), data);
+        }
+        assertEquals(turnos.size(), ids.size());
+    }
+
+    // Dia e noite alternados, com dez profissionais em rodízio
+    private static List<Turno> turnos(int quantidade, Escala escala) {
+        List<Turno> turnos = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            boolean dia = i % 2 == 0;
+            Turno turno = new Turno();
+            turno.setData(INICIO.plusDays(i / 2));
+            turno.setHoraInicio(dia ? LocalTime.of(7, 0) : LocalTime.of(19, 0));
+            turno.setHoraFim(dia ? LocalTime.of(19, 0) : LocalTime.of(7, 0));
+            turno.setTipo(dia ? "DIA" : "NOITE");
+            turno.setIdHospital(ID_HOSPITAL);
+            turno.setIdProfissional(1L + i % 10);
+            turno.setEscala(escala);
+            turnos.add(turno);
+        }
+        return turnos;
+    }
+}
@@ -0,0 +1,91 @@
+package br.com.bigplant.escala.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import br.com.bigplant.escala.ContadorComandos;
+import br.com.bigplant.escala.dto.DadosGeracaoEscalaDTO;
+import br.com.bigplant.escala.geracao.ProgressoGeracao;
+import br.com.bigplant.escala.model.Disponibilidade;
+import br.com.bigplant.escala.model.Profissional;
+import br.com.bigplant.escala.repository.DisponibilidadeRepository;
+import br.com.bigplant.escala.repository.ProfissionalRepository;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+// A disponibilidade é lida uma vez por bloco, numa consulta por intervalo: o número de consultas acompanha
+// o número de blocos (um por mês, sem diasPorBloco) e não o de dias ou turnos de cada bloco. Antes era uma
+// consulta por (data, tipo de turno).
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=br.com.bigplant.escala.ContadorComandos")
+class GeracaoEscalaConsultasTest {
+
+    private static final Long ID_HOSPITAL = 901L;
+    private static final LocalDate INICIO = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private GeracaoEscalaService geracaoEscalaService;
+
+    @Autowired
+    private ProfissionalRepository profissionalRepository;
+
+    @Autowired
+    private DisponibilidadeRepository disponibilidadeRepository;
+
+    @BeforeEach
+    void criarDados() {
+        for (int i = 0; i < 3; i++) {
+            Profissional profissional = new Profissional();
+            profissional.setNome("Profissional " + i);
+            profissional.setIdHospital(ID_HOSPITAL);
+            profissional.setAtivo(true);
+            profissional.setPerfil("MEDICO");
+            Long id = profissionalRepository.save(profissional).getId();
+            // Disponibilidade em todos os dias dos dois horizontes testados
+            for (int dia = 0; dia < 90; dia++) {
+                for (String tipo : new String[] {"DIA", "NOITE"}) {
+                    Disponibilidade disponibilidade = new Disponibilidade();
+                    disponibilidade.setIdHospital(ID_HOSPITAL);
+                    disponibilidade.setIdProfissional(id);
+                    disponibilidade.setData(INICIO.plusDays(dia));
+                    disponibilidade.setTipoTurno(tipo);
+                    disponibilidade.setDisponivel(true);
+                    disponibilidadeRepository.save(disponibilidade);
+                }
+            }
+        }
+        disponibilidadeRepository.flush();
+    }
+
+    // Configuração padrão: blocos mensais, uma consulta por mês do horizonte
+    @Test
+    void consultasDeDisponibilidadeSaoUmaPorMesNaConfiguracaoPadrao() {
+        assertEquals(1, consultasDeDisponibilidade(INICIO.plusDays(14), null));
+        assertEquals(3, consultasDeDisponibilidade(INICIO.plusDays(89), null));
+    }
+
+    // Com o período inteiro num bloco só, a consulta não se repete por dia
+    @Test
+    void consultasDeDisponibilidadeNaoCrescemComOTamanhoDoBloco() {
+        long janela15Dias = consultasDeDisponibilidade(INICIO.plusDays(14), 90);
+        long janela90Dias = consultasDeDisponibilidade(INICIO.plusDays(89), 90);
+
+        assertEquals(1, janela15Dias);
+        assertEquals(janela15Dias, janela90Dias);
+    }
+
+    // INICIO é 1º de janeiro: 15 dias cabem em janeiro, 90 dias vão até o fim de março
+    private long consultasDeDisponibilidade(LocalDate fim, Integer diasPorBloco) {
+        DadosGeracaoEscalaDTO dados = new DadosGeracaoEscalaDTO();
+        dados.setDiasPorBloco(diasPorBloco);
+        ContadorComandos.zerar();
+        geracaoEscalaService.gerarEscala(ID_HOSPITAL, INICIO, fim, dados, ProgressoGeracao.NENHUM);
+        return ContadorComandos.naTabela("disponibilidade");
+    }
+}
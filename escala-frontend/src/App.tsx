@@ -11,6 +11,7 @@ import { GerenciadorInstituicoes } from './components/institutions/GerenciadorIn
 import { GerenciadorRegras } from './components/rules/GerenciadorRegras'
 import { RelatoriosIndicadores } from './components/reports/RelatoriosIndicadores'
 import { AuditoriaLogs } from './components/audit/AuditoriaLogs'
+import { buscarTodasPaginas } from './paginacao'
 import type {
   Turno,
   Escala,
@@ -192,11 +193,13 @@ function App() {
     if (usuarioLogado) {
       const carregarDadosIniciais = async () => {
         try {
-          // Carregar profissionais
-          const resProf = await authFetch(`${API_BASE_URL}/api/profissionais`)
-          if (resProf.ok) {
-            const dadosProf = await resProf.json()
+          // Carregar profissionais (a listagem é paginada; busca todas as páginas)
+          try {
+            const dadosProf = await buscarTodasPaginas<Profissional>(
+              url => authFetch(url), `${API_BASE_URL}/api/profissionais`, 'Erro ao carregar profissionais')
             setProfissionais(dadosProf)
+          } catch (error) {
+            console.error('Erro ao carregar profissionais:', error)
           }
           
           // Carregar locais (opcional, mas bom para garantir)
@@ -1,6 +1,7 @@
 import React, { useState, useEffect } from 'react'
 import { Search, Filter, Eye, MapPin } from 'lucide-react'
 import type { UsuarioAutenticado, AuditLog } from '../../types'
+import { buscarTodasPaginas } from '../../paginacao'
 
 interface AuditoriaLogsProps {
   usuarioLogado: UsuarioAutenticado
@@ -42,18 +43,17 @@ export function AuditoriaLogs({ usuarioLogado }: AuditoriaLogsProps) {
         url += `?usuarioIdFiltro=${filtroUsuario}`
       }
 
-      const response = await fetch(url, {
-        headers: {
-          'Authorization': `Bearer ${token}`
-        }
-      })
-
-      if (response.ok) {
-        const data = await response.json()
-        setLogs(data)
-      } else {
-        console.error('Erro ao buscar logs:', response.status, response.statusText)
-      }
+      // Os filtros da tela rodam no navegador, então a lista precisa de todas as páginas
+      const data = await buscarTodasPaginas<AuditLog>(
+        (urlPagina) => fetch(urlPagina, {
+          headers: {
+            'Authorization': `Bearer ${token}`
+          }
+        }),
+        url,
+        'Erro ao buscar logs'
+      )
+      setLogs(data)
     } catch (error) {
       console.error('Erro ao buscar logs:', error)
     } finally {
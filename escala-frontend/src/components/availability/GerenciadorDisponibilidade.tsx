@@ -30,6 +30,7 @@ import {
   ChevronRight
 } from 'lucide-react'
 import type { Disponibilidade, UsuarioAutenticado } from '../../types'
+import { buscarTodasPaginas } from '../../paginacao'
 
 interface Props {
   usuario: UsuarioAutenticado
@@ -66,9 +67,8 @@ export function GerenciadorDisponibilidade({ usuario, apiBaseUrl }: Props) {
   const carregarDisponibilidades = async () => {
     try {
       setCarregando(true)
-      const resposta = await authFetch('/api/disponibilidades')
-      if (!resposta.ok) throw new Error('Erro ao carregar disponibilidades')
-      const dados: Disponibilidade[] = await resposta.json()
+      const dados = await buscarTodasPaginas<Disponibilidade>(
+        url => authFetch(url), '/api/disponibilidades', 'Erro ao carregar disponibilidades')
       // Filter for current user if needed, though backend usually handles this or returns all
       // For now, filtering client-side if the API returns all
       const minhas = usuario.perfil === 'MEDICO' 
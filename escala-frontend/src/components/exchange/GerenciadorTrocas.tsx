@@ -16,6 +16,7 @@ import {
   ArrowRight
 } from 'lucide-react'
 import type { TrocaPlantao, Turno, Profissional, UsuarioAutenticado } from '../../types'
+import { buscarTodasPaginas } from '../../paginacao'
 
 interface Props {
   usuarioLogado: UsuarioAutenticado
@@ -62,18 +63,16 @@ export function GerenciadorTrocas({
       setErro(null)
 
       // Carregar trocas
-      const resTrocas = await authFetch(`${apiBaseUrl}/api/trocas`)
-      if (!resTrocas.ok) throw new Error('Erro ao carregar trocas')
-      const dadosTrocas: TrocaPlantao[] = await resTrocas.json()
+      const dadosTrocas = await buscarTodasPaginas<TrocaPlantao>(
+        url => authFetch(url), `${apiBaseUrl}/api/trocas`, 'Erro ao carregar trocas')
       
       // Ordenar por data de solicitação (mais recente primeiro)
       dadosTrocas.sort((a, b) => new Date(b.dataSolicitacao).getTime() - new Date(a.dataSolicitacao).getTime())
       setTrocas(dadosTrocas)
 
       // Carregar turnos para o formulário
-      const resTurnos = await authFetch(`${apiBaseUrl}/api/turnos`)
-      if (!resTurnos.ok) throw new Error('Erro ao carregar turnos')
-      const listaTurnos: Turno[] = await resTurnos.json()
+      const listaTurnos = await buscarTodasPaginas<Turno>(
+        url => authFetch(url), `${apiBaseUrl}/api/turnos`, 'Erro ao carregar turnos')
       
       setTodosTurnos(listaTurnos)
 
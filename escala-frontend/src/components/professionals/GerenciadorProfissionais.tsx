@@ -15,6 +15,7 @@ import {
   Lock
 } from 'lucide-react'
 import type { Profissional, UsuarioAutenticado, Especialidade } from '../../types'
+import { buscarTodasPaginas } from '../../paginacao'
 
 interface Props {
   profissionais: Profissional[]
@@ -91,9 +92,8 @@ export function GerenciadorProfissionais({
       // Porém, como é uma aba de gestão, é bom ter dados frescos.
       setCarregando(true)
       try {
-        const resposta = await authFetch(`${apiBaseUrl}/api/profissionais`)
-        if (!resposta.ok) throw new Error('Erro ao carregar profissionais')
-        const dados = await resposta.json()
+        const dados = await buscarTodasPaginas<Profissional>(
+          url => authFetch(url), `${apiBaseUrl}/api/profissionais`, 'Erro ao carregar profissionais')
         setProfissionais(dados)
         
         // Carregar especialidades
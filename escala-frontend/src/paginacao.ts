@@ -0,0 +1,21 @@
+// Listagens paginadas do backend: o corpo é a lista da página e o cursor da próxima
+// vem no cabeçalho X-Proximo-Cursor (ausente na última). Busca todas as páginas em sequência: as telas
+// que usam isto filtram e ordenam a lista inteira no navegador, então o total baixado é o mesmo de antes;
+// o que diminui é cada resposta (e a consulta por trás dela), limitada ao tamanho da página.
+export async function buscarTodasPaginas<T>(
+  buscar: (url: string) => Promise<Response>,
+  url: string,
+  mensagemErro: string
+): Promise<T[]> {
+  const itens: T[] = []
+  let cursor: string | null = null
+  do {
+    const separador = url.includes('?') ? '&' : '?'
+    const resposta = await buscar(cursor ? `${url}${separador}cursor=${encodeURIComponent(cursor)}` : url)
+    if (!resposta.ok) throw new Error(mensagemErro)
+    const pagina: T[] = await resposta.json()
+    itens.push(...pagina)
+    cursor = resposta.headers.get('X-Proximo-Cursor')
+  } while (cursor)
+  return itens
+}